@@ -1,9 +1,228 @@
 const functions = require("firebase-functions");
 const admin = require("firebase-admin");
 const {initializeApp} = require("firebase-admin/app");
+const {getFirestore, FieldValue, FieldPath} =
+    require("firebase-admin/firestore");
+const lottery = require("./lottery");
+const search = require("./search");
 
 initializeApp();
 const fcm = admin.messaging();
+const db = getFirestore();
+
+// FCM accepts at most 500 tokens per multicast message.
+const MULTICAST_CHUNK_SIZE = 500;
+// Number of multicast chunks in flight at the same time.
+const MULTICAST_CONCURRENCY = 4;
+// Firestore accepts at most 30 values in an "in" filter.
+const MAX_IN_FILTER_SIZE = 30;
+const TOKEN_NOT_REGISTERED = "messaging/registration-token-not-registered";
+// Firestore accepts at most 500 writes per batch.
+const MAX_BATCH_WRITES = 500;
+// Number of user documents read per getAll call.
+const USER_READ_CHUNK_SIZE = 300;
+// Recipients stored per notification document.
+const NOTIFICATION_RECIPIENT_CHUNK = 5000;
+// Must match RegistrationCounter.SHARD_COUNT in the Android app.
+const COUNTER_SHARD_COUNT = 10;
+const DRAWABLE_STATUSES = ["WAITING", "CANCELLED"];
+// Draw transactions committed at the same time.
+const DRAW_COMMIT_CONCURRENCY = 4;
+// Lifetime of a draw lock; longer than the function timeout.
+const DRAW_LOCK_MS = 10 * 60 * 1000;
+// Stored when an organizer has no name. Must match
+// NotificationModel.UNKNOWN_ORGANIZER in the Android app.
+const UNKNOWN_ORGANIZER = "Unknown";
+// Documents read per page while backfilling search tokens and notification
+// details.
+const BACKFILL_PAGE_SIZE = 500;
+
+/**
+ * Splits an array into consecutive chunks.
+ * @param {Array} items the array to split
+ * @param {number} size the maximum chunk size
+ * @return {Array<Array>} the chunks, in order
+ */
+function chunk(items, size) {
+  const chunks = [];
+  for (let i = 0; i < items.length; i += size) {
+    chunks.push(items.slice(i, i + size));
+  }
+  return chunks;
+}
+
+/**
+ * Maps items through an async function with at most `limit` calls in flight.
+ * @param {Array} items the items to map
+ * @param {number} limit the maximum number of concurrent calls
+ * @param {function(*, number): Promise} fn the async mapping function
+ * @return {Promise<Array>} the results, in the order of `items`
+ */
+async function mapWithConcurrency(items, limit, fn) {
+  const results = new Array(items.length);
+  let next = 0;
+  const worker = async () => {
+    while (next < items.length) {
+      const index = next++;
+      results[index] = await fn(items[index], index);
+    }
+  };
+  const workers = [];
+  for (let i = 0; i < Math.min(limit, items.length); i++) {
+    workers.push(worker());
+  }
+  await Promise.all(workers);
+  return results;
+}
+
+/**
+ * Removes FCM tokens that FCM reported as no longer registered from the
+ * users that own them, so later fan-outs stop sending to them.
+ * @param {Array<string>} staleTokens the tokens to remove
+ * @return {Promise<number>} the number of user documents updated
+ */
+async function pruneStaleTokens(staleTokens) {
+  let pruned = 0;
+  for (const tokens of chunk(staleTokens, MAX_IN_FILTER_SIZE)) {
+    const snapshot = await db.collection("users")
+        .where("fcmToken", "in", tokens)
+        .get();
+    if (snapshot.empty) {
+      continue;
+    }
+    const batch = db.batch();
+    snapshot.forEach((doc) => {
+      batch.update(doc.ref, {
+        fcmToken: FieldValue.delete(),
+        contactUpdatedAt: FieldValue.serverTimestamp(),
+      });
+    });
+    await batch.commit();
+    pruned += snapshot.size;
+  }
+  return pruned;
+}
+
+/**
+ * Sends a data message to many devices. Tokens are deduplicated and sent in
+ * chunks of 500 with bounded concurrency, and tokens that FCM reports as not
+ * registered are removed from their user documents.
+ * @param {Array<string>} tokens the device tokens
+ * @param {Object<string, string>} data the message payload
+ * @return {Promise<Object>} total and per-chunk success/failure counts
+ */
+async function sendMulticast(tokens, data) {
+  const uniqueTokens = [...new Set(tokens)];
+  const staleTokens = [];
+
+  const chunks = await mapWithConcurrency(
+      chunk(uniqueTokens, MULTICAST_CHUNK_SIZE),
+      MULTICAST_CONCURRENCY,
+      async (chunkTokens, index) => {
+        const response = await fcm.sendEachForMulticast({
+          data: data,
+          tokens: chunkTokens,
+          android: {
+            priority: "high",
+          },
+        });
+        response.responses.forEach((resp, idx) => {
+          if (!resp.success && resp.error &&
+              resp.error.code === TOKEN_NOT_REGISTERED) {
+            staleTokens.push(chunkTokens[idx]);
+          }
+        });
+        return {
+          index: index,
+          size: chunkTokens.length,
+          successCount: response.successCount,
+          failureCount: response.failureCount,
+        };
+      });
+
+  let prunedCount = 0;
+  if (staleTokens.length > 0) {
+    try {
+      prunedCount = await pruneStaleTokens(staleTokens);
+    } catch (error) {
+      console.log("Error pruning stale tokens:", error);
+    }
+  }
+
+  return {
+    successCount: chunks.reduce((sum, c) => sum + c.successCount, 0),
+    failureCount: chunks.reduce((sum, c) => sum + c.failureCount, 0),
+    prunedCount: prunedCount,
+    chunks: chunks,
+  };
+}
+
+/**
+ * Reads the tokens of users that accept notifications.
+ * @param {Array<string>} userIds the IDs of the users
+ * @return {Promise<Array<string>>} the tokens of reachable users
+ */
+async function getReachableTokens(userIds) {
+  const tokens = [];
+  for (const ids of chunk(userIds, USER_READ_CHUNK_SIZE)) {
+    const refs = ids.map((id) => db.collection("users").doc(id));
+    const docs = await db.getAll(...refs, {
+      fieldMask: ["fcmToken", "notificationsEnabled"],
+    });
+    docs.forEach((doc) => {
+      const token = doc.get("fcmToken");
+      if (doc.exists && doc.get("notificationsEnabled") === true && token) {
+        tokens.push(token);
+      }
+    });
+  }
+  return tokens;
+}
+
+/**
+ * Stores a notification for a set of recipients and pushes it to their
+ * devices. Recipients are split over several notification documents so a
+ * single document never approaches Firestore's size limit.
+ * @param {Object} notification title, body, eventId, senderId,
+ *     notificationType, eventTitle and organizerName of the notification
+ * @param {Array<string>} recipientIds the IDs of the recipients
+ * @return {Promise<Object>} the number of documents written and the
+ *     multicast summary
+ */
+async function notifyRecipients(notification, recipientIds) {
+  if (recipientIds.length === 0) {
+    return {documents: 0, delivery: null};
+  }
+  const recipientChunks = chunk(recipientIds, NOTIFICATION_RECIPIENT_CHUNK);
+  for (const batchChunks of chunk(recipientChunks, MAX_BATCH_WRITES)) {
+    const batch = db.batch();
+    batchChunks.forEach((recipientIdList) => {
+      const ref = db.collection("notifications").doc();
+      batch.set(ref, {
+        notificationId: ref.id,
+        title: notification.title,
+        body: notification.body,
+        createdAt: new Date(),
+        eventId: notification.eventId,
+        senderId: notification.senderId || null,
+        recipientIdList: recipientIdList,
+        isRead: false,
+        notificationType: notification.notificationType,
+        eventTitle: notification.eventTitle || null,
+        organizerName: notification.organizerName || null,
+      });
+    });
+    await batch.commit();
+  }
+
+  const tokens = await getReachableTokens(recipientIds);
+  const delivery = tokens.length === 0 ? null : await sendMulticast(tokens, {
+    title: notification.title || "",
+    body: notification.body || "",
+    eventId: notification.eventId || "",
+  });
+  return {documents: recipientChunks.length, delivery: delivery};
+}
 
 // function 1: send notification to a single device
 exports.sendNotification = functions.https.onCall((request) => {
@@ -35,7 +254,7 @@ exports.sendNotification = functions.https.onCall((request) => {
 );
 
 // function 2: send notification to multiple devices
-exports.sendMultipleNotifications = functions.https.onCall((request) => {
+exports.sendMultipleNotifications = functions.https.onCall(async (request) => {
   const {tokens, title, body, eventId} = request.data;
   if (!tokens) {
     throw new functions.https.HttpsError(
@@ -43,30 +262,448 @@ exports.sendMultipleNotifications = functions.https.onCall((request) => {
         "Missing target device token.",
     );
   }
-  const message = {
-    data: {
-      title: title || "",
-      body: body || "",
-      eventId: eventId || "",
-    },
-    tokens: tokens,
-    android: {
-      priority: "high",
-    },
-  };
+  const summary = await sendMulticast(tokens, {
+    title: title || "",
+    body: body || "",
+    eventId: eventId || "",
+  });
+  console.log("Multicast summary:", JSON.stringify(summary));
+  return summary;
+},
+);
 
-  fcm.sendEachForMulticast(message)
-      .then((response) => {
-        if (response.failureCount > 0) {
-          const failedTokens = [];
-          response.responses.forEach((resp, idx) => {
-            if (!resp.success) {
-              failedTokens.push(tokens[idx]);
-            }
-          });
-          console.log("List of tokens that caused failures: " + failedTokens);
+/**
+ * Takes the draw lock of an event, so only one draw runs per event at a
+ * time. A lock left behind by a crashed draw expires after DRAW_LOCK_MS.
+ * @param {string} eventId the event to lock
+ * @param {string} owner the UID of the organizer running the draw
+ * @return {Promise<DocumentReference>} the lock document, to release later
+ */
+async function acquireDrawLock(eventId, owner) {
+  const ref = db.collection("drawLocks").doc(eventId);
+  await db.runTransaction(async (transaction) => {
+    const lock = await transaction.get(ref);
+    if (lock.exists && lock.get("expiresAt") > Date.now()) {
+      throw new functions.https.HttpsError(
+          "aborted",
+          "A draw is already running for this event.",
+      );
+    }
+    transaction.set(ref, {owner: owner, expiresAt: Date.now() + DRAW_LOCK_MS});
+  });
+  return ref;
+}
+
+/**
+ * Marks a chunk of drawn registrations SELECTED in one transaction. Every
+ * registration is read again inside the transaction and only updated if it
+ * still has the status it was drawn with, so an entrant who withdrew or was
+ * changed since the pool was read is skipped, and the counter deltas match
+ * the writes that were made.
+ * @param {string} eventId the event of the draw
+ * @param {Array<Object>} winnerChunk the drawn registrations: id, entrantId
+ *     and the status read with the pool
+ * @param {Date} now the update time
+ * @return {Promise<Object>} the selected and skipped registrations
+ */
+function commitWinners(eventId, winnerChunk, now) {
+  return db.runTransaction(async (transaction) => {
+    const refs = winnerChunk.map((registration) =>
+      db.collection("registrations").doc(registration.id));
+    const docs = await transaction.getAll(...refs);
+    const selected = [];
+    const skipped = [];
+    const deltas = {};
+    docs.forEach((doc, index) => {
+      const registration = winnerChunk[index];
+      if (!doc.exists || doc.get("eventId") !== eventId ||
+          doc.get("status") !== registration.status) {
+        skipped.push(registration);
+        return;
+      }
+      transaction.update(doc.ref, {status: "SELECTED", updatedAt: now});
+      deltas.SELECTED = (deltas.SELECTED || 0) + 1;
+      deltas[registration.status] = (deltas[registration.status] || 0) - 1;
+      selected.push(registration);
+    });
+    if (selected.length > 0) {
+      const shard = Math.floor(Math.random() * COUNTER_SHARD_COUNT);
+      const increments = {};
+      Object.keys(deltas).forEach((status) => {
+        increments[status] = FieldValue.increment(deltas[status]);
+      });
+      transaction.set(db.collection("registrationCounters").doc(eventId)
+          .collection("shards").doc(String(shard)), increments, {merge: true});
+    }
+    return {selected: selected, skipped: skipped};
+  });
+}
+
+/**
+ * Runs a draw while the event's draw lock is held.
+ * @param {DocumentSnapshot} eventDoc the event
+ * @param {number} count the number of winners to select
+ * @param {string} drawSeed the seed of the draw
+ * @return {Promise<Object>} the draw summary, without notifications
+ */
+async function runDraw(eventDoc, count, drawSeed) {
+  const eventId = eventDoc.id;
+  const maxAttendees = eventDoc.get("maxAttendees") || 0;
+
+  const registrations = db.collection("registrations")
+      .where("eventId", "==", eventId);
+  const confirmedSnapshot = await registrations
+      .where("status", "==", "CONFIRMED")
+      .count()
+      .get();
+  const availableSpots = Math.max(0,
+      maxAttendees - confirmedSnapshot.data().count);
+  if (count > availableSpots) {
+    throw new functions.https.HttpsError(
+        "failed-precondition",
+        "Cannot draw more than available spots: " + availableSpots,
+    );
+  }
+
+  const poolSnapshot = await registrations
+      .where("status", "in", DRAWABLE_STATUSES)
+      .select("entrantId", "status")
+      .get();
+  // Sort so the pool order, and therefore the draw, only depends on the data
+  const pool = poolSnapshot.docs
+      .map((doc) => ({
+        id: doc.id,
+        entrantId: doc.get("entrantId"),
+        status: doc.get("status"),
+      }))
+      .sort((a, b) => (a.id < b.id ? -1 : a.id > b.id ? 1 : 0));
+  if (count > pool.length) {
+    throw new functions.https.HttpsError(
+        "failed-precondition",
+        "Only " + pool.length + " entrants in waiting/cancelled list",
+    );
+  }
+
+  const {winners, losers} = lottery.draw(pool, count, drawSeed);
+
+  // Leave room in every transaction for the counter shard write
+  const now = new Date();
+  const commits = await mapWithConcurrency(
+      chunk(winners, MAX_BATCH_WRITES - 1),
+      DRAW_COMMIT_CONCURRENCY,
+      async (winnerChunk) => {
+        try {
+          const result = await commitWinners(eventId, winnerChunk, now);
+          return {...result, failed: []};
+        } catch (error) {
+          console.log("Error committing draw transaction:", error);
+          return {selected: [], skipped: [], failed: winnerChunk};
         }
-        console.log("Successfully sent message:", response);
       });
+
+  const committedWinners = [];
+  let skippedWinners = 0;
+  let failedWinners = 0;
+  commits.forEach((commit) => {
+    commit.selected.forEach((r) => committedWinners.push(r));
+    skippedWinners += commit.skipped.length;
+    failedWinners += commit.failed.length;
+  });
+
+  return {
+    eventId: eventId,
+    seed: drawSeed,
+    requested: count,
+    poolSize: pool.length,
+    availableSpots: availableSpots,
+    committedWinners: committedWinners,
+    skippedWinners: skippedWinners,
+    failedWinners: failedWinners,
+    losers: losers,
+  };
+}
+
+// function 3: run a lottery draw for an event
+// Selects `count` winners among the WAITING and CANCELLED registrations,
+// marks them SELECTED in transactions together with the registration
+// counter shards, and notifies winners and losers. The same event state,
+// count and seed always select the same winners. Only the event's organizer
+// may draw, and a per-event lock keeps two draws from running at once.
+exports.runLotteryDraw = functions.https.onCall({
+  timeoutSeconds: 540,
+  memory: "1GiB",
+}, async (request) => {
+  if (!request.auth) {
+    throw new functions.https.HttpsError(
+        "unauthenticated",
+        "Sign in to run a draw.",
+    );
+  }
+  const {eventId, count, seed, notifications} = request.data;
+  if (!eventId || !Number.isInteger(count) || count <= 0) {
+    throw new functions.https.HttpsError(
+        "invalid-argument",
+        "eventId and a positive integer count are required.",
+    );
+  }
+  const drawSeed = seed !== undefined && seed !== null ?
+    String(seed) : String(Date.now());
+
+  const eventDoc = await db.collection("events").doc(eventId).get();
+  if (!eventDoc.exists) {
+    throw new functions.https.HttpsError("not-found", "Event not found.");
+  }
+  const senderId = eventDoc.get("organizerId") || null;
+  if (senderId !== request.auth.uid) {
+    throw new functions.https.HttpsError(
+        "permission-denied",
+        "Only the organizer of the event can run its draw.",
+    );
+  }
+
+  const lock = await acquireDrawLock(eventId, request.auth.uid);
+  let draw;
+  try {
+    draw = await runDraw(eventDoc, count, drawSeed);
+  } finally {
+    await lock.delete();
+  }
+  const {committedWinners, losers} = draw;
+
+  const summary = {
+    eventId: eventId,
+    seed: drawSeed,
+    requested: count,
+    poolSize: draw.poolSize,
+    availableSpots: draw.availableSpots,
+    committedWinners: committedWinners.length,
+    skippedWinners: draw.skippedWinners,
+    failedWinners: draw.failedWinners,
+    losers: losers.length,
+    notifications: null,
+  };
+
+  if (notifications) {
+    const organizerDoc = await db.collection("users").doc(senderId).get();
+    const organizerName = organizerDoc.exists ?
+      organizerDoc.get("name") || UNKNOWN_ORGANIZER : UNKNOWN_ORGANIZER;
+    const eventTitle = eventDoc.get("title") || null;
+    summary.notifications = {
+      selected: await notifyRecipients({
+        title: notifications.selectedTitle,
+        body: notifications.selectedBody,
+        eventId: eventId,
+        senderId: senderId,
+        notificationType: "action",
+        eventTitle: eventTitle,
+        organizerName: organizerName,
+      }, committedWinners.map((r) => r.entrantId)),
+      notSelected: await notifyRecipients({
+        title: notifications.notSelectedTitle,
+        body: notifications.notSelectedBody,
+        eventId: eventId,
+        senderId: senderId,
+        notificationType: "action",
+        eventTitle: eventTitle,
+        organizerName: organizerName,
+      }, losers.map((r) => r.entrantId)),
+    };
+  }
+
+  console.log("Lottery draw summary:", JSON.stringify(summary));
+  return summary;
+},
+);
+
+/**
+ * Writes the search tokens of every document of a collection whose stored
+ * tokens are missing or out of date. Documents are read a page at a time in
+ * document ID order and only the field `field` is fetched.
+ * @param {string} collection the collection to backfill
+ * @param {string} field the field the tokens are built from
+ * @return {Promise<Object>} the number of documents scanned and updated
+ */
+async function backfillCollection(collection, field) {
+  let scanned = 0;
+  let updated = 0;
+  let last = null;
+  for (;;) {
+    let query = db.collection(collection)
+        .orderBy(FieldPath.documentId())
+        .select(field, search.FIELD)
+        .limit(BACKFILL_PAGE_SIZE);
+    if (last) {
+      query = query.startAfter(last);
+    }
+    const page = await query.get();
+    if (page.empty) {
+      break;
+    }
+    const batch = db.batch();
+    let writes = 0;
+    page.forEach((doc) => {
+      const tokens = search.tokensFor(doc.get(field));
+      if (!search.sameTokens(doc.get(search.FIELD), tokens)) {
+        batch.update(doc.ref, {[search.FIELD]: tokens});
+        writes++;
+      }
+    });
+    if (writes > 0) {
+      await batch.commit();
+    }
+    scanned += page.size;
+    updated += writes;
+    last = page.docs[page.docs.length - 1];
+    if (page.size < BACKFILL_PAGE_SIZE) {
+      break;
+    }
+  }
+  return {scanned: scanned, updated: updated};
+}
+
+/**
+ * Rejects callers that are not administrators: signed-in users with the
+ * admin custom claim, or whose user document has the admin user type.
+ * @param {Object} request the callable request
+ * @return {Promise<void>} resolves if the caller is an administrator
+ */
+async function requireAdmin(request) {
+  if (!request.auth) {
+    throw new functions.https.HttpsError(
+        "unauthenticated",
+        "Sign in as an administrator.",
+    );
+  }
+  if (request.auth.token && request.auth.token.admin === true) {
+    return;
+  }
+  const user = await db.collection("users").doc(request.auth.uid).get();
+  if (!user.exists || user.get("userType") !== "admin") {
+    throw new functions.https.HttpsError(
+        "permission-denied",
+        "Only administrators can run this function.",
+    );
+  }
+}
+
+// function 4: backfill the search tokens of users and events
+// Fills in the searchTokens field of documents written before the app
+// started maintaining it, so the admin search finds them. Safe to run again:
+// documents that are already up to date are not written. Administrators only.
+exports.backfillSearchTokens = functions.https.onCall({
+  timeoutSeconds: 540,
+}, async (request) => {
+  await requireAdmin(request);
+  const summary = {
+    users: await backfillCollection("users", "name"),
+    events: await backfillCollection("events", "title"),
+  };
+  console.log("Search token backfill summary:", JSON.stringify(summary));
+  return summary;
+},
+);
+
+/**
+ * Reads the documents of a collection that are not cached yet. Documents
+ * that do not exist are cached as null.
+ * @param {string} collection the collection to read from
+ * @param {Array<?string>} ids the IDs to read; empty IDs are skipped
+ * @param {Map<string, ?Object>} cache document data keyed by ID
+ * @param {Array<string>} fields the fields to read
+ * @return {Promise<void>} resolves once every ID is cached
+ */
+async function cacheDocuments(collection, ids, cache, fields) {
+  const missing = [...new Set(ids)].filter((id) => id && !cache.has(id));
+  for (const idChunk of chunk(missing, USER_READ_CHUNK_SIZE)) {
+    const refs = idChunk.map((id) => db.collection(collection).doc(id));
+    const docs = await db.getAll(...refs, {fieldMask: fields});
+    docs.forEach((doc) => cache.set(doc.id, doc.exists ? doc.data() : null));
+  }
+}
+
+/**
+ * Stores the event title and organizer name on every notification written
+ * before the app started storing them. Notifications are read a page at a
+ * time in document ID order; the events and organizers of a page are read
+ * with batched getAll calls and cached for the following pages. Organizers
+ * that cannot be found are stored as UNKNOWN_ORGANIZER.
+ * @return {Promise<Object>} the number of notifications scanned and updated
+ */
+async function backfillNotificationDetails() {
+  const events = new Map();
+  const organizers = new Map();
+  let scanned = 0;
+  let updated = 0;
+  let last = null;
+  for (;;) {
+    let query = db.collection("notifications")
+        .orderBy(FieldPath.documentId())
+        .select("eventId", "senderId", "eventTitle", "organizerName")
+        .limit(BACKFILL_PAGE_SIZE);
+    if (last) {
+      query = query.startAfter(last);
+    }
+    const page = await query.get();
+    if (page.empty) {
+      break;
+    }
+    const stale = page.docs.filter((doc) =>
+      !doc.get("eventTitle") || !doc.get("organizerName"));
+    await cacheDocuments("events", stale.map((doc) => doc.get("eventId")),
+        events, ["title", "organizerId"]);
+    const senderIdOf = (doc) => {
+      const event = events.get(doc.get("eventId"));
+      return doc.get("senderId") || (event && event.organizerId) || null;
+    };
+    await cacheDocuments("users", stale.map(senderIdOf), organizers, ["name"]);
+
+    const batch = db.batch();
+    let writes = 0;
+    stale.forEach((doc) => {
+      const event = events.get(doc.get("eventId"));
+      const senderId = senderIdOf(doc);
+      const organizer = senderId ? organizers.get(senderId) : null;
+      const update = {};
+      if (!doc.get("eventTitle") && event && event.title) {
+        update.eventTitle = event.title;
+      }
+      if (!doc.get("senderId") && senderId) {
+        update.senderId = senderId;
+      }
+      if (!doc.get("organizerName")) {
+        update.organizerName = organizer && organizer.name ?
+          organizer.name : UNKNOWN_ORGANIZER;
+      }
+      if (Object.keys(update).length > 0) {
+        batch.update(doc.ref, update);
+        writes++;
+      }
+    });
+    if (writes > 0) {
+      await batch.commit();
+    }
+    scanned += page.size;
+    updated += writes;
+    last = page.docs[page.docs.length - 1];
+    if (page.size < BACKFILL_PAGE_SIZE) {
+      break;
+    }
+  }
+  return {scanned: scanned, updated: updated};
+}
+
+// function 5: backfill the event title and organizer name of notifications
+// Denormalizes the details the admin notification log shows onto records
+// written before the app stored them, so the log no longer reads an event and
+// a user per notification. Safe to run again: complete records are skipped.
+// Administrators only.
+exports.backfillNotificationDetails = functions.https.onCall({
+  timeoutSeconds: 540,
+}, async (request) => {
+  await requireAdmin(request);
+  const summary = await backfillNotificationDetails();
+  console.log("Notification detail backfill summary:",
+      JSON.stringify(summary));
+  return summary;
 },
 );
@@ -0,0 +1,84 @@
+// Seeded winner selection for runLotteryDraw. Kept free of Firebase
+// dependencies so it can be exercised without the emulator.
+
+/**
+ * Hashes a seed of any type into a 32-bit unsigned integer.
+ * @param {*} seed the seed; numbers and strings hash to the same value
+ *     when their string forms are equal
+ * @return {number} the hashed seed
+ */
+function hashSeed(seed) {
+  const text = String(seed);
+  let h = 1779033703 ^ text.length;
+  for (let i = 0; i < text.length; i++) {
+    h = Math.imul(h ^ text.charCodeAt(i), 3432918353);
+    h = (h << 13) | (h >>> 19);
+  }
+  h = Math.imul(h ^ (h >>> 16), 2246822507);
+  h = Math.imul(h ^ (h >>> 13), 3266489909);
+  return (h ^ (h >>> 16)) >>> 0;
+}
+
+/**
+ * Creates a deterministic pseudo-random generator (mulberry32).
+ * @param {*} seed the seed
+ * @return {function(): number} a function returning floats in [0, 1)
+ */
+function createRandom(seed) {
+  let state = hashSeed(seed);
+  return () => {
+    state = (state + 0x6D2B79F5) >>> 0;
+    let t = state;
+    t = Math.imul(t ^ (t >>> 15), t | 1);
+    t ^= t + Math.imul(t ^ (t >>> 7), t | 61);
+    return ((t ^ (t >>> 14)) >>> 0) / 4294967296;
+  };
+}
+
+/**
+ * Selects `count` distinct indices out of `[0, populationSize)` with a
+ * partial Fisher-Yates shuffle, so the cost is O(populationSize) to set up
+ * and O(count) to draw.
+ * @param {number} populationSize the number of candidates
+ * @param {number} count the number of winners; clamped to populationSize
+ * @param {function(): number} random the random generator
+ * @return {Array<number>} the winner indices, in draw order
+ */
+function selectIndices(populationSize, count, random) {
+  if (populationSize < 0 || count < 0) {
+    throw new RangeError("populationSize and count must not be negative");
+  }
+  const winners = Math.min(count, populationSize);
+  const indices = new Array(populationSize);
+  for (let i = 0; i < populationSize; i++) {
+    indices[i] = i;
+  }
+  for (let i = 0; i < winners; i++) {
+    const j = i + Math.floor(random() * (populationSize - i));
+    const swap = indices[i];
+    indices[i] = indices[j];
+    indices[j] = swap;
+  }
+  return indices.slice(0, winners);
+}
+
+/**
+ * Splits a pool into winners and losers.
+ * @param {Array} pool the candidates; not modified
+ * @param {number} count the number of winners; clamped to the pool size
+ * @param {*} seed the seed; the same pool, count and seed always give the
+ *     same result
+ * @return {{winners: Array, losers: Array}} the partition of the pool
+ */
+function draw(pool, count, seed) {
+  const picked = selectIndices(pool.length, count, createRandom(seed));
+  const isWinner = new Array(pool.length).fill(false);
+  const winners = picked.map((index) => {
+    isWinner[index] = true;
+    return pool[index];
+  });
+  const losers = pool.filter((item, index) => !isWinner[index]);
+  return {winners: winners, losers: losers};
+}
+
+module.exports = {createRandom, selectIndices, draw};
@@ -0,0 +1,54 @@
+// Prefix tokens for the admin user and event search. Must tokenize exactly
+// like SearchTokens in the Android app, which writes the same field.
+
+const FIELD = "searchTokens";
+// Must match SearchTokens.MAX_PREFIX_LENGTH in the Android app.
+const MAX_PREFIX_LENGTH = 15;
+// Must match SearchTokens.MAX_WORDS in the Android app.
+const MAX_WORDS = 10;
+
+/**
+ * Splits text into normalized words: lowercase, without accents, and split
+ * on anything that is not a letter or digit.
+ * @param {?string} text the text to split
+ * @return {Array<string>} the words, in order
+ */
+function words(text) {
+  if (typeof text !== "string") {
+    return [];
+  }
+  return text.toLowerCase()
+      .normalize("NFD")
+      .replace(/\p{M}+/gu, "")
+      .split(/[^\p{L}\p{N}]+/u)
+      .filter((word) => word.length > 0);
+}
+
+/**
+ * Builds the tokens to store for a name: every prefix of every word.
+ * @param {?string} text the name or title
+ * @return {Array<string>} the tokens, without duplicates
+ */
+function tokensFor(text) {
+  const tokens = new Set();
+  words(text).slice(0, MAX_WORDS).forEach((word) => {
+    const length = Math.min(word.length, MAX_PREFIX_LENGTH);
+    for (let i = 1; i <= length; i++) {
+      tokens.add(word.substring(0, i));
+    }
+  });
+  return [...tokens];
+}
+
+/**
+ * Checks whether two token arrays hold the same tokens in the same order.
+ * @param {*} stored the value currently stored on the document
+ * @param {Array<string>} expected the tokens the document should have
+ * @return {boolean} true if no write is needed
+ */
+function sameTokens(stored, expected) {
+  return Array.isArray(stored) && stored.length === expected.length &&
+    stored.every((token, i) => token === expected[i]);
+}
+
+module.exports = {FIELD, tokensFor, sameTokens};
@@ -0,0 +1,69 @@
+// Runs against the Firestore emulator: npm test
+const {describe, it, before, after} = require("node:test");
+const assert = require("node:assert");
+const test = require("firebase-functions-test")({projectId: "demo-static2"});
+
+process.env.GCLOUD_PROJECT = "demo-static2";
+const functions = require("../index");
+const {getFirestore} = require("firebase-admin/firestore");
+
+const db = getFirestore();
+const ADMIN = {uid: "backfillAdmin"};
+const ENTRANT = {uid: "backfillEntrant"};
+
+after(() => test.cleanup());
+
+describe("backfillSearchTokens", () => {
+  const backfillSearchTokens = test.wrap(functions.backfillSearchTokens);
+
+  before(async () => {
+    await db.collection("users").doc(ADMIN.uid)
+        .set({name: "Admin", userType: "admin"});
+    await db.collection("users").doc(ENTRANT.uid)
+        .set({name: "Entrant", userType: "entrant"});
+  });
+
+  it("rejects callers that are not signed in", async () => {
+    await assert.rejects(backfillSearchTokens({data: {}}), /Sign in/);
+  });
+
+  it("rejects callers that are not administrators", async () => {
+    await assert.rejects(
+        backfillSearchTokens({data: {}, auth: ENTRANT}),
+        /Only administrators/);
+  });
+
+  it("runs for administrators", async () => {
+    const summary = await backfillSearchTokens({data: {}, auth: ADMIN});
+    assert.ok(summary.users.scanned >= 2);
+  });
+});
+
+describe("backfillNotificationDetails", () => {
+  const backfillNotificationDetails =
+    test.wrap(functions.backfillNotificationDetails);
+
+  before(async () => {
+    await db.collection("users").doc(ADMIN.uid)
+        .set({name: "Admin", userType: "admin"});
+    await db.collection("events").doc("backfillEvent")
+        .set({title: "Backfill event", organizerId: "missingOrganizer"});
+    await db.collection("notifications").doc("backfillNotification")
+        .set({eventId: "backfillEvent", title: "Hello"});
+  });
+
+  it("rejects callers that are not administrators", async () => {
+    await assert.rejects(
+        backfillNotificationDetails({data: {}, auth: ENTRANT}),
+        /Only administrators/);
+  });
+
+  it("stores Unknown for organizers that cannot be found", async () => {
+    await backfillNotificationDetails({data: {}, auth: ADMIN});
+    const doc = await db.collection("notifications")
+        .doc("backfillNotification").get();
+    assert.strictEqual(doc.get("eventTitle"), "Backfill event");
+    assert.strictEqual(doc.get("senderId"), "missingOrganizer");
+    assert.strictEqual(doc.get("organizerName"), "Unknown");
+  });
+});
@@ -0,0 +1,135 @@
+// Runs against the Firestore emulator: npm test
+const {describe, it, before, after} = require("node:test");
+const assert = require("node:assert");
+const test = require("firebase-functions-test")({projectId: "demo-static2"});
+const lottery = require("../lottery");
+
+process.env.GCLOUD_PROJECT = "demo-static2";
+const functions = require("../index");
+const {getFirestore} = require("firebase-admin/firestore");
+
+const db = getFirestore();
+const EVENT_ID = "drawTestEvent";
+const ORGANIZER = {uid: "organizer"};
+
+/**
+ * Creates an event with `waiting` WAITING and `confirmed` CONFIRMED
+ * registrations.
+ * @param {number} waiting the number of waiting entrants
+ * @param {number} confirmed the number of confirmed entrants
+ * @return {Promise} resolves once everything is written
+ */
+async function seedEvent(waiting, confirmed) {
+  await db.collection("events").doc(EVENT_ID).set({
+    title: "Draw test",
+    organizerId: "organizer",
+    maxAttendees: 50,
+  });
+  const batch = db.batch();
+  for (let i = 0; i < waiting + confirmed; i++) {
+    batch.set(db.collection("registrations").doc("reg" + i), {
+      eventId: EVENT_ID,
+      entrantId: "entrant" + i,
+      status: i < waiting ? "WAITING" : "CONFIRMED",
+    });
+  }
+  await batch.commit();
+}
+
+describe("lottery", () => {
+  it("partitions the pool", () => {
+    const pool = Array.from({length: 100}, (v, i) => i);
+    const {winners, losers} = lottery.draw(pool, 10, "seed");
+    assert.strictEqual(winners.length, 10);
+    assert.strictEqual(losers.length, 90);
+    assert.deepStrictEqual(
+        [...winners, ...losers].sort((a, b) => a - b), pool);
+  });
+
+  // The same vectors are asserted by LotteryEngineTest in the Android app,
+  // whose LotteryEngine must select exactly as lottery.js does.
+  it("matches the shared test vectors", () => {
+    assert.deepStrictEqual(
+        lottery.selectIndices(1000, 10, lottery.createRandom(42)),
+        [168, 289, 186, 621, 961, 200, 217, 264, 298, 938]);
+    assert.deepStrictEqual(
+        lottery.selectIndices(50000, 5, lottery.createRandom("1760000000000")),
+        [38286, 45510, 28782, 23681, 37263]);
+    const pool = Array.from({length: 10}, (v, i) => "reg" + i);
+    assert.deepStrictEqual(lottery.draw(pool, 3, "audit-7"), {
+      winners: ["reg3", "reg5", "reg7"],
+      losers: ["reg0", "reg1", "reg2", "reg4", "reg6", "reg8", "reg9"],
+    });
+  });
+
+  it("is reproducible for a seed", () => {
+    const pool = Array.from({length: 1000}, (v, i) => i);
+    assert.deepStrictEqual(
+        lottery.draw(pool, 25, 42), lottery.draw(pool, 25, "42"));
+  });
+});
+
+describe("runLotteryDraw", () => {
+  const runLotteryDraw = test.wrap(functions.runLotteryDraw);
+
+  before(() => seedEvent(40, 5));
+  after(() => test.cleanup());
+
+  it("rejects callers that are not signed in", async () => {
+    await assert.rejects(
+        runLotteryDraw({data: {eventId: EVENT_ID, count: 1}}),
+        /Sign in/);
+  });
+
+  it("rejects callers that do not organize the event", async () => {
+    await assert.rejects(
+        runLotteryDraw({
+          data: {eventId: EVENT_ID, count: 1},
+          auth: {uid: "someoneElse"},
+        }),
+        /Only the organizer/);
+  });
+
+  it("rejects draws while another draw holds the lock", async () => {
+    const lock = db.collection("drawLocks").doc(EVENT_ID);
+    await lock.set({owner: "organizer", expiresAt: Date.now() + 60000});
+    try {
+      await assert.rejects(
+          runLotteryDraw({
+            data: {eventId: EVENT_ID, count: 1},
+            auth: ORGANIZER,
+          }),
+          /already running/);
+    } finally {
+      await lock.delete();
+    }
+  });
+
+  it("rejects draws larger than the available spots", async () => {
+    await assert.rejects(
+        runLotteryDraw({data: {eventId: EVENT_ID, count: 46}, auth: ORGANIZER}),
+        /available spots/);
+  });
+
+  it("selects winners and updates the counters", async () => {
+    const summary = await runLotteryDraw(
+        {data: {eventId: EVENT_ID, count: 10, seed: "7"}, auth: ORGANIZER});
+    assert.strictEqual(summary.committedWinners, 10);
+    assert.strictEqual(summary.skippedWinners, 0);
+    assert.strictEqual(summary.losers, 30);
+
+    const selected = await db.collection("registrations")
+        .where("eventId", "==", EVENT_ID)
+        .where("status", "==", "SELECTED")
+        .get();
+    assert.strictEqual(selected.size, 10);
+
+    const shards = await db.collection("registrationCounters")
+        .doc(EVENT_ID).collection("shards").get();
+    let total = 0;
+    shards.forEach((shard) => {
+      total += shard.get("SELECTED") || 0;
+    });
+    assert.strictEqual(total, 10);
+  });
+});
@@ -0,0 +1,74 @@
+package com.ualberta.static2.benchmark;
+
+import android.os.Bundle;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+/**
+ * Scale and iteration settings for the repository benchmarks, read from instrumentation
+ * arguments so the same suite can run from 1k to 1M registrations without code changes.
+ *
+ * <pre>
+ * ./gradlew connectedAndroidTest \
+ *     -Pandroid.testInstrumentationRunnerArguments.class=com.ualberta.static2.benchmark.RepositoryBenchmark \
+ *     -Pandroid.testInstrumentationRunnerArguments.runBenchmarks=true \
+ *     -Pandroid.testInstrumentationRunnerArguments.registrations=100000
+ * </pre>
+ */
+public class BenchmarkConfig {
+    /** Only run when explicitly requested, so a normal test run never seeds data. */
+    public final boolean enabled;
+    /** Host of the Firestore emulator as seen from the device. */
+    public final String emulatorHost;
+    /** Port of the Firestore emulator. */
+    public final int emulatorPort;
+    /** Port of the Functions emulator. */
+    public final int functionsPort;
+    /** Port of the Auth emulator. */
+    public final int authPort;
+    /** Registrations seeded for the benchmarked event. */
+    public final int registrations;
+    /** Events seeded in total, including the benchmarked event. */
+    public final int events;
+    /** Fraction of the benchmarked event's registrations that are CONFIRMED. */
+    public final double confirmedRatio;
+    /** Untimed iterations run before measuring. */
+    public final int warmupIterations;
+    /** Timed iterations per benchmark. */
+    public final int iterations;
+    /** Winners selected per draw iteration. */
+    public final int drawSize;
+    /** Waiting registrations seeded for the event of each draw iteration. */
+    public final int drawPool;
+
+    private BenchmarkConfig(Bundle args) {
+        enabled = Boolean.parseBoolean(args.getString("runBenchmarks", "false"));
+        emulatorHost = args.getString("emulatorHost", "10.0.2.2");
+        emulatorPort = Integer.parseInt(args.getString("emulatorPort", "8080"));
+        functionsPort = Integer.parseInt(args.getString("functionsPort", "5001"));
+        authPort = Integer.parseInt(args.getString("authPort", "9099"));
+        registrations = Integer.parseInt(args.getString("registrations", "1000"));
+        events = Integer.parseInt(args.getString("events", "100"));
+        confirmedRatio = Double.parseDouble(args.getString("confirmedRatio", "0.05"));
+        warmupIterations = Integer.parseInt(args.getString("warmupIterations", "2"));
+        iterations = Integer.parseInt(args.getString("iterations", "10"));
+        drawSize = Integer.parseInt(args.getString("drawSize", "100"));
+        drawPool = Integer.parseInt(args.getString("drawPool", "1000"));
+    }
+
+    /**
+     * Reads the configuration from the current instrumentation arguments.
+     *
+     * @return the benchmark configuration
+     */
+    public static BenchmarkConfig fromInstrumentation() {
+        return new BenchmarkConfig(InstrumentationRegistry.getArguments());
+    }
+
+    /**
+     * @return the number of users to seed, one per registration of the benchmarked event
+     */
+    public int users() {
+        return registrations;
+    }
+}
@@ -0,0 +1,152 @@
+package com.ualberta.static2.benchmark;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects benchmark measurements and writes them as JSON and markdown into the app's
+ * external files directory ({@code benchmarks/}), from where they can be pulled with adb
+ * and compared against a previous run.
+ */
+public class BenchmarkReport {
+    private static final String TAG = "BenchmarkReport";
+
+    private final BenchmarkConfig config;
+    private final List<Result> results = new ArrayList<>();
+
+    /**
+     * Latency statistics of a single benchmark.
+     */
+    public static class Result {
+        final String name;
+        final int itemsPerOp;
+        final long[] nanos;
+
+        Result(String name, int itemsPerOp, long[] nanos) {
+            this.name = name;
+            this.itemsPerOp = itemsPerOp;
+            this.nanos = nanos.clone();
+            Arrays.sort(this.nanos);
+        }
+
+        double percentileMs(double percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * nanos.length) - 1;
+            return nanos[Math.max(0, Math.min(index, nanos.length - 1))] / 1e6;
+        }
+
+        double meanMs() {
+            long total = 0;
+            for (long n : nanos) {
+                total += n;
+            }
+            return total / 1e6 / nanos.length;
+        }
+
+        double opsPerSecond() {
+            return 1000.0 / meanMs();
+        }
+
+        double itemsPerSecond() {
+            return opsPerSecond() * itemsPerOp;
+        }
+    }
+
+    public BenchmarkReport(BenchmarkConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Records the timings of one benchmark.
+     *
+     * @param name the benchmark name
+     * @param itemsPerOp the number of documents or rows handled per operation
+     * @param nanos the duration of every timed iteration
+     */
+    public void add(String name, int itemsPerOp, long[] nanos) {
+        Result result = new Result(name, itemsPerOp, nanos);
+        results.add(result);
+        Log.i(TAG, String.format(Locale.US, "%s: p50=%.1fms p95=%.1fms mean=%.1fms",
+                name, result.percentileMs(50), result.percentileMs(95), result.meanMs()));
+    }
+
+    /**
+     * Writes {@code report.json} and {@code report.md}.
+     *
+     * @param context the context whose external files directory receives the report
+     * @return the directory the report was written to
+     * @throws IOException if a file cannot be written
+     * @throws JSONException if the JSON report cannot be built
+     */
+    public File write(Context context) throws IOException, JSONException {
+        File dir = new File(context.getExternalFilesDir(null), "benchmarks");
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        writeFile(new File(dir, "report.json"), toJson().toString(2));
+        writeFile(new File(dir, "report.md"), toMarkdown());
+        Log.i(TAG, "Benchmark report written to " + dir.getAbsolutePath() + "\n" + toMarkdown());
+        return dir;
+    }
+
+    private JSONObject toJson() throws JSONException {
+        JSONObject scale = new JSONObject();
+        scale.put("registrations", config.registrations);
+        scale.put("events", config.events);
+        scale.put("iterations", config.iterations);
+        scale.put("drawSize", config.drawSize);
+
+        JSONArray benchmarks = new JSONArray();
+        for (Result result : results) {
+            JSONObject json = new JSONObject();
+            json.put("name", result.name);
+            json.put("itemsPerOp", result.itemsPerOp);
+            json.put("minMs", result.percentileMs(0));
+            json.put("p50Ms", result.percentileMs(50));
+            json.put("p95Ms", result.percentileMs(95));
+            json.put("maxMs", result.percentileMs(100));
+            json.put("meanMs", result.meanMs());
+            json.put("opsPerSecond", result.opsPerSecond());
+            json.put("itemsPerSecond", result.itemsPerSecond());
+            benchmarks.put(json);
+        }
+
+        JSONObject report = new JSONObject();
+        report.put("timestamp", System.currentTimeMillis());
+        report.put("scale", scale);
+        report.put("benchmarks", benchmarks);
+        return report;
+    }
+
+    private String toMarkdown() {
+        StringBuilder md = new StringBuilder();
+        md.append(String.format(Locale.US, "# Repository benchmarks (%d registrations, %d events)%n%n",
+                config.registrations, config.events));
+        md.append("| Benchmark | Items/op | p50 ms | p95 ms | Max ms | Ops/s | Items/s |\n");
+        md.append("|---|---:|---:|---:|---:|---:|---:|\n");
+        for (Result result : results) {
+            md.append(String.format(Locale.US, "| %s | %d | %.1f | %.1f | %.1f | %.2f | %.0f |%n",
+                    result.name, result.itemsPerOp, result.percentileMs(50), result.percentileMs(95),
+                    result.percentileMs(100), result.opsPerSecond(), result.itemsPerSecond()));
+        }
+        return md.toString();
+    }
+
+    private static void writeFile(File file, String content) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
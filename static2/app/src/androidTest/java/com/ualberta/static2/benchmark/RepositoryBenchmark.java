@@ -0,0 +1,248 @@
+package com.ualberta.static2.benchmark;
+
+import static org.junit.Assume.assumeTrue;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.functions.FirebaseFunctions;
+import com.ualberta.eventlottery.model.EntrantRegistrationStatus;
+import com.ualberta.eventlottery.model.Event;
+import com.ualberta.eventlottery.model.Registration;
+import com.ualberta.eventlottery.repository.EventRepository;
+import com.ualberta.eventlottery.repository.RegistrationRepository;
+import com.ualberta.eventlottery.utils.CSVExportUtil;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and throughput benchmarks for the repository hot paths and the lottery draw
+ * function, run against the Firebase emulators seeded by {@link SyntheticDataSeeder}.
+ * Results are written by {@link BenchmarkReport} once all benchmarks have run.
+ * NOTE: The Firebase Emulator Suite must be running, and the suite only runs when the
+ * {@code runBenchmarks=true} instrumentation argument is given (see {@link BenchmarkConfig}).
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class RepositoryBenchmark {
+    private static final long TIMEOUT_MINUTES = 10;
+
+    private static BenchmarkConfig config;
+    private static BenchmarkReport report;
+    private static SyntheticDataSeeder seeder;
+
+    /**
+     * A repository operation adapted to a task so it can be awaited from the test thread.
+     */
+    private interface Operation {
+        Task<?> start(int iteration);
+    }
+
+    /**
+     * Untimed preparation run before every iteration of an operation.
+     */
+    private interface Setup {
+        void prepare(int iteration) throws Exception;
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        config = BenchmarkConfig.fromInstrumentation();
+        assumeTrue("Benchmarks disabled; pass runBenchmarks=true", config.enabled);
+
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        db.useEmulator(config.emulatorHost, config.emulatorPort);
+        FirebaseFunctions.getInstance().useEmulator(config.emulatorHost, config.functionsPort);
+        FirebaseAuth auth = FirebaseAuth.getInstance();
+        auth.useEmulator(config.emulatorHost, config.authPort);
+        Tasks.await(auth.signInAnonymously(), TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        seeder = new SyntheticDataSeeder(db);
+        seeder.seed(config);
+        report = new BenchmarkReport(config);
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        if (report != null) {
+            report.write(InstrumentationRegistry.getInstrumentation().getTargetContext());
+        }
+    }
+
+    private static void measure(String name, int itemsPerOp, Operation operation) throws Exception {
+        measure(name, itemsPerOp, iteration -> { }, operation);
+    }
+
+    private static void measure(String name, int itemsPerOp, Setup setup, Operation operation) throws Exception {
+        for (int i = 0; i < config.warmupIterations; i++) {
+            setup.prepare(i);
+            Tasks.await(operation.start(i), TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        }
+        long[] nanos = new long[config.iterations];
+        for (int i = 0; i < config.iterations; i++) {
+            setup.prepare(config.warmupIterations + i);
+            long start = System.nanoTime();
+            Tasks.await(operation.start(config.warmupIterations + i), TIMEOUT_MINUTES, TimeUnit.MINUTES);
+            nanos[i] = System.nanoTime() - start;
+        }
+        report.add(name, itemsPerOp, nanos);
+    }
+
+    private static Task<List<Registration>> registrationsByEvent(String eventId) {
+        TaskCompletionSource<List<Registration>> source = new TaskCompletionSource<>();
+        RegistrationRepository.getInstance().getRegistrationsByEvent(eventId, new RegistrationRepository.RegistrationListCallback() {
+            @Override
+            public void onSuccess(List<Registration> registrations) {
+                source.setResult(registrations);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                source.setException(e);
+            }
+        });
+        return source.getTask();
+    }
+
+    @Test
+    public void getRegistrationsByEvent() throws Exception {
+        measure("RegistrationRepository.getRegistrationsByEvent", config.registrations,
+                iteration -> registrationsByEvent(SyntheticDataSeeder.BENCHMARK_EVENT_ID));
+    }
+
+    @Test
+    public void getRegistrationCountByStatus() throws Exception {
+        measure("RegistrationRepository.getRegistrationCountByStatus", 1, iteration -> {
+            TaskCompletionSource<Integer> source = new TaskCompletionSource<>();
+            RegistrationRepository.getInstance().getRegistrationCountByStatus(SyntheticDataSeeder.BENCHMARK_EVENT_ID,
+                    EntrantRegistrationStatus.WAITING, new RegistrationRepository.CountCallback() {
+                        @Override
+                        public void onSuccess(int count) {
+                            source.setResult(count);
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            source.setException(e);
+                        }
+                    });
+            return source.getTask();
+        });
+    }
+
+    @Test
+    public void registerUser() throws Exception {
+        String runId = String.valueOf(System.currentTimeMillis());
+        measure("RegistrationRepository.registerUser", 1, iteration -> {
+            TaskCompletionSource<Registration> source = new TaskCompletionSource<>();
+            RegistrationRepository.getInstance().registerUser(SyntheticDataSeeder.BENCHMARK_EVENT_ID,
+                    "benchmark-new-user-" + runId + "-" + iteration, new RegistrationRepository.RegistrationCallback() {
+                        @Override
+                        public void onSuccess(Registration registration) {
+                            source.setResult(registration);
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            source.setException(e);
+                        }
+                    });
+            return source.getTask();
+        });
+    }
+
+    @Test
+    public void getAllEvents() throws Exception {
+        measure("EventRepository.getAllEvents", config.events, iteration -> {
+            TaskCompletionSource<List<Event>> source = new TaskCompletionSource<>();
+            EventRepository.getInstance().getAllEvents(new EventRepository.EventListCallback() {
+                @Override
+                public void onSuccess(List<Event> events) {
+                    source.setResult(events);
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    source.setException(e);
+                }
+            });
+            return source.getTask();
+        });
+    }
+
+    /**
+     * Draws winners with the {@code runLotteryDraw} function. Every iteration draws from an
+     * event seeded for it alone, so each draw starts from the same waiting list and the shared
+     * benchmark event is left untouched.
+     */
+    @Test
+    public void runLotteryDraw() throws Exception {
+        String organizerId = FirebaseAuth.getInstance().getCurrentUser().getUid();
+        String runId = String.valueOf(System.currentTimeMillis());
+        int pool = Math.min(config.drawPool, config.users());
+        int drawSize = Math.max(1, Math.min(config.drawSize, pool));
+
+        measure("runLotteryDraw", drawSize,
+                iteration -> seeder.seedDrawEvent(drawEventId(runId, iteration), organizerId, pool),
+                iteration -> {
+                    Map<String, Object> data = new HashMap<>();
+                    data.put("eventId", drawEventId(runId, iteration));
+                    data.put("count", drawSize);
+                    return FirebaseFunctions.getInstance()
+                            .getHttpsCallable("runLotteryDraw")
+                            .call(data)
+                            .continueWith(task -> {
+                                Map<?, ?> summary = (Map<?, ?>) task.getResult().getData();
+                                if (((Number) summary.get("committedWinners")).intValue() != drawSize) {
+                                    throw new IllegalStateException("Draw was incomplete: " + summary);
+                                }
+                                return null;
+                            });
+                });
+    }
+
+    private static String drawEventId(String runId, int iteration) {
+        return "benchmark-draw-" + runId + "-" + iteration;
+    }
+
+    @Test
+    public void exportConfirmedEntrants() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        Event event = new Event(SyntheticDataSeeder.BENCHMARK_EVENT_ID, SyntheticDataSeeder.ORGANIZER_ID,
+                "Benchmark export", "");
+        int confirmed = (int) (config.registrations * config.confirmedRatio);
+
+        measure("CSVExportUtil.exportConfirmedEntrants", confirmed, iteration -> {
+            TaskCompletionSource<Uri> source = new TaskCompletionSource<>();
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(() ->
+                    CSVExportUtil.exportConfirmedEntrants(context, event, new CSVExportUtil.ExportCallback() {
+                        @Override
+                        public void onSuccess(Uri fileUri) {
+                            source.setResult(fileUri);
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            source.setException(e);
+                        }
+                    }));
+            return source.getTask();
+        });
+    }
+}
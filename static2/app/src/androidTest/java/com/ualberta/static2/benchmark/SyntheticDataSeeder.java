@@ -0,0 +1,175 @@
+package com.ualberta.static2.benchmark;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+import com.ualberta.eventlottery.model.EntrantRegistrationStatus;
+import com.ualberta.eventlottery.model.EventRegistrationStatus;
+import com.ualberta.eventlottery.model.EventStatus;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seeds the Firestore emulator with synthetic events, users and registrations.
+ * All registrations belong to a single benchmarked event so per-event queries see the
+ * full configured scale; the remaining events only make collection scans realistic.
+ * Writes go out in 500-document batches with a bounded number of commits in flight.
+ */
+public class SyntheticDataSeeder {
+    public static final String BENCHMARK_EVENT_ID = "benchmark-event";
+    public static final String ORGANIZER_ID = "benchmark-organizer";
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_IN_FLIGHT = 8;
+    private static final long COMMIT_TIMEOUT_SECONDS = 120;
+
+    private final FirebaseFirestore db;
+    private final List<Task<Void>> inFlight = new ArrayList<>();
+    private WriteBatch batch;
+    private int batchSize;
+
+    public SyntheticDataSeeder(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    /**
+     * Seeds every collection used by the benchmarks.
+     *
+     * @param config the scale to seed
+     * @throws Exception if a commit fails or times out
+     */
+    public void seed(BenchmarkConfig config) throws Exception {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < config.events; i++) {
+            String eventId = i == 0 ? BENCHMARK_EVENT_ID : "benchmark-event-" + i;
+            set("events", eventId, event(eventId, config.registrations, now));
+        }
+
+        int confirmed = (int) (config.registrations * config.confirmedRatio);
+        for (int i = 0; i < config.users(); i++) {
+            String userId = userId(i);
+            set("users", userId, user(userId, i));
+
+            EntrantRegistrationStatus status = i < confirmed
+                    ? EntrantRegistrationStatus.CONFIRMED
+                    : EntrantRegistrationStatus.WAITING;
+            set("registrations", BENCHMARK_EVENT_ID + "_" + userId,
+                    registration(BENCHMARK_EVENT_ID, userId, status, now - i * 1000L));
+        }
+        flush();
+    }
+
+    /**
+     * Seeds an event of its own with a waiting list, for a benchmark that changes the
+     * registrations it reads. The entrants are the first synthetic users, so
+     * {@link #seed} must have run.
+     *
+     * @param eventId the ID of the new event
+     * @param organizerId the organizer of the event
+     * @param waiting the number of WAITING registrations, also the event's capacity
+     * @throws Exception if a commit fails or times out
+     */
+    public void seedDrawEvent(String eventId, String organizerId, int waiting) throws Exception {
+        long now = System.currentTimeMillis();
+        Map<String, Object> event = event(eventId, waiting, now);
+        event.put("organizerId", organizerId);
+        set("events", eventId, event);
+        for (int i = 0; i < waiting; i++) {
+            String userId = userId(i);
+            set("registrations", eventId + "_" + userId,
+                    registration(eventId, userId, EntrantRegistrationStatus.WAITING, now - i * 1000L));
+        }
+        flush();
+    }
+
+    /**
+     * Gets the ID of the i-th synthetic user.
+     *
+     * @param index the index of the user
+     * @return the user ID
+     */
+    public static String userId(int index) {
+        return "benchmark-user-" + index;
+    }
+
+    private Map<String, Object> event(String eventId, int capacity, long now) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("id", eventId);
+        event.put("title", "Benchmark event " + eventId);
+        event.put("description", "Synthetic event, with a comma and \"quotes\" to exercise CSV escaping");
+        event.put("organizerId", ORGANIZER_ID);
+        event.put("category", "Sports");
+        event.put("maxAttendees", capacity);
+        event.put("price", 0.0);
+        event.put("eventStart", new Date(now + TimeUnit.DAYS.toMillis(30)));
+        event.put("eventEnd", new Date(now + TimeUnit.DAYS.toMillis(31)));
+        event.put("registrationStart", new Date(now - TimeUnit.DAYS.toMillis(1)));
+        event.put("registrationEnd", new Date(now + TimeUnit.DAYS.toMillis(7)));
+        event.put("dailyStartTime", "09:00");
+        event.put("dailyEndTime", "17:00");
+        event.put("eventStatus", EventStatus.UPCOMING.toString());
+        event.put("registrationStatus", EventRegistrationStatus.REGISTRATION_OPEN.toString());
+        event.put("locationRequired", false);
+        event.put("createdAt", new Date(now));
+        return event;
+    }
+
+    private Map<String, Object> user(String userId, int index) {
+        Map<String, Object> user = new HashMap<>();
+        user.put("userId", userId);
+        user.put("name", "Entrant " + index);
+        user.put("email", "entrant" + index + "@example.com");
+        user.put("phoneNumber", "780555" + String.format("%04d", index % 10000));
+        user.put("userType", "entrant");
+        user.put("notificationsEnabled", index % 2 == 0);
+        user.put("fcmToken", "benchmark-token-" + index);
+        return user;
+    }
+
+    private Map<String, Object> registration(String eventId, String userId, EntrantRegistrationStatus status,
+                                             long registeredAt) {
+        Map<String, Object> registration = new HashMap<>();
+        registration.put("id", eventId + "_" + userId);
+        registration.put("eventId", eventId);
+        registration.put("entrantId", userId);
+        registration.put("status", status.name());
+        registration.put("registeredAt", new Date(registeredAt));
+        return registration;
+    }
+
+    private void set(String collection, String id, Map<String, Object> data) throws Exception {
+        if (batch == null) {
+            batch = db.batch();
+        }
+        batch.set(db.collection(collection).document(id), data);
+        if (++batchSize == BATCH_SIZE) {
+            commit();
+        }
+    }
+
+    private void commit() throws Exception {
+        if (batch == null) {
+            return;
+        }
+        inFlight.add(batch.commit());
+        batch = null;
+        batchSize = 0;
+        if (inFlight.size() >= MAX_IN_FLIGHT) {
+            Tasks.await(inFlight.remove(0), COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private void flush() throws Exception {
+        commit();
+        for (Task<Void> task : inFlight) {
+            Tasks.await(task, COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        inFlight.clear();
+    }
+}
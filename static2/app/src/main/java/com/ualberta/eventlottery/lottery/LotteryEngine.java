@@ -0,0 +1,189 @@
+package com.ualberta.eventlottery.lottery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pure-Java lottery draw engine used to pick winners from a pool of entrants.
+ * Selection is a partial Fisher-Yates shuffle over a primitive index array, so only
+ * {@code count} random swaps are performed no matter how large the pool is.
+ * The engine has no Android dependencies and can be unit tested and benchmarked on the JVM.
+ *
+ * <p>Draws are run by the {@code runLotteryDraw} Cloud Function, and this engine is a port
+ * of its {@code functions/lottery.js}: the same seed hash, the same mulberry32 generator and
+ * the same swaps. Given the pool, count and seed logged with a draw, it reproduces the exact
+ * selection the server made, so draws can be audited on the JVM. Changes to either side must
+ * keep the shared test vectors in {@code LotteryEngineTest} and {@code runLotteryDraw.spec.js}
+ * passing.</p>
+ *
+ * <p>Instances are not thread-safe; create one engine per draw.</p>
+ *
+ * @author static2
+ * @version 1.0
+ */
+public class LotteryEngine {
+
+    private final String seed;
+    private int state;
+
+    /**
+     * Result of a lottery draw, splitting the pool into winners and losers.
+     *
+     * @param <T> the type of the drawn items
+     */
+    public static class DrawResult<T> {
+        private final List<T> winners;
+        private final List<T> losers;
+        private final String seed;
+
+        DrawResult(List<T> winners, List<T> losers, String seed) {
+            this.winners = winners;
+            this.losers = losers;
+            this.seed = seed;
+        }
+
+        /**
+         * @return the selected items, in draw order
+         */
+        public List<T> getWinners() { return winners; }
+
+        /**
+         * @return the items that were not selected, in pool order
+         */
+        public List<T> getLosers() { return losers; }
+
+        /**
+         * @return the seed of the engine that produced this result
+         */
+        public String getSeed() { return seed; }
+    }
+
+    /**
+     * Creates an engine seeded with the current time, as the server does when no seed is given.
+     */
+    public LotteryEngine() {
+        this(System.currentTimeMillis());
+    }
+
+    /**
+     * Creates an engine with the given seed so that draws are reproducible.
+     *
+     * @param seed the seed; the same as the string seed of its decimal form
+     */
+    public LotteryEngine(long seed) {
+        this(String.valueOf(seed));
+    }
+
+    /**
+     * Creates an engine with the given seed so that draws are reproducible.
+     *
+     * @param seed the seed, as returned in the summary of a server draw
+     */
+    public LotteryEngine(String seed) {
+        this.seed = seed;
+        this.state = hashSeed(seed);
+    }
+
+    /**
+     * Gets the seed this engine was created with.
+     *
+     * @return the random seed
+     */
+    public String getSeed() {
+        return seed;
+    }
+
+    /**
+     * Hashes a seed into the initial generator state, as {@code hashSeed} in lottery.js.
+     */
+    private static int hashSeed(String text) {
+        int h = 1779033703 ^ text.length();
+        for (int i = 0; i < text.length(); i++) {
+            h = (h ^ text.charAt(i)) * 0xCC9E2D51; // 3432918353
+            h = (h << 13) | (h >>> 19);
+        }
+        h = (h ^ (h >>> 16)) * 0x85EBCA6B; // 2246822507
+        h = (h ^ (h >>> 13)) * 0xC2B2AE35; // 3266489909
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Gets the next number of the mulberry32 generator.
+     *
+     * @return a number in {@code [0, 1)}
+     */
+    private double nextDouble() {
+        state += 0x6D2B79F5;
+        int t = state;
+        t = (t ^ (t >>> 15)) * (t | 1);
+        t ^= t + (t ^ (t >>> 7)) * (t | 61);
+        return ((t ^ (t >>> 14)) & 0xFFFFFFFFL) / 4294967296.0;
+    }
+
+    /**
+     * Randomly selects {@code count} distinct indices out of {@code [0, populationSize)}.
+     * The returned array is a permutation of all indices where the first {@code count}
+     * positions hold the winners and the remaining positions hold the losers.
+     *
+     * @param populationSize the number of items in the pool
+     * @param count the number of items to select; clamped to {@code populationSize}
+     * @return the permuted index array
+     * @throws IllegalArgumentException if either argument is negative
+     */
+    public int[] selectIndices(int populationSize, int count) {
+        if (populationSize < 0 || count < 0) {
+            throw new IllegalArgumentException("Population size and count must not be negative");
+        }
+
+        int[] indices = new int[populationSize];
+        for (int i = 0; i < populationSize; i++) {
+            indices[i] = i;
+        }
+
+        int drawCount = Math.min(count, populationSize);
+        for (int i = 0; i < drawCount; i++) {
+            int j = i + (int) (nextDouble() * (populationSize - i));
+            int tmp = indices[i];
+            indices[i] = indices[j];
+            indices[j] = tmp;
+        }
+        return indices;
+    }
+
+    /**
+     * Draws {@code count} winners from the pool. The pool itself is not modified.
+     *
+     * @param pool the items to draw from
+     * @param count the number of winners to draw; clamped to the pool size
+     * @param <T> the type of the drawn items
+     * @return the draw result with winners and losers
+     * @throws IllegalArgumentException if {@code count} is negative
+     */
+    public <T> DrawResult<T> draw(List<T> pool, int count) {
+        if (pool == null || pool.isEmpty()) {
+            if (count < 0) {
+                throw new IllegalArgumentException("Count must not be negative");
+            }
+            return new DrawResult<>(Collections.emptyList(), Collections.emptyList(), seed);
+        }
+
+        int size = pool.size();
+        int[] indices = selectIndices(size, count);
+        int drawCount = Math.min(count, size);
+
+        List<T> winners = new ArrayList<>(drawCount);
+        boolean[] isWinner = new boolean[size];
+        for (int i = 0; i < drawCount; i++) {
+            winners.add(pool.get(indices[i]));
+            isWinner[indices[i]] = true;
+        }
+        List<T> losers = new ArrayList<>(size - drawCount);
+        for (int i = 0; i < size; i++) {
+            if (!isWinner[i]) {
+                losers.add(pool.get(i));
+            }
+        }
+        return new DrawResult<>(winners, losers, seed);
+    }
+}
@@ -4,11 +4,11 @@ import com.ualberta.eventlottery.notification.NotificationModel;
 
 /**
  * Extended notification model for displaying notification logs to admins.
+ * The event title and organizer name come from the stored notification, or are joined in by
+ * the admin log for notifications saved before they were stored.
  * US 03.08.01: As an administrator, I want to review logs of all notifications sent to entrants by organizers.
  */
 public class NotificationLog extends NotificationModel {
-    private String organizerName;
-    private String eventTitle;
     private int recipientCount;
 
     public NotificationLog() {
@@ -20,26 +20,16 @@ public class NotificationLog extends NotificationModel {
         this.setTitle(notification.getTitle());
         this.setBody(notification.getBody());
         this.setIsRead(notification.getIsRead());
+        this.setCreatedAt(notification.getCreatedAt());
+        this.setEventId(notification.getEventId());
+        this.setSenderId(notification.getSenderId());
+        this.setNotificationType(notification.getNotificationType());
+        this.setEventTitle(notification.getEventTitle());
+        this.setOrganizerName(notification.getOrganizerName());
         this.recipientCount = notification.getRecipientIdList() != null
             ? notification.getRecipientIdList().size() : 0;
     }
 
-    public String getOrganizerName() {
-        return organizerName;
-    }
-
-    public void setOrganizerName(String organizerName) {
-        this.organizerName = organizerName;
-    }
-
-    public String getEventTitle() {
-        return eventTitle;
-    }
-
-    public void setEventTitle(String eventTitle) {
-        this.eventTitle = eventTitle;
-    }
-
     public int getRecipientCount() {
         return recipientCount;
     }
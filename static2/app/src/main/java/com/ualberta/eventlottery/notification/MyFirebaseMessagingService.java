@@ -2,9 +2,11 @@ package com.ualberta.eventlottery.notification;
 
 import android.util.Log;
 
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.messaging.FirebaseMessagingService;
 import com.google.firebase.messaging.RemoteMessage;
+import com.ualberta.eventlottery.repository.UserDirectory;
 import com.ualberta.eventlottery.utils.UserManager;
 
 /**
@@ -49,7 +51,8 @@ public class MyFirebaseMessagingService extends FirebaseMessagingService {
         FirebaseFirestore db = FirebaseFirestore.getInstance();
         db.collection("users")
                 .document(currentUserId)
-                .update("fcmToken", token)
+                .update("fcmToken", token,
+                        UserDirectory.FIELD_CONTACT_UPDATED_AT, FieldValue.serverTimestamp())
                 .addOnSuccessListener(aVoid ->
                         Log.d("MyFirebaseMsgService", "Successfully updated FCM token for user: " + currentUserId))
                 .addOnFailureListener(e ->
@@ -15,17 +15,15 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.app.NotificationCompat;
 import androidx.core.app.NotificationManagerCompat;
 
-import com.google.android.gms.tasks.Task;
-import com.google.android.gms.tasks.Tasks;
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.functions.FirebaseFunctions;
-import com.google.firebase.firestore.FirebaseFirestore;
 import com.ualberta.eventlottery.entrant.EntrantMainActivity;
+import com.ualberta.eventlottery.repository.UserDirectory;
 import com.ualberta.static2.R;
 import com.ualberta.eventlottery.model.Event;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -86,6 +84,7 @@ public class NotificationController {
 
     /**
      * Sends a push notification to a list of recipients via Firebase Cloud Messaging.
+     * Recipient tokens are looked up in batches through {@link UserDirectory}.
      *
      * @param title           the title of the notification
      * @param body            the message body
@@ -94,31 +93,22 @@ public class NotificationController {
      */
     public void sendNotification(String title, String body, String eventId, List<String> recipientIdList, String notificationType) {
         FirebaseFunctions functions = FirebaseFunctions.getInstance();
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
 
         NotificationModel notification = new NotificationModel(title, body, eventId, recipientIdList, notificationType);
         notification.fetchSenderIdAndSave();
 
-        List<Task<DocumentSnapshot>> tasks = new ArrayList<>();
-        for (String recipientId : recipientIdList) {
-            tasks.add(db.collection("users").document(recipientId).get());
-        }
-
-        Tasks.whenAllSuccess(tasks)
-                .addOnSuccessListener(results -> {
-                    List<String> tokens = new ArrayList<>();
-                    for (Object result : results) {
-                        DocumentSnapshot userDoc = (DocumentSnapshot) result;
-                        if (userDoc.exists()) {
-                            Boolean notificationsEnabled = userDoc.getBoolean("notificationsEnabled");
-                            String fcmToken = userDoc.getString("fcmToken");
-                            if (Boolean.TRUE.equals(notificationsEnabled) && fcmToken != null && !fcmToken.isEmpty()) {
-                                tokens.add(fcmToken);
-                            }
-                        } else {
+        UserDirectory.getInstance().getContacts(recipientIdList)
+                .addOnSuccessListener(contacts -> {
+                    LinkedHashSet<String> tokenSet = new LinkedHashSet<>();
+                    for (String recipientId : recipientIdList) {
+                        UserDirectory.Contact contact = contacts.get(recipientId);
+                        if (contact == null) {
                             Log.d("Firestore", "No such user!");
+                        } else if (contact.isReachable()) {
+                            tokenSet.add(contact.getFcmToken());
                         }
                     }
+                    List<String> tokens = new ArrayList<>(tokenSet);
 
                     if (tokens.isEmpty()) {
                         Log.e("FCM", "No tokens available — cannot send notification.");
@@ -135,7 +125,9 @@ public class NotificationController {
                         functions.getHttpsCallable("sendNotification").call(data);
                     } else {
                         data.put("tokens", tokens);
-                        functions.getHttpsCallable("sendMultipleNotifications").call(data);
+                        functions.getHttpsCallable("sendMultipleNotifications").call(data)
+                                .addOnSuccessListener(result -> Log.d("FCM", "Multicast result: " + result.getData()))
+                                .addOnFailureListener(e -> Log.e("FCM", "Multicast failed", e));
                     }
                 })
                 .addOnFailureListener(e -> Log.e("Firestore", "Error fetching user tokens", e));
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.util.Log;
 
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.ualberta.eventlottery.repository.EventRepository;
 
 import java.util.List;
 import java.util.Date;
@@ -11,6 +12,8 @@ import java.util.Date;
 /**
  * Represents a notification record stored in Firestore.
  * Handles saving, updating, and linking notifications to events and recipients.
+ * The event title and organizer name are stored on the record when it is saved, so the
+ * admin log can show them without reading the event and organizer of every notification.
  */
 public class NotificationModel {
     private String notificationId;
@@ -22,8 +25,12 @@ public class NotificationModel {
     private List<String> recipientIdList;
     private boolean isRead;
     private String notificationType;
+    private String eventTitle;
+    private String organizerName;
     private static Context appContext;
     private static final String COLLECTION_NAME = "notifications";
+    /** Organizer name stored when the organizer has no name or no user document. */
+    public static final String UNKNOWN_ORGANIZER = "Unknown";
 
     /**
      * Required empty constructor for Firestore.
@@ -67,13 +74,20 @@ public class NotificationModel {
     public String getBody() { return body; }
     public void setBody(String body) { this.body = body; }
     public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
     public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
     public String getSenderId() { return senderId; }
+    public void setSenderId(String senderId) { this.senderId = senderId; }
     public List<String> getRecipientIdList() { return recipientIdList; }
     public boolean getIsRead() { return isRead; }
     public void setIsRead(boolean read) { isRead = read; }
     public String getNotificationType() { return notificationType; }
     public void setNotificationType(String notificationType) { this.notificationType = notificationType; }
+    public String getEventTitle() { return eventTitle; }
+    public void setEventTitle(String eventTitle) { this.eventTitle = eventTitle; }
+    public String getOrganizerName() { return organizerName; }
+    public void setOrganizerName(String organizerName) { this.organizerName = organizerName; }
 
 
     /**
@@ -91,16 +105,16 @@ public class NotificationModel {
     }
 
     /**
-     * Fetches the event organizer ID and saves the notification to Firestore.
-     * If the event lookup fails, it still attempts to save.
+     * Fetches the event title, organizer ID and organizer name and saves the notification to
+     * Firestore. If a lookup fails, it still attempts to save.
      */
     public void fetchSenderIdAndSave() {
-        FirebaseFirestore db = FirebaseFirestore.getInstance();
-        db.collection("events").document(this.eventId).get()
+        EventRepository.getInstance().getEventDocument(this.eventId)
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
                         this.senderId = documentSnapshot.getString("organizerId");
-                        save();
+                        this.eventTitle = documentSnapshot.getString("title");
+                        fetchOrganizerNameAndSave();
                     } else {
                         Log.e("Firestore", "Event not found for senderId");
                     }
@@ -111,6 +125,31 @@ public class NotificationModel {
                 });
     }
 
+    /**
+     * Fetches the name of the sender and saves the notification to Firestore.
+     * A sender without a name is saved as {@link #UNKNOWN_ORGANIZER}. If the lookup
+     * fails, it still attempts to save.
+     */
+    private void fetchOrganizerNameAndSave() {
+        if (this.senderId == null) {
+            this.organizerName = UNKNOWN_ORGANIZER;
+            save();
+            return;
+        }
+        FirebaseFirestore.getInstance().collection("users")
+                .document(this.senderId)
+                .get()
+                .addOnSuccessListener(userDoc -> {
+                    String name = userDoc.getString("name");
+                    this.organizerName = name != null ? name : UNKNOWN_ORGANIZER;
+                    save();
+                })
+                .addOnFailureListener(e -> {
+                    Log.e("Firestore", "Error fetching organizer name", e);
+                    save(); // still save on error
+                });
+    }
+
     /**
      * Saves this notification object to the Firestore "notifications" collection.
      * Automatically assigns and updates the notification ID after saving.
@@ -0,0 +1,261 @@
+package com.ualberta.eventlottery.repository;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
+import com.ualberta.eventlottery.model.EntrantRegistrationStatus;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deletes users and events together with the documents that belong to them.
+ *
+ * <p>Dependent documents are found with indexed {@code whereEqualTo} queries on
+ * {@code organizerId}, {@code entrantId} and {@code eventId}, and deleted a page of
+ * {@value #PAGE_SIZE} at a time in a {@link WriteBatch}. Because every committed page
+ * disappears from the query, the same query is simply read again until it comes back
+ * short, so no cursor is needed and memory use is bounded by one page.</p>
+ *
+ * <p>The owning document is deleted last, so a cascade that fails half way can be
+ * started again and picks up the documents that are left.</p>
+ *
+ * @author static2
+ * @version 1.0
+ */
+public class CascadeDeleteService {
+    private static final String TAG = "CascadeDeleteService";
+    private static CascadeDeleteService instance;
+    private final FirebaseFirestore db;
+    private static final String COLLECTION_USERS = "users";
+    private static final String COLLECTION_EVENTS = "events";
+    private static final String COLLECTION_REGISTRATIONS = "registrations";
+    private static final String COLLECTION_COUNTERS = "registrationCounters";
+    private static final String COLLECTION_SHARDS = "shards";
+
+    // Leaves room in a batch of 500 writes for one counter write per event on the page.
+    static final int PAGE_SIZE = 200;
+
+    /**
+     * Callback interface for cascade delete progress.
+     * All methods are called on the main thread.
+     */
+    public interface ProgressCallback {
+        /**
+         * Called after every committed batch.
+         *
+         * @param deletedCount the number of documents deleted so far
+         */
+        void onProgress(int deletedCount);
+
+        /**
+         * Called when the owning document and everything that belongs to it are deleted.
+         *
+         * @param deletedCount the total number of documents deleted
+         */
+        void onSuccess(int deletedCount);
+
+        /**
+         * Called when the cascade stopped because a read or write failed.
+         *
+         * @param e the exception that caused the failure
+         */
+        void onFailure(Exception e);
+    }
+
+    /**
+     * Adds extra writes for a page of documents to the batch that deletes them.
+     */
+    private interface PageHook {
+        void addWrites(WriteBatch batch, List<DocumentSnapshot> page);
+    }
+
+    /**
+     * Counts the documents deleted by one cascade and reports them.
+     */
+    private static class Progress {
+        final ProgressCallback callback;
+        int deleted;
+
+        Progress(ProgressCallback callback) {
+            this.callback = callback;
+        }
+
+        void add(int count) {
+            deleted += count;
+            if (callback != null) {
+                callback.onProgress(deleted);
+            }
+        }
+    }
+
+    /**
+     * Private constructor for Singleton pattern.
+     * Initializes Firebase Firestore instance.
+     */
+    private CascadeDeleteService() {
+        db = FirebaseFirestore.getInstance();
+    }
+
+    /**
+     * Gets the singleton instance of CascadeDeleteService.
+     *
+     * @return the singleton CascadeDeleteService instance
+     */
+    public static synchronized CascadeDeleteService getInstance() {
+        if (instance == null) {
+            instance = new CascadeDeleteService();
+        }
+        return instance;
+    }
+
+    /**
+     * Deletes a user, their registrations, the events they organize and the registrations
+     * and counters of those events. The counters of other events the user was registered
+     * for are decremented in the same batches.
+     *
+     * @param userId the unique identifier of the user to delete
+     * @param callback the callback to report progress and the result to
+     */
+    public void deleteUser(String userId, ProgressCallback callback) {
+        Progress progress = new Progress(callback);
+        Query registrations = db.collection(COLLECTION_REGISTRATIONS).whereEqualTo("entrantId", userId);
+        Query organizedEvents = db.collection(COLLECTION_EVENTS).whereEqualTo("organizerId", userId);
+
+        deletePages(registrations, this::addCounterDecrements, progress)
+                .onSuccessTask(v -> deleteOrganizedEvents(organizedEvents, progress))
+                .onSuccessTask(v -> db.collection(COLLECTION_USERS).document(userId).delete())
+                .addOnSuccessListener(v -> {
+                    progress.add(1);
+                    Log.d(TAG, "Deleted user " + userId + " and " + (progress.deleted - 1) + " dependent documents");
+                    if (callback != null) {
+                        callback.onSuccess(progress.deleted);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error deleting user " + userId, e);
+                    if (callback != null) {
+                        callback.onFailure(e);
+                    }
+                });
+    }
+
+    /**
+     * Deletes an event, its registrations and its registration counters.
+     *
+     * @param eventId the unique identifier of the event to delete
+     * @param callback the callback to report progress and the result to
+     */
+    public void deleteEvent(String eventId, ProgressCallback callback) {
+        Progress progress = new Progress(callback);
+        deleteEventCascade(eventId, progress)
+                .addOnSuccessListener(v -> {
+                    Log.d(TAG, "Deleted event " + eventId + " and " + (progress.deleted - 1) + " dependent documents");
+                    if (callback != null) {
+                        callback.onSuccess(progress.deleted);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error deleting event " + eventId, e);
+                    if (callback != null) {
+                        callback.onFailure(e);
+                    }
+                });
+    }
+
+    /**
+     * Deletes the events of a query one at a time, each with its cascade.
+     */
+    private Task<Void> deleteOrganizedEvents(Query events, Progress progress) {
+        return events.limit(PAGE_SIZE).get().onSuccessTask(snapshot -> {
+            Task<Void> chain = Tasks.forResult(null);
+            for (DocumentSnapshot event : snapshot.getDocuments()) {
+                String eventId = event.getId();
+                chain = chain.onSuccessTask(v -> deleteEventCascade(eventId, progress));
+            }
+            if (snapshot.size() < PAGE_SIZE) {
+                return chain;
+            }
+            return chain.onSuccessTask(v -> deleteOrganizedEvents(events, progress));
+        });
+    }
+
+    private Task<Void> deleteEventCascade(String eventId, Progress progress) {
+        Query registrations = db.collection(COLLECTION_REGISTRATIONS).whereEqualTo("eventId", eventId);
+        Query shards = db.collection(COLLECTION_COUNTERS).document(eventId).collection(COLLECTION_SHARDS);
+
+        return deletePages(registrations, null, progress)
+                .onSuccessTask(v -> deletePages(shards, null, progress))
+                .onSuccessTask(v -> db.collection(COLLECTION_EVENTS).document(eventId).delete())
+                .onSuccessTask(v -> {
+                    progress.add(1);
+                    EventRepository.getInstance().getEventCache().invalidate(eventId);
+                    RegistrationRepository.getInstance().invalidateStatusHistogram(eventId);
+                    return Tasks.forResult(null);
+                });
+    }
+
+    /**
+     * Deletes every document of a query, a page per batch, until the query is empty.
+     *
+     * @param query the documents to delete
+     * @param hook extra writes to commit with each page, or null
+     * @param progress the progress to add the deleted pages to
+     * @return a task that completes once the query has no documents left
+     */
+    private Task<Void> deletePages(Query query, PageHook hook, Progress progress) {
+        return query.limit(PAGE_SIZE).get().onSuccessTask(snapshot -> {
+            List<DocumentSnapshot> page = snapshot.getDocuments();
+            if (page.isEmpty()) {
+                return Tasks.forResult(null);
+            }
+            WriteBatch batch = db.batch();
+            for (DocumentSnapshot document : page) {
+                batch.delete(document.getReference());
+            }
+            if (hook != null) {
+                hook.addWrites(batch, page);
+            }
+            return batch.commit().onSuccessTask(v -> {
+                progress.add(page.size());
+                if (page.size() < PAGE_SIZE) {
+                    return Tasks.forResult(null);
+                }
+                return deletePages(query, hook, progress);
+            });
+        });
+    }
+
+    /**
+     * Decrements the counters of the events a page of registrations belongs to, one
+     * counter write per event.
+     */
+    private void addCounterDecrements(WriteBatch batch, List<DocumentSnapshot> registrations) {
+        Map<String, Map<EntrantRegistrationStatus, Integer>> deltasByEvent = new HashMap<>();
+        for (DocumentSnapshot registration : registrations) {
+            String eventId = registration.getString("eventId");
+            String status = registration.getString("status");
+            if (eventId == null || status == null) {
+                continue;
+            }
+            Map<EntrantRegistrationStatus, Integer> deltas =
+                    deltasByEvent.computeIfAbsent(eventId, id -> new EnumMap<>(EntrantRegistrationStatus.class));
+            try {
+                deltas.merge(EntrantRegistrationStatus.valueOf(status), -1, Integer::sum);
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Unknown status on registration " + registration.getId() + ": " + status);
+            }
+        }
+        for (Map.Entry<String, Map<EntrantRegistrationStatus, Integer>> entry : deltasByEvent.entrySet()) {
+            RegistrationCounter.getInstance().addDeltas(batch, entry.getKey(), entry.getValue());
+            RegistrationRepository.getInstance().invalidateStatusHistogram(entry.getKey());
+        }
+    }
+}
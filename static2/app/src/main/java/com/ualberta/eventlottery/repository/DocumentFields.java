@@ -0,0 +1,49 @@
+package com.ualberta.eventlottery.repository;
+
+import java.util.Date;
+
+/**
+ * Read-only view of the fields of a stored document.
+ * Parsers are written against this interface instead of {@code DocumentSnapshot} so the
+ * same parsing code runs on Firestore snapshots in the app and on plain maps in JVM
+ * benchmarks and tests.
+ *
+ * @author static2
+ * @version 1.0
+ */
+public interface DocumentFields {
+    /**
+     * @return the ID of the document
+     */
+    String getId();
+
+    /**
+     * @param field the field name
+     * @return the string value of the field, or null if it is missing
+     */
+    String getString(String field);
+
+    /**
+     * @param field the field name
+     * @return the integer value of the field, or null if it is missing
+     */
+    Long getLong(String field);
+
+    /**
+     * @param field the field name
+     * @return the floating point value of the field, or null if it is missing
+     */
+    Double getDouble(String field);
+
+    /**
+     * @param field the field name
+     * @return the boolean value of the field, or null if it is missing
+     */
+    Boolean getBoolean(String field);
+
+    /**
+     * @param field the field name
+     * @return the date value of the field, or null if it is missing
+     */
+    Date getDate(String field);
+}
@@ -2,12 +2,18 @@ package com.ualberta.eventlottery.repository;
 
 import android.util.Log;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
 import com.ualberta.eventlottery.model.Entrant;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -23,6 +29,8 @@ public class EntrantRepository {
     private static EntrantRepository instance;
     private FirebaseFirestore db;
     private static final String COLLECTION_ENTRANTS = "users";
+    // Firestore accepts at most 30 values in an "in" filter.
+    private static final int MAX_WHERE_IN_SIZE = 30;
 
     // Callback interfaces
 
@@ -153,6 +161,7 @@ public class EntrantRepository {
     private Map<String, Object> entrantToMap(Entrant entrant) {
         Map<String, Object> entrantMap = new HashMap<>();
         entrantMap.put("name", entrant.getName());
+        entrantMap.put(SearchTokens.FIELD, SearchTokens.tokensFor(entrant.getName()));
         entrantMap.put("email", entrant.getEmail());
         entrantMap.put("phoneNumber", entrant.getPhone());
         entrantMap.put("userId", entrant.getUserId());
@@ -180,6 +189,41 @@ public class EntrantRepository {
                 .addOnFailureListener(callback::onFailure);
     }
 
+    /**
+     * Finds the entrants with the given IDs, reading them in {@code whereIn} chunks of
+     * {@value #MAX_WHERE_IN_SIZE} IDs that are fetched in parallel. Documents are parsed on
+     * the {@link ParseExecutor}.
+     *
+     * @param entrantIds the IDs of the entrants to find; duplicates are read once and nulls ignored
+     * @return a task resolving to the found entrants keyed by ID; IDs without a user are left out
+     */
+    public Task<Map<String, Entrant>> findEntrantsByIds(Collection<String> entrantIds) {
+        LinkedHashSet<String> idSet = new LinkedHashSet<>(entrantIds);
+        idSet.remove(null);
+        List<String> uniqueIds = new ArrayList<>(idSet);
+        List<Task<QuerySnapshot>> tasks = new ArrayList<>();
+        for (int start = 0; start < uniqueIds.size(); start += MAX_WHERE_IN_SIZE) {
+            List<String> chunk = uniqueIds.subList(start, Math.min(start + MAX_WHERE_IN_SIZE, uniqueIds.size()));
+            tasks.add(db.collection(COLLECTION_ENTRANTS)
+                    .whereIn(FieldPath.documentId(), new ArrayList<>(chunk))
+                    .get());
+        }
+
+        return Tasks.whenAllSuccess(tasks)
+                .onSuccessTask(ParseExecutor.getExecutor(), results -> {
+                    Map<String, Entrant> entrants = new HashMap<>();
+                    for (Object result : results) {
+                        for (DocumentSnapshot document : ((QuerySnapshot) result).getDocuments()) {
+                            Entrant entrant = documentToEntrant(document);
+                            if (entrant != null) {
+                                entrants.put(entrant.getUserId(), entrant);
+                            }
+                        }
+                    }
+                    return Tasks.forResult(entrants);
+                });
+    }
+
     /**
      * Retrieves all entrants from the database.
      * @param callback the callback to handle the list of entrants
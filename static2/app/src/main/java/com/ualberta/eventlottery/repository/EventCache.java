@@ -0,0 +1,161 @@
+package com.ualberta.eventlottery.repository;
+
+import android.os.SystemClock;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded least-recently-used cache of event documents keyed by event ID.
+ * Documents are cached rather than parsed {@code Event} objects so every caller
+ * still receives its own mutable instance and can use whichever parser it needs.
+ *
+ * <p>Entries expire after a configurable time to live, so events changed by other
+ * devices are eventually fetched again even when no snapshot listener is active.
+ * Snapshot listeners and local writes keep entries fresh in the meantime.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ *
+ * @author static2
+ * @version 1.0
+ */
+public class EventCache {
+    private final LinkedHashMap<String, Entry> documents = new LinkedHashMap<>(16, 0.75f, true);
+    private int maxSize;
+    private long ttlMillis;
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * A cached document and the time it was stored.
+     */
+    private static class Entry {
+        final DocumentSnapshot document;
+        final long storedAt;
+
+        Entry(DocumentSnapshot document, long storedAt) {
+            this.document = document;
+            this.storedAt = storedAt;
+        }
+    }
+
+    /**
+     * Creates a cache holding at most {@code maxSize} documents for at most {@code ttlMillis}.
+     *
+     * @param maxSize the maximum number of cached documents
+     * @param ttlMillis how long a document stays valid, in milliseconds
+     */
+    public EventCache(int maxSize, long ttlMillis) {
+        configure(maxSize, ttlMillis);
+    }
+
+    /**
+     * Changes the size and time to live of the cache, evicting entries that no longer fit.
+     *
+     * @param maxSize the maximum number of cached documents
+     * @param ttlMillis how long a document stays valid, in milliseconds
+     */
+    public synchronized void configure(int maxSize, long ttlMillis) {
+        if (maxSize < 0 || ttlMillis < 0) {
+            throw new IllegalArgumentException("maxSize and ttlMillis must not be negative");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        trim();
+    }
+
+    /**
+     * Gets a cached event document.
+     *
+     * @param eventId the unique identifier of the event
+     * @return the cached document, or null if it is not cached or has expired
+     */
+    public synchronized DocumentSnapshot get(String eventId) {
+        Entry entry = documents.get(eventId);
+        if (entry != null && now() - entry.storedAt > ttlMillis) {
+            documents.remove(eventId);
+            entry = null;
+        }
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.document;
+    }
+
+    /**
+     * Stores an event document. Documents that do not exist remove any cached copy instead.
+     *
+     * @param document the event document to cache
+     */
+    public synchronized void put(DocumentSnapshot document) {
+        if (document == null) {
+            return;
+        }
+        if (!document.exists()) {
+            documents.remove(document.getId());
+            return;
+        }
+        documents.put(document.getId(), new Entry(document, now()));
+        trim();
+    }
+
+    /**
+     * Removes an event from the cache.
+     *
+     * @param eventId the unique identifier of the event
+     */
+    public synchronized void invalidate(String eventId) {
+        documents.remove(eventId);
+    }
+
+    /**
+     * Removes every event from the cache. Hit and miss counters are kept.
+     */
+    public synchronized void clear() {
+        documents.clear();
+    }
+
+    /**
+     * @return the number of documents currently cached, including expired ones not yet evicted
+     */
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    /**
+     * @return the number of lookups served from the cache
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of lookups that had to go to Firestore
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Evicts least recently used entries until the cache fits {@link #maxSize}.
+     */
+    private void trim() {
+        Iterator<Map.Entry<String, Entry>> iterator = documents.entrySet().iterator();
+        while (documents.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * @return the current monotonic time in milliseconds
+     */
+    private static long now() {
+        return SystemClock.elapsedRealtime();
+    }
+}
@@ -0,0 +1,168 @@
+package com.ualberta.eventlottery.repository;
+
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+import com.ualberta.eventlottery.model.Event;
+import com.ualberta.eventlottery.model.EventRegistrationStatus;
+import com.ualberta.eventlottery.model.EventStatus;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Converts event documents into {@link Event} objects.
+ * The parser only depends on {@link DocumentFields}, so it can be benchmarked on the JVM
+ * with maps standing in for Firestore snapshots. It does not log; malformed fields are
+ * reported to the caller, which logs them.
+ *
+ * @author static2
+ * @version 1.0
+ */
+@RequiresApi(api = Build.VERSION_CODES.O)
+public final class EventDocumentParser {
+
+    /**
+     * Receives the fields that were skipped because they could not be parsed.
+     */
+    public interface InvalidFieldListener {
+        /**
+         * @param eventId the ID of the event document
+         * @param field the name of the skipped field
+         * @param value the stored value
+         * @param e the parse error
+         */
+        void onInvalidField(String eventId, String field, String value, RuntimeException e);
+    }
+
+    private EventDocumentParser() {
+    }
+
+    /**
+     * Parses an event written by {@link EventRepository#eventToMap}, as used by the organizer screens.
+     * Daily times that cannot be parsed are left unset and reported to {@code listener}.
+     *
+     * @param fields the fields of an existing event document
+     * @param listener the listener for skipped fields
+     * @return the parsed event
+     */
+    public static Event parseEvent(DocumentFields fields, InvalidFieldListener listener) {
+        Event event = new Event();
+        event.setId(fields.getId());
+        event.setTitle(fields.getString("title"));
+        event.setDescription(fields.getString("description"));
+        event.setMaxAttendees(fields.getLong("maxAttendees").intValue());
+        event.setCategory(fields.getString("category"));
+        event.setOrganizerId(fields.getString("organizerId"));
+        Double price = fields.getDouble("price");
+        event.setPrice(price != null ? price : 0.0);
+
+        event.setStartTime(fields.getDate("eventStart"));
+        event.setEndTime(fields.getDate("eventEnd"));
+        event.setRegistrationStart(fields.getDate("registrationStart"));
+        event.setRegistrationEnd(fields.getDate("registrationEnd"));
+
+        String dailyStartTimeStr = fields.getString("dailyStartTime");
+        String dailyEndTimeStr = fields.getString("dailyEndTime");
+
+        event.setPosterUrl(fields.getString("posterUrl"));
+        event.setQrCodeUrl(fields.getString("qrCodeUrl"));
+
+        if (dailyStartTimeStr != null) {
+            try {
+                event.setDailyStartTime(LocalTime.parse(dailyStartTimeStr));
+            } catch (DateTimeParseException e) {
+                listener.onInvalidField(fields.getId(), "dailyStartTime", dailyStartTimeStr, e);
+            }
+        }
+
+        if (dailyEndTimeStr != null) {
+            try {
+                event.setDailyEndTime(LocalTime.parse(dailyEndTimeStr));
+            } catch (DateTimeParseException e) {
+                listener.onInvalidField(fields.getId(), "dailyEndTime", dailyEndTimeStr, e);
+            }
+        }
+
+        String eventStatus = fields.getString("eventStatus");
+        if (eventStatus != null) {
+            event.setEventStatus(EventStatus.valueOf(eventStatus));
+        }
+
+        String registrationStatus = fields.getString("registrationStatus");
+        if (registrationStatus != null) {
+            event.setRegistrationStatus(EventRegistrationStatus.valueOf(registrationStatus));
+        }
+
+        Long confirmedAttendees = fields.getLong("confirmedAttendees");
+        if (confirmedAttendees != null) {
+            event.setConfirmedAttendees(confirmedAttendees.intValue());
+        }
+
+        Boolean locationRequired = fields.getBoolean("locationRequired");
+        event.setLocationRequired(locationRequired != null ? locationRequired : true);
+
+        return event;
+    }
+
+    /**
+     * Fills an event from a document, as used by the entrant screens and live data.
+     * Fields are set in order, so if a field is malformed the event keeps every field
+     * parsed before it.
+     *
+     * @param event the event to fill
+     * @param fields the fields of an existing event document
+     */
+    public static void fillLiveEvent(Event event, DocumentFields fields) {
+        event.setId(fields.getId());
+        event.setOrganizerId(fields.getString("organizerId"));
+        event.setTitle(fields.getString("title"));
+        event.setDescription(fields.getString("description"));
+        event.setCategory(fields.getString("category"));
+        Double price = fields.getDouble("price");
+        if (price != null) {
+            event.setPrice(price);
+        }
+        Long sessionDuration = fields.getLong("sessionDuration");
+        if (sessionDuration != null) {
+            event.setSessionDuration(sessionDuration.intValue());
+        }
+        event.setLocation(fields.getString("location"));
+        Boolean locationRequired = fields.getBoolean("locationRequired");
+        event.setLocationRequired(locationRequired != null ? locationRequired : true);
+        event.setLocationUrl(fields.getString("locationUrl"));
+        event.setPosterUrl(fields.getString("posterUrl"));
+        event.setQrCodeUrl(fields.getString("qrCodeUrl"));
+
+        event.setCreatedAt(fields.getDate("createdAt"));
+
+        String eventStatus = fields.getString("eventStatus");
+        if (eventStatus != null) {
+            event.setEventStatus(EventStatus.valueOf(eventStatus));
+        }
+        String eventRegistrationStatus = fields.getString("registrationStatus");
+        if (eventRegistrationStatus != null) {
+            event.setRegistrationStatus(EventRegistrationStatus.valueOf(eventRegistrationStatus));
+        }
+
+        event.setRegistrationStart(fields.getDate("registrationStart"));
+        event.setRegistrationEnd(fields.getDate("registrationEnd"));
+
+        event.setStartTime(fields.getDate("startTime"));
+        event.setEndTime(fields.getDate("endTime"));
+        String dailyStartTimeStr = fields.getString("dailyStartTime");
+        if (dailyStartTimeStr != null) {
+            event.setDailyStartTime(LocalTime.parse(dailyStartTimeStr));
+        }
+
+        Long maxAttendees = fields.getLong("maxAttendees");
+        if (maxAttendees != null) {
+            event.setMaxAttendees(maxAttendees.intValue());
+        }
+        Long maxWaitListSize = fields.getLong("maxWaitListSize");
+        if (maxWaitListSize != null) {
+            event.setMaxWaitListSize(maxWaitListSize.intValue());
+        }
+    }
+}
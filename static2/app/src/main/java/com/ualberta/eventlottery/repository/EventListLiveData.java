@@ -7,7 +7,10 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.lifecycle.LiveData;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.EventListener;
 import com.google.firebase.firestore.FirebaseFirestoreException;
@@ -16,8 +19,8 @@ import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
 import com.ualberta.eventlottery.model.Event;
 
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -32,7 +35,15 @@ public class EventListLiveData extends LiveData<List<Event>> implements EventLis
 
     private CollectionReference collectionRef = null;
     private Query query = null;
+    private EventCache eventCache = null;
     private ListenerRegistration registration;
+    // The current events, in query order, kept up to date from document changes. Documents
+    // that could not be parsed hold a null, so positions keep matching the query results.
+    private final List<Event> events = new ArrayList<>();
+    // Completes once the latest snapshot has been applied, so snapshots apply in arrival order.
+    private Task<Void> pendingApply = Tasks.forResult(null);
+    // Incremented for every new listener, so snapshots parsed for an old listener are dropped.
+    private int generation;
 
     /**
      * Constructs a new {@code EventListLiveData} object with the specified collection reference.
@@ -50,9 +61,23 @@ public class EventListLiveData extends LiveData<List<Event>> implements EventLis
         this.query = query;
     }
 
+    /**
+     * Constructs a new {@code EventListLiveData} object that also refreshes {@code eventCache}
+     * with every document it receives.
+     * @param query Query object for the events to be included in the live data.
+     * @param eventCache Cache to keep up to date with the snapshots of this query.
+     */
+    public EventListLiveData(Query query, EventCache eventCache) {
+        this.query = query;
+        this.eventCache = eventCache;
+    }
+
     @Override
     protected void onActive() {
         super.onActive();
+        // A new listener reports every matching document as added again.
+        events.clear();
+        generation++;
         if(collectionRef != null) {
             registration = collectionRef.addSnapshotListener(this);
         } else if (query != null) {
@@ -72,7 +97,16 @@ public class EventListLiveData extends LiveData<List<Event>> implements EventLis
      * {@code onEvent} will be called with the new value or the error if an error occurred. It's
      * guaranteed that exactly one of value or error will be non-{@code null}.
      *
-     * Sets the value of the live data using data from {@code snapshots}.
+     * Applies the document changes of {@code snapshots} to the current list: only added and
+     * modified documents are parsed, and every other event keeps the same {@code Event}
+     * instance as in the previous value. Observers can therefore tell unchanged rows apart by
+     * identity, e.g. in a {@code DiffUtil} callback, instead of redrawing the whole list.
+     *
+     * Parsing runs on the {@link ParseExecutor}; the changes are then applied and the new list
+     * is set on the main thread, one snapshot at a time in the order they arrived. If the
+     * changes cannot be parsed, the list is rebuilt from every document of the snapshot
+     * instead, since skipping the changes would leave later positions pointing at the wrong
+     * events.
      *
      * @param snapshots The value of the event. {@code null} if there was an error.
      * @param e The error if there was error. {@code null} otherwise.
@@ -85,18 +119,129 @@ public class EventListLiveData extends LiveData<List<Event>> implements EventLis
             return;
         }
 
-        List<Event> data = new ArrayList<>();
-        if (snapshots != null) {
-            for (DocumentSnapshot doc : snapshots.getDocuments()) {
-                Event model = EventRepository.fromDocument(doc);
-                if (model != null) {
-                    data.add(model);
+        int snapshotGeneration = generation;
+        List<DocumentChange> changes = snapshots != null ? snapshots.getDocumentChanges() : new ArrayList<>();
+        Task<Event[]> parsed = Tasks.call(ParseExecutor.getExecutor(), () -> parseChanges(changes));
+
+        pendingApply = Tasks.whenAllComplete(pendingApply, parsed).continueWithTask(task -> {
+            if (snapshotGeneration != generation) {
+                return Tasks.forResult(null); // Parsed for a listener that has since been replaced
+            }
+            if (parsed.isSuccessful()) {
+                if (snapshots == null) {
+                    events.clear();
+                } else {
+                    applyChanges(changes, parsed.getResult());
                 }
+                publish();
+                return Tasks.forResult(null);
+            }
+
+            Log.e("EventLottery", "failed to parse event snapshot, rebuilding the list", parsed.getException());
+            List<DocumentSnapshot> documents = snapshots.getDocuments();
+            Task<Event[]> rebuilt = Tasks.call(ParseExecutor.getExecutor(), () -> parseDocuments(documents));
+            return rebuilt.continueWith(rebuildTask -> {
+                if (snapshotGeneration != generation) {
+                    return null;
+                }
+                if (!rebuildTask.isSuccessful()) {
+                    Log.e("EventLottery", "failed to rebuild event list", rebuildTask.getException());
+                    return null;
+                }
+                events.clear();
+                events.addAll(Arrays.asList(rebuildTask.getResult()));
+                publish();
+                return null;
+            });
+        });
+    }
+
+    /**
+     * Sets the events that could be parsed as the new value.
+     */
+    private void publish() {
+        List<Event> value = new ArrayList<>(events.size());
+        for (Event event : events) {
+            if (event != null) {
+                value.add(event);
             }
         }
-        setValue(data);
+        setValue(value);
     }
-}
 
+    /**
+     * Parses every document of a snapshot and refreshes the event cache. A document that
+     * cannot be parsed is logged and left as null. Runs on the {@link ParseExecutor}.
+     *
+     * @param documents the documents of a snapshot, in query order
+     * @return the parsed events, at the same positions as their documents
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    private Event[] parseDocuments(List<DocumentSnapshot> documents) {
+        Event[] parsed = new Event[documents.size()];
+        for (int i = 0; i < parsed.length; i++) {
+            DocumentSnapshot doc = documents.get(i);
+            try {
+                if (eventCache != null) {
+                    eventCache.put(doc);
+                }
+                parsed[i] = EventRepository.fromDocument(doc);
+            } catch (RuntimeException e) {
+                Log.e("EventLottery", "failed to parse event " + doc.getId(), e);
+            }
+        }
+        return parsed;
+    }
 
+    /**
+     * Parses the added and modified documents of a snapshot and refreshes the event cache.
+     * Runs on the {@link ParseExecutor}.
+     *
+     * @param changes the document changes of a snapshot
+     * @return the parsed events, at the same positions as their changes; null for removals
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    private Event[] parseChanges(List<DocumentChange> changes) {
+        Event[] parsed = new Event[changes.size()];
+        for (int i = 0; i < parsed.length; i++) {
+            DocumentChange change = changes.get(i);
+            DocumentSnapshot doc = change.getDocument();
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                if (eventCache != null) {
+                    eventCache.invalidate(doc.getId());
+                }
+                continue;
+            }
+            if (eventCache != null) {
+                eventCache.put(doc);
+            }
+            parsed[i] = EventRepository.fromDocument(doc);
+        }
+        return parsed;
+    }
 
+    /**
+     * Applies parsed document changes to the current list. Changes are reported in order, with
+     * indexes that apply to the list as already updated by the preceding changes.
+     *
+     * @param changes the document changes of a snapshot
+     * @param parsed the events parsed from {@code changes}
+     */
+    private void applyChanges(List<DocumentChange> changes, Event[] parsed) {
+        for (int i = 0; i < parsed.length; i++) {
+            DocumentChange change = changes.get(i);
+            switch (change.getType()) {
+                case ADDED:
+                    events.add(change.getNewIndex(), parsed[i]);
+                    break;
+                case MODIFIED:
+                    events.remove(change.getOldIndex());
+                    events.add(change.getNewIndex(), parsed[i]);
+                    break;
+                case REMOVED:
+                    events.remove(change.getOldIndex());
+                    break;
+            }
+        }
+    }
+}
@@ -21,10 +21,22 @@ import com.ualberta.eventlottery.model.Event;
 public class EventLiveData extends LiveData<Event> implements EventListener<DocumentSnapshot> {
 
     private final DocumentReference docRef;
+    private final EventCache eventCache;
     private ListenerRegistration registration;
 
     public EventLiveData(DocumentReference docRef) {
+        this(docRef, null);
+    }
+
+    /**
+     * Creates a live event that also refreshes {@code eventCache} with every snapshot it receives.
+     *
+     * @param docRef reference to the event document
+     * @param eventCache the cache to keep up to date, or null
+     */
+    public EventLiveData(DocumentReference docRef, @Nullable EventCache eventCache) {
         this.docRef = docRef;
+        this.eventCache = eventCache;
     }
 
     @Override
@@ -51,6 +63,14 @@ public class EventLiveData extends LiveData<Event> implements EventListener<Docu
             return;
         }
 
+        if (eventCache != null) {
+            if (snapshot != null) {
+                eventCache.put(snapshot);
+            } else {
+                eventCache.invalidate(docRef.getId());
+            }
+        }
+
         if (snapshot != null && snapshot.exists()) {
             // Convert the DocumentSnapshot to an Event object and update the LiveData value.
             Event event = EventRepository.fromDocument(snapshot);
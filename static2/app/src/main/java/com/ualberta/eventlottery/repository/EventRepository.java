@@ -9,10 +9,14 @@ import androidx.annotation.RequiresApi;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.storage.FirebaseStorage;
 import com.google.firebase.storage.StorageReference;
 import com.google.firebase.storage.UploadTask;
@@ -23,11 +27,11 @@ import com.ualberta.eventlottery.model.EventStatus;
 import com.ualberta.eventlottery.model.EventRegistrationStatus;
 
 import java.io.ByteArrayOutputStream;
-import java.time.LocalTime;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -39,6 +43,11 @@ public class EventRepository {
     private static final String COLLECTION_EVENTS = "events";
     private static final String STORAGE_PATH_POSTERS = "event_posters/";
     static final String STORAGE_PATH_QR_CODES = "event_qr_codes/";
+    static final int MAX_WHERE_IN_SIZE = 30;
+    private static final int EVENT_CACHE_SIZE = 200;
+    private static final long EVENT_CACHE_TTL_MS = 5 * 60 * 1000;
+
+    private final EventCache eventCache = new EventCache(EVENT_CACHE_SIZE, EVENT_CACHE_TTL_MS);
 
     public interface EventCallback {
         void onSuccess(Event event);
@@ -77,72 +86,24 @@ public class EventRepository {
         return instance;
     }
 
+    /**
+     * Gets the cache of event documents shared by all read paths of this repository.
+     * Use it to read hit/miss counters or to change its size and time to live.
+     *
+     * @return the event cache
+     */
+    public EventCache getEventCache() {
+        return eventCache;
+    }
+
     @RequiresApi(api = Build.VERSION_CODES.O)
     public Event documentToEvent(DocumentSnapshot document) {
         if (document == null || !document.exists()) {
             return null;
         }
 
-        Event event = new Event();
-        event.setId(document.getId());
-        event.setTitle(document.getString("title"));
-        event.setDescription(document.getString("description"));
-        event.setMaxAttendees(document.getLong("maxAttendees").intValue());
-        event.setCategory(document.getString("category"));
-        event.setOrganizerId(document.getString("organizerId"));
-        Double price = document.getDouble("price");
-        event.setPrice(price != null ? price : 0.0);
-
-        event.setStartTime(document.getDate("eventStart"));
-        event.setEndTime(document.getDate("eventEnd"));
-        event.setRegistrationStart(document.getDate("registrationStart"));
-        event.setRegistrationEnd(document.getDate("registrationEnd"));
-
-        String dailyStartTimeStr = document.getString("dailyStartTime");
-        String dailyEndTimeStr = document.getString("dailyEndTime");
-
-        event.setPosterUrl(document.getString("posterUrl"));
-        event.setQrCodeUrl(document.getString("qrCodeUrl"));
-
-
-        if (dailyStartTimeStr != null) {
-            try {
-                LocalTime startTime = LocalTime.parse(dailyStartTimeStr);
-                event.setDailyStartTime(startTime);
-            } catch (DateTimeParseException e) {
-                e.printStackTrace();
-            }
-        }
-
-        if (dailyEndTimeStr != null) {
-            try {
-                LocalTime endTime = LocalTime.parse(dailyEndTimeStr);
-                event.setDailyEndTime(endTime);
-            } catch (DateTimeParseException e) {
-                e.printStackTrace();
-            }
-        }
-
-        String eventStatus = document.getString("eventStatus");
-        if (eventStatus != null) {
-            event.setEventStatus(EventStatus.valueOf(eventStatus));
-        }
-
-        String registrationStatus = document.getString("registrationStatus");
-        if (registrationStatus != null) {
-            event.setRegistrationStatus(EventRegistrationStatus.valueOf(registrationStatus));
-        }
-
-        Long confirmedAttendees = document.getLong("confirmedAttendees");
-        if (confirmedAttendees != null) {
-            event.setConfirmedAttendees(confirmedAttendees.intValue());
-        }
-
-        Boolean locationRequired = document.getBoolean("locationRequired");
-        event.setLocationRequired(locationRequired != null ? locationRequired : true);
-
-
-        return event;
+        return EventDocumentParser.parseEvent(new SnapshotFields(document), (eventId, field, value, e) ->
+                Log.e("EventLottery", "Invalid " + field + " on event " + eventId + ": " + value, e));
     }
 
     @RequiresApi(api = Build.VERSION_CODES.O)
@@ -153,55 +114,7 @@ public class EventRepository {
 
         Event event = new Event();
         try {
-            event.setId(document.getId());
-            event.setOrganizerId(document.getString("organizerId"));
-            event.setTitle(document.getString("title"));
-            event.setDescription(document.getString("description"));
-            event.setCategory(document.getString("category"));
-            Double price = document.getDouble("price");
-            if (price != null) {
-                event.setPrice(price);
-            }
-            Long sessionDuration = document.getLong("sessionDuration");
-            if (sessionDuration != null) {
-                event.setSessionDuration(sessionDuration.intValue());
-            }
-            event.setLocation(document.getString("location"));
-            event.setLocationRequired(document.getBoolean("locationRequired") != null ? document.getBoolean("locationRequired") : true);
-            event.setLocationUrl(document.getString("locationUrl"));
-            event.setPosterUrl(document.getString("posterUrl"));
-            event.setQrCodeUrl(document.getString("qrCodeUrl"));
-
-            event.setCreatedAt(document.getDate("createdAt"));
-
-            String eventStatus = document.getString("eventStatus");
-            if (eventStatus != null) {
-                event.setEventStatus(EventStatus.valueOf(eventStatus));
-            }
-            String eventRegistrationStatus = document.getString("registrationStatus");
-            if (eventRegistrationStatus != null) {
-                event.setRegistrationStatus(EventRegistrationStatus.valueOf(eventRegistrationStatus));
-            }
-
-            event.setRegistrationStart(document.getDate("registrationStart"));
-            event.setRegistrationEnd(document.getDate("registrationEnd"));
-
-            event.setStartTime(document.getDate("startTime"));
-            event.setEndTime(document.getDate("endTime"));
-            String dailyStartTimeStr = document.getString("dailyStartTime");
-            if (dailyStartTimeStr != null) {
-                LocalTime dailyStartTime = LocalTime.parse(dailyStartTimeStr);
-                event.setDailyStartTime(dailyStartTime);
-            }
-
-            Long maxAttendees = document.getLong("maxAttendees");
-            if (maxAttendees != null) {
-                event.setMaxAttendees(maxAttendees.intValue());
-            }
-            Long maxWaitListSize = document.getLong("maxWaitListSize");
-            if (maxWaitListSize != null) {
-                event.setMaxWaitListSize(maxWaitListSize.intValue());
-            }
+            EventDocumentParser.fillLiveEvent(event, new SnapshotFields(document));
         } catch (Exception e) {
             Log.e("EventLottery", "failed to convert document to event", e);
         }
@@ -212,6 +125,7 @@ public class EventRepository {
     public Map<String, Object> eventToMap(Event event) {
         Map<String, Object> eventMap = new HashMap<>();
         eventMap.put("title", event.getTitle());
+        eventMap.put(SearchTokens.FIELD, SearchTokens.tokensFor(event.getTitle()));
         eventMap.put("description", event.getDescription());
         eventMap.put("maxAttendees", event.getMaxAttendees());
         eventMap.put("category", event.getCategory());
@@ -274,42 +188,78 @@ public class EventRepository {
         }
     }
 
+    /**
+     * Finds an event by ID. Recently read events are parsed from the event cache
+     * without a round-trip to Firestore.
+     *
+     * @param eventId the unique identifier of the event
+     * @param callback the callback to handle the event
+     */
     public void findEventById(String eventId, EventCallback callback) {
-        db.collection(COLLECTION_EVENTS)
+        getEventDocument(eventId)
+                .addOnSuccessListener(document -> deliverEvent(document, callback))
+                .addOnFailureListener(callback::onFailure);
+    }
+
+    /**
+     * Gets the document of an event, from the event cache when possible.
+     * Documents fetched from Firestore are added to the cache.
+     *
+     * @param eventId the unique identifier of the event
+     * @return a task resolving to the event document, which may not exist
+     */
+    public Task<DocumentSnapshot> getEventDocument(String eventId) {
+        DocumentSnapshot cached = eventCache.get(eventId);
+        if (cached != null) {
+            return Tasks.forResult(cached);
+        }
+        return db.collection(COLLECTION_EVENTS)
                 .document(eventId)
                 .get()
-                .addOnSuccessListener(document -> {
-                    Event event = null;
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                        event = documentToEvent(document);
-                    }
-                    if (event != null) {
-                        updateEventStatus(event);
-                        callback.onSuccess(event);
-                    } else {
-                        callback.onFailure(new Exception("Event not found"));
-                    }
-                })
-                .addOnFailureListener(callback::onFailure);
+                .addOnSuccessListener(eventCache::put);
+    }
+
+    /**
+     * Parses an event document and passes the result to a callback.
+     *
+     * @param document the event document
+     * @param callback the callback to handle the event
+     */
+    private void deliverEvent(DocumentSnapshot document, EventCallback callback) {
+        Event event = null;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            event = documentToEvent(document);
+        }
+        if (event != null) {
+            updateEventStatus(event);
+            callback.onSuccess(event);
+        } else {
+            callback.onFailure(new Exception("Event not found"));
+        }
+    }
+
+    /**
+     * Caches and parses an event document from a query, refreshing its status.
+     * Runs on the {@link ParseExecutor}.
+     *
+     * @param document the event document
+     * @return the parsed event, or null if it could not be parsed
+     */
+    private Event parseEventDocument(DocumentSnapshot document) {
+        eventCache.put(document);
+        Event event = null;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            event = documentToEvent(document);
+        }
+        if (event != null) {
+            updateEventStatus(event);
+        }
+        return event;
     }
 
     public void getAllEvents(EventListCallback callback) {
-        db.collection(COLLECTION_EVENTS)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Event> events = new ArrayList<>();
-                    for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                        Event event = null;
-                        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                            event = documentToEvent(document);
-                        }
-                        if (event != null) {
-                            updateEventStatus(event);
-                            events.add(event);
-                        }
-                    }
-                    callback.onSuccess(events);
-                })
+        ParseExecutor.parseAll(db.collection(COLLECTION_EVENTS).get(), this::parseEventDocument)
+                .addOnSuccessListener(callback::onSuccess)
                 .addOnFailureListener(callback::onFailure);
     }
 
@@ -324,27 +274,15 @@ public class EventRepository {
         DocumentReference docRef = db.collection(COLLECTION_EVENTS).document(eventId);
 
 
-        return new EventLiveData(docRef);
+        return new EventLiveData(docRef, eventCache);
     }
 
     public void getEventsByOrganizer(String organizerId, EventListCallback callback) {
-        db.collection(COLLECTION_EVENTS)
+        Task<QuerySnapshot> query = db.collection(COLLECTION_EVENTS)
                 .whereEqualTo("organizerId", organizerId)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Event> events = new ArrayList<>();
-                    for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                        Event event = null;
-                        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                            event = documentToEvent(document);
-                        }
-                        if (event != null) {
-                            updateEventStatus(event);
-                            events.add(event);
-                        }
-                    }
-                    callback.onSuccess(events);
-                })
+                .get();
+        ParseExecutor.parseAll(query, this::parseEventDocument)
+                .addOnSuccessListener(callback::onSuccess)
                 .addOnFailureListener(callback::onFailure);
     }
 
@@ -406,7 +344,10 @@ public class EventRepository {
                     finalUpdates.put("qrCodeUrl", qrCodeUrl);
 
                     documentReference.update(finalUpdates)
-                            .addOnSuccessListener(aVoid -> callback.onSuccess())
+                            .addOnSuccessListener(aVoid -> {
+                                eventCache.invalidate(eventId);
+                                callback.onSuccess();
+                            })
                             .addOnFailureListener(callback::onFailure);
 
                 } else {
@@ -428,7 +369,10 @@ public class EventRepository {
         db.collection(COLLECTION_EVENTS)
                 .document(updatedEvent.getId())
                 .update(eventData)
-                .addOnSuccessListener(aVoid -> callback.onSuccess(true))
+                .addOnSuccessListener(aVoid -> {
+                    eventCache.invalidate(updatedEvent.getId());
+                    callback.onSuccess(true);
+                })
                 .addOnFailureListener(callback::onFailure);
     }
 
@@ -449,7 +393,10 @@ public class EventRepository {
                 db.collection(COLLECTION_EVENTS)
                         .document(eventId)
                         .update("posterUrl", posterUrl)
-                        .addOnSuccessListener(aVoid -> callback.onSuccess())
+                        .addOnSuccessListener(aVoid -> {
+                            eventCache.invalidate(eventId);
+                            callback.onSuccess();
+                        })
                         .addOnFailureListener(callback::onFailure);
             } else {
                 callback.onFailure(task.getException());
@@ -474,7 +421,10 @@ public class EventRepository {
                 db.collection(COLLECTION_EVENTS)
                         .document(eventId)
                         .update("posterUrl", posterUrl)
-                        .addOnSuccessListener(aVoid -> callback.onSuccess(posterUrl))
+                        .addOnSuccessListener(aVoid -> {
+                            eventCache.invalidate(eventId);
+                            callback.onSuccess(posterUrl);
+                        })
                         .addOnFailureListener(e -> callback.onFailure(e));
             } else {
                 callback.onFailure(task.getException());
@@ -486,7 +436,10 @@ public class EventRepository {
         db.collection(COLLECTION_EVENTS)
                 .document(eventId)
                 .delete()
-                .addOnSuccessListener(aVoid -> callback.onSuccess(true))
+                .addOnSuccessListener(aVoid -> {
+                    eventCache.invalidate(eventId);
+                    callback.onSuccess(true);
+                })
                 .addOnFailureListener(callback::onFailure);
     }
 
@@ -494,54 +447,99 @@ public class EventRepository {
         Query openRegistrationQuery = db.collection(COLLECTION_EVENTS)
                 .whereEqualTo("registrationStatus", EventRegistrationStatus.REGISTRATION_OPEN.toString());
 
-        return new EventListLiveData(openRegistrationQuery);
+        return new EventListLiveData(openRegistrationQuery, eventCache);
     }
 
     public void getEventsWithOpenRegistration(EventListCallback callback) {
-        db.collection(COLLECTION_EVENTS)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Event> events = new ArrayList<>();
-                    for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                        Event event = null;
-                        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                            event = documentToEvent(document);
-                        }
-                        if (event != null) {
-                            updateEventStatus(event);
-                            if (event.getRegistrationStatus() == EventRegistrationStatus.REGISTRATION_OPEN) {
-                                events.add(event);
-                            }
-                        }
-                    }
-                    callback.onSuccess(events);
-                })
+        ParseExecutor.Parser<Event> openEvents = document -> {
+            Event event = parseEventDocument(document);
+            return event != null && event.getRegistrationStatus() == EventRegistrationStatus.REGISTRATION_OPEN
+                    ? event : null;
+        };
+        ParseExecutor.parseAll(db.collection(COLLECTION_EVENTS).get(), openEvents)
+                .addOnSuccessListener(callback::onSuccess)
                 .addOnFailureListener(callback::onFailure);
     }
 
 
+    /**
+     * Gets the documents of several events, from the event cache when possible. The rest are
+     * fetched in concurrent {@code whereIn} queries of at most {@value #MAX_WHERE_IN_SIZE} IDs
+     * each and added to the cache.
+     *
+     * @param eventIds the IDs of the events to fetch; null IDs are ignored
+     * @return a task resolving to the documents keyed by event ID, without events that do not exist
+     */
+    public Task<Map<String, DocumentSnapshot>> getEventDocuments(Collection<String> eventIds) {
+        Map<String, DocumentSnapshot> documents = new HashMap<>();
+        List<String> missingIds = new ArrayList<>();
+        for (String eventId : new LinkedHashSet<>(eventIds)) {
+            if (eventId == null) {
+                continue;
+            }
+            DocumentSnapshot cached = eventCache.get(eventId);
+            if (cached != null) {
+                documents.put(eventId, cached);
+            } else {
+                missingIds.add(eventId);
+            }
+        }
+        if (missingIds.isEmpty()) {
+            return Tasks.forResult(documents);
+        }
+
+        List<Task<QuerySnapshot>> tasks = new ArrayList<>();
+        for (int start = 0; start < missingIds.size(); start += MAX_WHERE_IN_SIZE) {
+            List<String> chunk = missingIds.subList(start, Math.min(start + MAX_WHERE_IN_SIZE, missingIds.size()));
+            tasks.add(db.collection(COLLECTION_EVENTS)
+                    .whereIn(FieldPath.documentId(), new ArrayList<>(chunk))
+                    .get());
+        }
+
+        return Tasks.whenAllSuccess(tasks)
+                .onSuccessTask(ParseExecutor.getExecutor(), results -> {
+                    for (Object result : results) {
+                        for (DocumentSnapshot document : ((QuerySnapshot) result).getDocuments()) {
+                            eventCache.put(document);
+                            documents.put(document.getId(), document);
+                        }
+                    }
+                    return Tasks.forResult(documents);
+                });
+    }
+
+    /**
+     * Fetches events by ID, preserving the order of {@code eventIds} and dropping duplicates
+     * and IDs that do not exist. Cached events are served from memory; the rest are fetched
+     * in concurrent {@code whereIn} queries of at most {@value #MAX_WHERE_IN_SIZE} IDs each,
+     * the largest list Firestore accepts in a single {@code whereIn}. Documents are parsed on
+     * the {@link ParseExecutor} and the callback runs on the main thread.
+     *
+     * @param eventIds the IDs of the events to fetch
+     * @param callback the callback to handle the list of events
+     */
     public void getEventsByIds(List<String> eventIds, EventListCallback callback) {
         if (eventIds == null || eventIds.isEmpty()) {
             callback.onSuccess(new ArrayList<>());
             return;
         }
 
-        db.collection(COLLECTION_EVENTS)
-                .whereIn(com.google.firebase.firestore.FieldPath.documentId(), eventIds)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
+        LinkedHashSet<String> uniqueIds = new LinkedHashSet<>(eventIds);
+        getEventDocuments(uniqueIds)
+                .onSuccessTask(ParseExecutor.getExecutor(), documents -> {
                     List<Event> events = new ArrayList<>();
-                    for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+                    for (String eventId : uniqueIds) {
                         Event event = null;
                         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                            event = fromDocument(document);
+                            event = fromDocument(documents.get(eventId));
                         }
                         if (event != null) {
                             events.add(event);
                         }
                     }
-                    callback.onSuccess(events);
+                    return Tasks.forResult(events);
                 })
+                .addOnSuccessListener(callback::onSuccess)
                 .addOnFailureListener(callback::onFailure);
     }
-}
\ No newline at end of file
+}
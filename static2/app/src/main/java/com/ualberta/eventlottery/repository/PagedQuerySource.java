@@ -0,0 +1,238 @@
+package com.ualberta.eventlottery.repository;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads an ordered Firestore query one page at a time with {@code startAfter(lastDoc)} and
+ * {@code limit(pageSize)}, so a screen gets its first rows in one round-trip however large the
+ * collection is, and only holds the pages the user actually scrolled through.
+ *
+ * <p>Screens report the last visible position with {@link #onPositionVisible(int, int)}; the
+ * next page is requested once that position comes within the prefetch distance of the end of
+ * the list, so it is usually in memory before the user reaches it. Documents are parsed on
+ * the {@link ParseExecutor}, and the listener is called on the main thread.</p>
+ *
+ * <p>The query must have an {@code orderBy} that is stable across pages, e.g. the document ID.</p>
+ *
+ * @param <T> the type of the loaded items
+ * @author static2
+ * @version 1.0
+ */
+public class PagedQuerySource<T> {
+    private static final String TAG = "PagedQuerySource";
+
+    /**
+     * Default number of documents fetched per page.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private final Query query;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final ParseExecutor.Parser<T> parser;
+    private final List<T> items = new ArrayList<>();
+
+    private PageListener<T> listener;
+    private DocumentSnapshot lastDocument;
+    private boolean loading;
+    private boolean endReached;
+    // Incremented by refresh() so pages requested before it are dropped.
+    private int generation;
+
+    /**
+     * Receives the items of a source as pages arrive.
+     *
+     * @param <T> the type of the loaded items
+     */
+    public interface PageListener<T> {
+        /**
+         * Called on the main thread after a page was appended.
+         *
+         * @param items every item loaded so far, in query order
+         * @param page the items of the page that was just loaded
+         * @param endReached true if the query has no further pages
+         */
+        void onPageLoaded(List<T> items, List<T> page, boolean endReached);
+
+        /**
+         * Called when a page could not be loaded. The same page is requested again on the
+         * next call to {@link #loadNextPage()}.
+         *
+         * @param e the exception that caused the failure
+         */
+        void onFailure(Exception e);
+    }
+
+    /**
+     * Creates a source with the default page size, prefetching half a page ahead.
+     *
+     * @param query the ordered query to page through
+     * @param parser converts a document into an item; null leaves the document out
+     */
+    public PagedQuerySource(Query query, ParseExecutor.Parser<T> parser) {
+        this(query, DEFAULT_PAGE_SIZE, DEFAULT_PAGE_SIZE / 2, parser);
+    }
+
+    /**
+     * Creates a source.
+     *
+     * @param query the ordered query to page through
+     * @param pageSize the number of documents fetched per page
+     * @param prefetchDistance how many rows before the end of the list the next page is
+     *                         requested
+     * @param parser converts a document into an item; null leaves the document out
+     */
+    public PagedQuerySource(Query query, int pageSize, int prefetchDistance, ParseExecutor.Parser<T> parser) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1");
+        }
+        this.query = query;
+        this.pageSize = pageSize;
+        this.prefetchDistance = Math.max(0, prefetchDistance);
+        this.parser = parser;
+    }
+
+    /**
+     * Sets the listener for loaded pages.
+     *
+     * @param listener the listener, or null to stop listening
+     */
+    public void setListener(PageListener<T> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the items loaded so far.
+     *
+     * @return an unmodifiable view of the loaded items, in query order
+     */
+    public List<T> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * @return true while a page is being fetched
+     */
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * @return true once the last page has been loaded
+     */
+    public boolean isEndReached() {
+        return endReached;
+    }
+
+    /**
+     * Requests the next page unless one is already being fetched or the end was reached.
+     */
+    public void loadNextPage() {
+        if (loading || endReached) {
+            return;
+        }
+        loading = true;
+        int requestGeneration = generation;
+
+        Query page = query.limit(pageSize);
+        if (lastDocument != null) {
+            page = page.startAfter(lastDocument);
+        }
+        page.get()
+                .onSuccessTask(ParseExecutor.getExecutor(), snapshot -> {
+                    List<DocumentSnapshot> documents = snapshot.getDocuments();
+                    List<T> parsed = new ArrayList<>(documents.size());
+                    for (DocumentSnapshot document : documents) {
+                        T item = parser.parse(document);
+                        if (item != null) {
+                            parsed.add(item);
+                        }
+                    }
+                    DocumentSnapshot last = documents.isEmpty() ? null : documents.get(documents.size() - 1);
+                    return Tasks.forResult(new Page<>(parsed, last, documents.size() < pageSize));
+                })
+                .addOnSuccessListener(result -> {
+                    if (requestGeneration != generation) {
+                        return;
+                    }
+                    loading = false;
+                    if (result.lastDocument != null) {
+                        lastDocument = result.lastDocument;
+                    }
+                    endReached = result.endReached;
+                    items.addAll(result.items);
+                    if (listener != null) {
+                        listener.onPageLoaded(getItems(), result.items, endReached);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    if (requestGeneration != generation) {
+                        return;
+                    }
+                    loading = false;
+                    Log.e(TAG, "Failed to load page", e);
+                    if (listener != null) {
+                        listener.onFailure(e);
+                    }
+                });
+    }
+
+    /**
+     * Tells the source which row is the last one on screen, fetching the next page when it is
+     * within the prefetch distance of the end of the list. The list may show a filtered subset
+     * of the loaded items.
+     *
+     * @param lastVisiblePosition the position of the last visible row
+     * @param itemCount the number of rows in the list
+     */
+    public void onPositionVisible(int lastVisiblePosition, int itemCount) {
+        if (lastVisiblePosition >= itemCount - 1 - prefetchDistance) {
+            loadNextPage();
+        }
+    }
+
+    /**
+     * Drops every loaded item and loads the first page again.
+     */
+    public void refresh() {
+        generation++;
+        items.clear();
+        lastDocument = null;
+        loading = false;
+        endReached = false;
+        loadNextPage();
+    }
+
+    /**
+     * Removes an item that was deleted, without reloading.
+     *
+     * @param item the item to remove
+     * @return true if the item was loaded
+     */
+    public boolean remove(T item) {
+        return items.remove(item);
+    }
+
+    /**
+     * A parsed page together with its cursor.
+     */
+    private static class Page<T> {
+        final List<T> items;
+        final DocumentSnapshot lastDocument;
+        final boolean endReached;
+
+        Page(List<T> items, DocumentSnapshot lastDocument, boolean endReached) {
+            this.items = items;
+            this.lastDocument = lastDocument;
+            this.endReached = endReached;
+        }
+    }
+}
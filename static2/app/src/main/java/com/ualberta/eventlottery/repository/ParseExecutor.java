@@ -0,0 +1,112 @@
+package com.ualberta.eventlottery.repository;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background stage for turning Firestore documents into model objects.
+ *
+ * <p>Firestore delivers results on the main thread, so parsing a large snapshot there stalls
+ * the UI. Repositories hand snapshots to this executor with {@code Task.onSuccessTask} and attach
+ * their callbacks to the resulting task, so only the finished list is delivered back on the main
+ * thread. The pool is bounded and its threads time out when idle.</p>
+ *
+ * @author static2
+ * @version 1.0
+ */
+public final class ParseExecutor {
+    private static final int DEFAULT_THREAD_COUNT =
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static Executor executor = createPool(DEFAULT_THREAD_COUNT);
+
+    /**
+     * Converts one document into a model object.
+     *
+     * @param <T> the type of the model object
+     */
+    public interface Parser<T> {
+        /**
+         * @param document the document to convert
+         * @return the model object, or null to leave the document out
+         */
+        T parse(DocumentSnapshot document);
+    }
+
+    private ParseExecutor() {
+    }
+
+    /**
+     * Gets the executor that parse work should run on.
+     *
+     * @return the parse executor
+     */
+    public static synchronized Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Replaces the parse pool with one of the given size, e.g. to give parsing more threads on
+     * devices with many cores. Work already queued on the old pool still completes.
+     *
+     * @param threadCount the maximum number of parse threads, at least 1
+     * @throws IllegalArgumentException if {@code threadCount} is less than 1
+     */
+    public static synchronized void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("threadCount must be at least 1");
+        }
+        Executor previous = executor;
+        executor = createPool(threadCount);
+        if (previous instanceof ThreadPoolExecutor) {
+            ((ThreadPoolExecutor) previous).shutdown();
+        }
+    }
+
+    /**
+     * Parses every document of a query result in the background, keeping query order and
+     * leaving out documents the parser returns null for.
+     *
+     * @param query the pending query
+     * @param parser the parser for a single document
+     * @param <T> the type of the model objects
+     * @return a task resolving to the parsed list; listeners added without an executor run on
+     *         the main thread
+     */
+    public static <T> Task<List<T>> parseAll(Task<QuerySnapshot> query, Parser<T> parser) {
+        return query.onSuccessTask(getExecutor(), snapshot -> {
+            List<DocumentSnapshot> documents = snapshot.getDocuments();
+            List<T> results = new ArrayList<>(documents.size());
+            for (DocumentSnapshot document : documents) {
+                T result = parser.parse(document);
+                if (result != null) {
+                    results.add(result);
+                }
+            }
+            return Tasks.forResult(results);
+        });
+    }
+
+    private static ThreadPoolExecutor createPool(int threadCount) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threadCount, threadCount,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "parse-" + threadNumber.incrementAndGet());
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,158 @@
+package com.ualberta.eventlottery.repository;
+
+import com.google.firebase.firestore.ListenerRegistration;
+import com.ualberta.eventlottery.model.EntrantRegistrationStatus;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares live registration counts between many subscribers.
+ * The hub keeps at most one Firestore listener per event, no matter how many views
+ * are interested in it, and detaches that listener as soon as the last subscriber
+ * unsubscribes. List adapters subscribe when a row is bound and unsubscribe when it
+ * is recycled, which bounds the number of live listeners to the visible rows.
+ *
+ * <p>All methods must be called on the main thread, which is also where Firestore
+ * delivers snapshot callbacks.</p>
+ *
+ * @author static2
+ * @version 1.0
+ */
+public class RegistrationCountHub {
+    private static RegistrationCountHub instance;
+    private final RegistrationCounter counter;
+    private final Map<String, EventEntry> entries = new HashMap<>();
+
+    /**
+     * Handle returned by {@link #subscribe}; call {@link #unsubscribe()} to stop receiving counts.
+     */
+    public class Subscription {
+        private final String eventId;
+        private final EntrantRegistrationStatus status;
+        private final RegistrationRepository.CountCallback callback;
+        private boolean active = true;
+
+        private Subscription(String eventId, EntrantRegistrationStatus status, RegistrationRepository.CountCallback callback) {
+            this.eventId = eventId;
+            this.status = status;
+            this.callback = callback;
+        }
+
+        /**
+         * @return the ID of the event this subscription watches
+         */
+        public String getEventId() {
+            return eventId;
+        }
+
+        /**
+         * Stops delivering counts to this subscriber. Calling it more than once has no effect.
+         */
+        public void unsubscribe() {
+            if (!active) {
+                return;
+            }
+            active = false;
+            release(this);
+        }
+    }
+
+    /**
+     * Shared listener state for a single event.
+     */
+    private static class EventEntry {
+        final List<Subscription> subscriptions = new ArrayList<>();
+        ListenerRegistration registration;
+        EnumMap<EntrantRegistrationStatus, Integer> lastCounts;
+    }
+
+    /**
+     * Private constructor for Singleton pattern.
+     */
+    private RegistrationCountHub() {
+        counter = RegistrationCounter.getInstance();
+    }
+
+    /**
+     * Gets the singleton instance of RegistrationCountHub.
+     *
+     * @return the singleton RegistrationCountHub instance
+     */
+    public static synchronized RegistrationCountHub getInstance() {
+        if (instance == null) {
+            instance = new RegistrationCountHub();
+        }
+        return instance;
+    }
+
+    /**
+     * Subscribes to the live count of registrations with a status for an event.
+     * If the event is already being watched, the latest known count is delivered immediately.
+     *
+     * @param eventId the unique identifier of the event
+     * @param status the registration status to monitor
+     * @param callback the callback to handle count updates
+     * @return the subscription, to be released when the count is no longer displayed
+     */
+    public Subscription subscribe(String eventId, EntrantRegistrationStatus status, RegistrationRepository.CountCallback callback) {
+        Subscription subscription = new Subscription(eventId, status, callback);
+        EventEntry entry = entries.get(eventId);
+        if (entry == null) {
+            EventEntry newEntry = new EventEntry();
+            entries.put(eventId, newEntry);
+            newEntry.subscriptions.add(subscription);
+            newEntry.registration = counter.watchCounts(eventId, new RegistrationRepository.HistogramCallback() {
+                @Override
+                public void onSuccess(EnumMap<EntrantRegistrationStatus, Integer> counts) {
+                    newEntry.lastCounts = counts;
+                    for (Subscription s : new ArrayList<>(newEntry.subscriptions)) {
+                        s.callback.onSuccess(counts.get(s.status));
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    for (Subscription s : new ArrayList<>(newEntry.subscriptions)) {
+                        s.callback.onFailure(e);
+                    }
+                }
+            });
+        } else {
+            entry.subscriptions.add(subscription);
+            if (entry.lastCounts != null) {
+                callback.onSuccess(entry.lastCounts.get(status));
+            }
+        }
+        return subscription;
+    }
+
+    /**
+     * Removes a subscription and detaches the event's listener when nobody is left.
+     *
+     * @param subscription the subscription to remove
+     */
+    private void release(Subscription subscription) {
+        EventEntry entry = entries.get(subscription.eventId);
+        if (entry == null) {
+            return;
+        }
+        entry.subscriptions.remove(subscription);
+        if (entry.subscriptions.isEmpty()) {
+            entry.registration.remove();
+            entries.remove(subscription.eventId);
+        }
+    }
+
+    /**
+     * Gets the number of events that currently have a live listener.
+     *
+     * @return the number of active listeners
+     */
+    public int getActiveListenerCount() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,382 @@
+package com.ualberta.eventlottery.repository;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+import com.ualberta.eventlottery.model.EntrantRegistrationStatus;
+import com.ualberta.eventlottery.model.Event;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Maintains per-event registration counts as a sharded distributed counter in Firestore.
+ * Every event owns {@value #SHARD_COUNT} shard documents under
+ * {@code registrationCounters/{eventId}/shards}, each holding one numeric field per
+ * {@link EntrantRegistrationStatus}. A count is the sum of that field over all shards,
+ * so watching an event costs a single small listener instead of streaming every
+ * registration document.
+ *
+ * <p>Writers pick a random shard, so a burst of entrants joining the same waiting list
+ * spreads over {@value #SHARD_COUNT} documents instead of contending on one. Counter
+ * increments are always added to the same batch or transaction as the registration
+ * write they describe, so counts and documents never drift apart.</p>
+ *
+ * @author static2
+ * @version 1.0
+ */
+public class RegistrationCounter {
+    private static final String TAG = "RegistrationCounter";
+    private static RegistrationCounter instance;
+    private final FirebaseFirestore db;
+    private static final String COLLECTION_COUNTERS = "registrationCounters";
+    private static final String COLLECTION_SHARDS = "shards";
+    private static final String COLLECTION_REGISTRATIONS = "registrations";
+
+    /**
+     * Number of shard documents per event.
+     */
+    static final int SHARD_COUNT = 10;
+
+    private final Set<String> seedingEvents = new HashSet<>();
+
+    /**
+     * Private constructor for Singleton pattern.
+     * Initializes Firebase Firestore instance.
+     */
+    private RegistrationCounter() {
+        db = FirebaseFirestore.getInstance();
+    }
+
+    /**
+     * Gets the singleton instance of RegistrationCounter.
+     *
+     * @return the singleton RegistrationCounter instance
+     */
+    public static synchronized RegistrationCounter getInstance() {
+        if (instance == null) {
+            instance = new RegistrationCounter();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the shard collection of an event.
+     *
+     * @param eventId the unique identifier of the event
+     * @return the collection holding the event's shards
+     */
+    private CollectionReference shards(String eventId) {
+        return db.collection(COLLECTION_COUNTERS).document(eventId).collection(COLLECTION_SHARDS);
+    }
+
+    /**
+     * Sums the shard documents of an event into a count per status.
+     *
+     * @param shardDocuments the shard documents of a single event
+     * @return the number of registrations for every status
+     */
+    static EnumMap<EntrantRegistrationStatus, Integer> sumShards(List<DocumentSnapshot> shardDocuments) {
+        EnumMap<EntrantRegistrationStatus, Integer> counts = new EnumMap<>(EntrantRegistrationStatus.class);
+        for (EntrantRegistrationStatus status : EntrantRegistrationStatus.values()) {
+            long total = 0;
+            for (DocumentSnapshot shard : shardDocuments) {
+                Long value = shard.getLong(status.name());
+                if (value != null) {
+                    total += value;
+                }
+            }
+            counts.put(status, (int) Math.max(0, total));
+        }
+        return counts;
+    }
+
+    /**
+     * Listens to the count of registrations with a status for an event.
+     *
+     * @param eventId the unique identifier of the event
+     * @param status the registration status to monitor
+     * @param callback the callback to handle count updates
+     * @return the registration used to stop listening
+     */
+    public ListenerRegistration watchCount(String eventId, EntrantRegistrationStatus status, RegistrationRepository.CountCallback callback) {
+        return watchCounts(eventId, new RegistrationRepository.HistogramCallback() {
+            @Override
+            public void onSuccess(EnumMap<EntrantRegistrationStatus, Integer> counts) {
+                callback.onSuccess(counts.get(status));
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
+            }
+        });
+    }
+
+    /**
+     * Listens to the counts of every status for an event.
+     * Events whose shards are missing or incomplete, such as events created before
+     * counters existed, are seeded from a server-side count aggregation the first
+     * time they are watched. Until the shards are complete, and if seeding fails,
+     * the counts are delivered from the aggregation instead.
+     *
+     * @param eventId the unique identifier of the event
+     * @param callback the callback to handle count updates
+     * @return the registration used to stop listening
+     */
+    public ListenerRegistration watchCounts(String eventId, RegistrationRepository.HistogramCallback callback) {
+        return shards(eventId).addSnapshotListener((querySnapshot, error) -> {
+            if (error != null) {
+                callback.onFailure(error);
+                return;
+            }
+            if (querySnapshot == null) {
+                return;
+            }
+            if (querySnapshot.size() < SHARD_COUNT) {
+                if (!querySnapshot.getMetadata().isFromCache()) {
+                    seed(eventId);
+                }
+                RegistrationRepository.getInstance().getStatusHistogram(eventId, callback);
+                return;
+            }
+            callback.onSuccess(sumShards(querySnapshot.getDocuments()));
+        });
+    }
+
+    /**
+     * Creates the missing shards of an event from the current registration documents.
+     * The shards are read, the registrations counted, and the missing shards created in a
+     * transaction that reads every shard again. The registrations missing from the existing
+     * shards go into the first missing shard, and existing shards are never overwritten, so
+     * increments that landed before seeding are kept. If any shard changed since it was
+     * first read, the counts may not match the shards and seeding is abandoned; the shard
+     * listener sees the change and seeds again. Seeding is started once at a time per event
+     * in this process, and a transaction that finds every shard already created does nothing.
+     *
+     * @param eventId the unique identifier of the event
+     */
+    private void seed(String eventId) {
+        synchronized (seedingEvents) {
+            if (!seedingEvents.add(eventId)) {
+                return;
+            }
+        }
+
+        EntrantRegistrationStatus[] statuses = EntrantRegistrationStatus.values();
+        shards(eventId).get(Source.SERVER)
+                .onSuccessTask(before -> {
+                    List<Task<AggregateQuerySnapshot>> tasks = new ArrayList<>();
+                    for (EntrantRegistrationStatus status : statuses) {
+                        tasks.add(db.collection(COLLECTION_REGISTRATIONS)
+                                .whereEqualTo("eventId", eventId)
+                                .whereEqualTo("status", status.name())
+                                .count()
+                                .get(AggregateSource.SERVER));
+                    }
+                    return Tasks.whenAllSuccess(tasks).onSuccessTask(results -> db.runTransaction(transaction -> {
+                        Map<String, DocumentSnapshot> existing = new HashMap<>();
+                        List<DocumentReference> missing = new ArrayList<>();
+                        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+                            DocumentReference ref = shards(eventId).document(String.valueOf(shard));
+                            DocumentSnapshot snapshot = transaction.get(ref);
+                            if (snapshot.exists()) {
+                                existing.put(snapshot.getId(), snapshot);
+                            } else {
+                                missing.add(ref);
+                            }
+                        }
+                        if (missing.isEmpty()) {
+                            return null;
+                        }
+                        if (!sameShards(before.getDocuments(), existing)) {
+                            throw new FirebaseFirestoreException("Counter shards of event " + eventId
+                                    + " changed while seeding", FirebaseFirestoreException.Code.ABORTED);
+                        }
+
+                        for (int i = 0; i < missing.size(); i++) {
+                            Map<String, Object> data = new HashMap<>();
+                            for (int s = 0; s < statuses.length; s++) {
+                                long value = 0;
+                                if (i == 0) {
+                                    value = ((AggregateQuerySnapshot) results.get(s)).getCount();
+                                    for (DocumentSnapshot shard : existing.values()) {
+                                        Long counted = shard.getLong(statuses[s].name());
+                                        if (counted != null) {
+                                            value -= counted;
+                                        }
+                                    }
+                                }
+                                data.put(statuses[s].name(), value);
+                            }
+                            transaction.set(missing.get(i), data);
+                        }
+                        return null;
+                    }));
+                })
+                .addOnCompleteListener(task -> {
+                    synchronized (seedingEvents) {
+                        seedingEvents.remove(eventId);
+                    }
+                    if (!task.isSuccessful()) {
+                        Log.e(TAG, "Failed to seed counters for event " + eventId, task.getException());
+                    }
+                });
+    }
+
+    /**
+     * Checks whether the shards read inside a transaction are the shards read before it.
+     *
+     * @param before the shard documents read before counting the registrations
+     * @param existing the existing shards read in the transaction, by ID
+     * @return true if the same shards exist with the same values
+     */
+    private static boolean sameShards(List<DocumentSnapshot> before, Map<String, DocumentSnapshot> existing) {
+        if (before.size() != existing.size()) {
+            return false;
+        }
+        for (DocumentSnapshot shard : before) {
+            DocumentSnapshot current = existing.get(shard.getId());
+            if (current == null || !Objects.equals(shard.getData(), current.getData())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the current count of every status for an event by reading its shards.
+     * This is a fixed-size read no matter how many registrations the event has.
+     * If the event has not been seeded yet the counts fall back to a server-side
+     * aggregation and the shards are seeded in the background.
+     *
+     * @param eventId the unique identifier of the event
+     * @param callback the callback to handle the counts
+     */
+    public void getCounts(String eventId, RegistrationRepository.HistogramCallback callback) {
+        shards(eventId).get()
+                .addOnSuccessListener(querySnapshot -> {
+                    if (querySnapshot.size() < SHARD_COUNT) {
+                        seed(eventId);
+                        RegistrationRepository.getInstance().getStatusHistogram(eventId, callback);
+                    } else {
+                        callback.onSuccess(sumShards(querySnapshot.getDocuments()));
+                    }
+                })
+                .addOnFailureListener(callback::onFailure);
+    }
+
+    /**
+     * Copies counts onto the tally fields of an event.
+     *
+     * @param event the event to update
+     * @param counts the number of registrations for every status
+     */
+    public static void applyToEvent(Event event, Map<EntrantRegistrationStatus, Integer> counts) {
+        Integer confirmed = counts.get(EntrantRegistrationStatus.CONFIRMED);
+        Integer waiting = counts.get(EntrantRegistrationStatus.WAITING);
+        event.setConfirmedAttendees(confirmed != null ? confirmed : 0);
+        event.setCurrentWaitListSize(waiting != null ? waiting : 0);
+    }
+
+    /**
+     * Builds the counter deltas for moving registrations from one status to another.
+     *
+     * @param from the previous status, or null for a new registration
+     * @param to the new status, or null for a deleted registration
+     * @param amount the number of registrations moved
+     * @return the delta per status
+     */
+    public static Map<EntrantRegistrationStatus, Integer> transition(EntrantRegistrationStatus from, EntrantRegistrationStatus to, int amount) {
+        Map<EntrantRegistrationStatus, Integer> deltas = new EnumMap<>(EntrantRegistrationStatus.class);
+        if (from == to) {
+            return deltas;
+        }
+        if (from != null) {
+            deltas.merge(from, -amount, Integer::sum);
+        }
+        if (to != null) {
+            deltas.merge(to, amount, Integer::sum);
+        }
+        return deltas;
+    }
+
+    /**
+     * Adds counter increments to a write batch so they commit atomically with the
+     * registration writes in the same batch. All deltas go to one randomly chosen shard,
+     * costing a single extra write.
+     *
+     * @param batch the batch to add the increments to
+     * @param eventId the unique identifier of the event
+     * @param deltas the amount to add per status; negative to decrement
+     */
+    public void addDeltas(WriteBatch batch, String eventId, Map<EntrantRegistrationStatus, Integer> deltas) {
+        Map<String, Object> data = deltaFields(deltas);
+        if (!data.isEmpty()) {
+            batch.set(randomShard(eventId), data, SetOptions.merge());
+        }
+    }
+
+    /**
+     * Adds counter increments to a transaction so they commit atomically with the
+     * registration writes in the same transaction.
+     *
+     * @param transaction the transaction to add the increments to
+     * @param eventId the unique identifier of the event
+     * @param deltas the amount to add per status; negative to decrement
+     */
+    public void addDeltas(Transaction transaction, String eventId, Map<EntrantRegistrationStatus, Integer> deltas) {
+        Map<String, Object> data = deltaFields(deltas);
+        if (!data.isEmpty()) {
+            transaction.set(randomShard(eventId), data, SetOptions.merge());
+        }
+    }
+
+    /**
+     * Converts deltas into Firestore increment field values, skipping zero deltas.
+     *
+     * @param deltas the amount to add per status
+     * @return the field map for a merge write
+     */
+    private static Map<String, Object> deltaFields(Map<EntrantRegistrationStatus, Integer> deltas) {
+        Map<String, Object> data = new HashMap<>();
+        for (Map.Entry<EntrantRegistrationStatus, Integer> entry : deltas.entrySet()) {
+            if (entry.getValue() != 0) {
+                data.put(entry.getKey().name(), FieldValue.increment(entry.getValue()));
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Gets a randomly chosen shard document of an event.
+     *
+     * @param eventId the unique identifier of the event
+     * @return a shard document reference
+     */
+    private DocumentReference randomShard(String eventId) {
+        int shard = ThreadLocalRandom.current().nextInt(SHARD_COUNT);
+        return shards(eventId).document(String.valueOf(shard));
+    }
+}
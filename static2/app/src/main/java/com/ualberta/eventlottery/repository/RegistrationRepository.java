@@ -2,12 +2,18 @@ package com.ualberta.eventlottery.repository;
 
 import android.location.Location;
 
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.AggregateSource;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
 import com.ualberta.eventlottery.model.Registration;
 import com.ualberta.eventlottery.model.EntrantRegistrationStatus;
 import com.ualberta.eventlottery.service.LocationService;
@@ -15,6 +21,7 @@ import com.ualberta.eventlottery.service.LocationService;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +39,26 @@ public class RegistrationRepository {
     public FirebaseFirestore db;
     private static final String COLLECTION_REGISTRATIONS = "registrations";
 
+    /**
+     * How long a status histogram stays valid before it is fetched again.
+     */
+    private static final long HISTOGRAM_TTL_MS = 30_000;
+
+    private final Map<String, CachedHistogram> histogramCache = new HashMap<>();
+
+    /**
+     * A status histogram together with the time it was fetched.
+     */
+    private static class CachedHistogram {
+        final EnumMap<EntrantRegistrationStatus, Integer> counts;
+        final long fetchedAt;
+
+        CachedHistogram(EnumMap<EntrantRegistrationStatus, Integer> counts, long fetchedAt) {
+            this.counts = counts;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
     // Callback interfaces
 
     /**
@@ -127,6 +154,25 @@ public class RegistrationRepository {
         void onFailure(Exception e);
     }
 
+    /**
+     * Callback interface for registration status histograms.
+     */
+    public interface HistogramCallback {
+        /**
+         * Called when the histogram is available.
+         *
+         * @param counts the number of registrations for every status
+         */
+        void onSuccess(EnumMap<EntrantRegistrationStatus, Integer> counts);
+
+        /**
+         * Called when the histogram could not be computed.
+         *
+         * @param e the exception that caused the failure
+         */
+        void onFailure(Exception e);
+    }
+
     /**
      * Private constructor for Singleton pattern.
      * Initializes Firebase Firestore instance.
@@ -257,19 +303,11 @@ public class RegistrationRepository {
      * @param callback the callback to handle the list of registrations
      */
     public void getRegistrationsByEvent(String eventId, RegistrationListCallback callback) {
-        db.collection(COLLECTION_REGISTRATIONS)
+        Task<QuerySnapshot> query = db.collection(COLLECTION_REGISTRATIONS)
                 .whereEqualTo("eventId", eventId)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Registration> registrations = new ArrayList<>();
-                    for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                        Registration registration = documentToRegistration(document);
-                        if (registration != null) {
-                            registrations.add(registration);
-                        }
-                    }
-                    callback.onSuccess(registrations);
-                })
+                .get();
+        ParseExecutor.parseAll(query, this::documentToRegistration)
+                .addOnSuccessListener(callback::onSuccess)
                 .addOnFailureListener(callback::onFailure);
     }
 
@@ -280,19 +318,11 @@ public class RegistrationRepository {
      * @param callback the callback to handle the list of registrations
      */
     public void getRegistrationsByEntrant(String entrantId, RegistrationListCallback callback) {
-        db.collection(COLLECTION_REGISTRATIONS)
+        Task<QuerySnapshot> query = db.collection(COLLECTION_REGISTRATIONS)
                 .whereEqualTo("entrantId", entrantId)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Registration> registrations = new ArrayList<>();
-                    for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                        Registration registration = documentToRegistration(document);
-                        if (registration != null) {
-                            registrations.add(registration);
-                        }
-                    }
-                    callback.onSuccess(registrations);
-                })
+                .get();
+        ParseExecutor.parseAll(query, this::documentToRegistration)
+                .addOnSuccessListener(callback::onSuccess)
                 .addOnFailureListener(callback::onFailure);
     }
 
@@ -304,20 +334,12 @@ public class RegistrationRepository {
      * @param callback the callback to handle the list of registrations
      */
     public void getRegistrationsByStatus(String eventId, EntrantRegistrationStatus status, RegistrationListCallback callback) {
-        db.collection(COLLECTION_REGISTRATIONS)
+        Task<QuerySnapshot> query = db.collection(COLLECTION_REGISTRATIONS)
                 .whereEqualTo("eventId", eventId)
                 .whereEqualTo("status", status.name())
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Registration> registrations = new ArrayList<>();
-                    for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                        Registration registration = documentToRegistration(document);
-                        if (registration != null) {
-                            registrations.add(registration);
-                        }
-                    }
-                    callback.onSuccess(registrations);
-                })
+                .get();
+        ParseExecutor.parseAll(query, this::documentToRegistration)
+                .addOnSuccessListener(callback::onSuccess)
                 .addOnFailureListener(callback::onFailure);
     }
 
@@ -329,20 +351,12 @@ public class RegistrationRepository {
      * @param callback the callback to handle the list of registrations
      */
     public void getRegistrationsByEntrantAndStatus(String entrantId, EntrantRegistrationStatus status, RegistrationListCallback callback) {
-        db.collection(COLLECTION_REGISTRATIONS)
+        Task<QuerySnapshot> query = db.collection(COLLECTION_REGISTRATIONS)
                 .whereEqualTo("entrantId", entrantId)
                 .whereEqualTo("status", status.name())
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Registration> registrations = new ArrayList<>();
-                    for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                        Registration registration = documentToRegistration(document);
-                        if (registration != null) {
-                            registrations.add(registration);
-                        }
-                    }
-                    callback.onSuccess(registrations);
-                })
+                .get();
+        ParseExecutor.parseAll(query, this::documentToRegistration)
+                .addOnSuccessListener(callback::onSuccess)
                 .addOnFailureListener(callback::onFailure);
     }
 
@@ -352,18 +366,8 @@ public class RegistrationRepository {
      * @param callback the callback to handle the list of registrations
      */
     public void getAllRegistrations(RegistrationListCallback callback) {
-        db.collection(COLLECTION_REGISTRATIONS)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Registration> registrations = new ArrayList<>();
-                    for (DocumentSnapshot document : querySnapshot.getDocuments()) {
-                        Registration registration = documentToRegistration(document);
-                        if (registration != null) {
-                            registrations.add(registration);
-                        }
-                    }
-                    callback.onSuccess(registrations);
-                })
+        ParseExecutor.parseAll(db.collection(COLLECTION_REGISTRATIONS).get(), this::documentToRegistration)
+                .addOnSuccessListener(callback::onSuccess)
                 .addOnFailureListener(callback::onFailure);
     }
 
@@ -385,42 +389,93 @@ public class RegistrationRepository {
         }
 
         Map<String, Object> registrationData = registrationToMap(registration);
-        db.collection(COLLECTION_REGISTRATIONS)
-                .document(registration.getId())
-                .set(registrationData)
-                .addOnSuccessListener(aVoid -> callback.onSuccess())
+        WriteBatch batch = db.batch();
+        batch.set(db.collection(COLLECTION_REGISTRATIONS).document(registration.getId()), registrationData);
+        RegistrationCounter.getInstance().addDeltas(batch, registration.getEventId(),
+                RegistrationCounter.transition(null, registration.getStatus(), 1));
+        batch.commit()
+                .addOnSuccessListener(aVoid -> {
+                    invalidateStatusHistogram(registration.getEventId());
+                    callback.onSuccess();
+                })
                 .addOnFailureListener(callback::onFailure);
     }
 
     /**
      * Updates an existing registration in the database.
+     * Runs in a transaction so a status change also moves the event's counters.
      *
      * @param updatedRegistration the Registration object with updated information
      * @param callback the callback to handle the operation result
      */
     public void updateRegistration(Registration updatedRegistration, BooleanCallback callback) {
         Map<String, Object> registrationData = registrationToMap(updatedRegistration);
-        db.collection(COLLECTION_REGISTRATIONS)
-                .document(updatedRegistration.getId())
-                .update(registrationData)
-                .addOnSuccessListener(aVoid -> callback.onSuccess(true))
+        DocumentReference regRef = db.collection(COLLECTION_REGISTRATIONS).document(updatedRegistration.getId());
+        db.runTransaction(transaction -> {
+                    DocumentSnapshot current = transaction.get(regRef);
+                    if (!current.exists()) {
+                        throw new FirebaseFirestoreException("Registration not found", FirebaseFirestoreException.Code.NOT_FOUND);
+                    }
+                    transaction.update(regRef, registrationData);
+                    RegistrationCounter.getInstance().addDeltas(transaction, current.getString("eventId"),
+                            RegistrationCounter.transition(parseStatus(current), updatedRegistration.getStatus(), 1));
+                    return null;
+                })
+                .addOnSuccessListener(aVoid -> {
+                    invalidateStatusHistogram(updatedRegistration.getEventId());
+                    callback.onSuccess(true);
+                })
                 .addOnFailureListener(callback::onFailure);
     }
 
     /**
      * Deletes a registration from the database by its ID.
+     * Runs in a transaction so the event's counters are decremented atomically.
      *
      * @param registrationId the unique identifier of the registration to delete
      * @param callback the callback to handle the operation result
      */
     public void deleteRegistration(String registrationId, BooleanCallback callback) {
-        db.collection(COLLECTION_REGISTRATIONS)
-                .document(registrationId)
-                .delete()
-                .addOnSuccessListener(aVoid -> callback.onSuccess(true))
+        deleteRegistrationWithCounters(registrationId)
+                .addOnSuccessListener(eventId -> {
+                    invalidateStatusHistogram(eventId);
+                    callback.onSuccess(true);
+                })
                 .addOnFailureListener(callback::onFailure);
     }
 
+    /**
+     * Deletes a registration and decrements its event's counter in one transaction.
+     *
+     * @param registrationId the unique identifier of the registration to delete
+     * @return a task resolving to the event ID of the deleted registration, or null if it did not exist
+     */
+    private Task<String> deleteRegistrationWithCounters(String registrationId) {
+        DocumentReference regRef = db.collection(COLLECTION_REGISTRATIONS).document(registrationId);
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot current = transaction.get(regRef);
+            if (!current.exists()) {
+                return null;
+            }
+            String eventId = current.getString("eventId");
+            transaction.delete(regRef);
+            RegistrationCounter.getInstance().addDeltas(transaction, eventId,
+                    RegistrationCounter.transition(parseStatus(current), null, 1));
+            return eventId;
+        });
+    }
+
+    /**
+     * Reads the status field of a registration document.
+     *
+     * @param document the registration document
+     * @return the registration status, or null if it is missing
+     */
+    private static EntrantRegistrationStatus parseStatus(DocumentSnapshot document) {
+        String status = document.getString("status");
+        return status != null ? EntrantRegistrationStatus.valueOf(status) : null;
+    }
+
     /**
      * Creates a query for registration count by status for an event.
      *
@@ -429,6 +484,18 @@ public class RegistrationRepository {
      * @return a Query object for the specified criteria
      */
     private Query queryRegistrationCountByStatus(String eventId, EntrantRegistrationStatus status) {
+        return getRegistrationsByStatusQuery(eventId, status);
+    }
+
+    /**
+     * Gets the query for the registrations of an event with a given status, for callers that
+     * read the registrations a page at a time instead of all at once.
+     *
+     * @param eventId the unique identifier of the event
+     * @param status the registration status to match
+     * @return the query
+     */
+    public Query getRegistrationsByStatusQuery(String eventId, EntrantRegistrationStatus status) {
         return db.collection(COLLECTION_REGISTRATIONS)
                 .whereEqualTo("eventId", eventId)
                 .whereEqualTo("status", status.name());
@@ -436,6 +503,7 @@ public class RegistrationRepository {
 
     /**
      * Gets count of registrations by status for an event.
+     * The count is computed by a server-side aggregation, so no registration documents are downloaded.
      *
      * @param eventId the unique identifier of the event
      * @param status the registration status to count
@@ -443,28 +511,74 @@ public class RegistrationRepository {
      */
     public void getRegistrationCountByStatus(String eventId, EntrantRegistrationStatus status, CountCallback callback) {
         queryRegistrationCountByStatus(eventId, status)
-                .get()
-                .addOnSuccessListener(querySnapshot -> callback.onSuccess(querySnapshot.size()))
+                .count()
+                .get(AggregateSource.SERVER)
+                .addOnSuccessListener(snapshot -> callback.onSuccess((int) snapshot.getCount()))
+                .addOnFailureListener(callback::onFailure);
+    }
+
+    /**
+     * Gets the number of registrations in every status for an event.
+     * All statuses are counted in parallel with server-side count aggregations, so no
+     * registration documents are downloaded. Results are cached per event for a short time
+     * so repeated lookups, such as validating input on every keystroke, are served locally.
+     *
+     * @param eventId the unique identifier of the event
+     * @param callback the callback to handle the histogram
+     */
+    public void getStatusHistogram(String eventId, HistogramCallback callback) {
+        CachedHistogram cached;
+        synchronized (histogramCache) {
+            cached = histogramCache.get(eventId);
+        }
+        if (cached != null && System.currentTimeMillis() - cached.fetchedAt < HISTOGRAM_TTL_MS) {
+            callback.onSuccess(new EnumMap<>(cached.counts));
+            return;
+        }
+
+        EntrantRegistrationStatus[] statuses = EntrantRegistrationStatus.values();
+        List<Task<AggregateQuerySnapshot>> tasks = new ArrayList<>();
+        for (EntrantRegistrationStatus status : statuses) {
+            tasks.add(queryRegistrationCountByStatus(eventId, status).count().get(AggregateSource.SERVER));
+        }
+
+        Tasks.whenAllSuccess(tasks)
+                .addOnSuccessListener(results -> {
+                    EnumMap<EntrantRegistrationStatus, Integer> counts = new EnumMap<>(EntrantRegistrationStatus.class);
+                    for (int i = 0; i < statuses.length; i++) {
+                        counts.put(statuses[i], (int) ((AggregateQuerySnapshot) results.get(i)).getCount());
+                    }
+                    synchronized (histogramCache) {
+                        histogramCache.put(eventId, new CachedHistogram(counts, System.currentTimeMillis()));
+                    }
+                    callback.onSuccess(new EnumMap<>(counts));
+                })
                 .addOnFailureListener(callback::onFailure);
     }
 
+    /**
+     * Drops the cached status histogram of an event so the next lookup hits the server.
+     *
+     * @param eventId the unique identifier of the event
+     */
+    public void invalidateStatusHistogram(String eventId) {
+        synchronized (histogramCache) {
+            histogramCache.remove(eventId);
+        }
+    }
+
     /**
      * Sets up a real-time listener for registration count by status.
+     * The listener watches the event's distributed counter shards rather than the
+     * registration documents themselves.
      *
      * @param eventId the unique identifier of the event
      * @param status the registration status to monitor
      * @param callback the callback to handle count updates
+     * @return the listener registration, to be removed when the count is no longer needed
      */
-    public void watchRegistrationCountByStatus(String eventId, EntrantRegistrationStatus status, CountCallback callback) {
-        queryRegistrationCountByStatus(eventId, status)
-                .addSnapshotListener((querySnapshot, error) -> {
-                    if (querySnapshot != null) {
-                        callback.onSuccess(querySnapshot.size());
-                    }
-                    if (error != null) {
-                        callback.onFailure(error);
-                    }
-                });
+    public ListenerRegistration watchRegistrationCountByStatus(String eventId, EntrantRegistrationStatus status, CountCallback callback) {
+        return RegistrationCounter.getInstance().watchCount(eventId, status, callback);
     }
 
     /**
@@ -557,8 +671,15 @@ public class RegistrationRepository {
                     newRegistration.setStatus(EntrantRegistrationStatus.WAITING);
                     newRegistration.setRegisteredAt(new Date());
 
-                    docRef.set(newRegistration)
-                            .addOnSuccessListener(aVoid -> callback.onSuccess(newRegistration))
+                    WriteBatch batch = db.batch();
+                    batch.set(docRef, newRegistration);
+                    RegistrationCounter.getInstance().addDeltas(batch, eventId,
+                            RegistrationCounter.transition(null, EntrantRegistrationStatus.WAITING, 1));
+                    batch.commit()
+                            .addOnSuccessListener(aVoid -> {
+                                invalidateStatusHistogram(eventId);
+                                callback.onSuccess(newRegistration);
+                            })
                             .addOnFailureListener(callback::onFailure);
                 }
             }
@@ -607,8 +728,15 @@ public class RegistrationRepository {
                         newRegistration.setLocationAddress(coordinateString);
                     }
 
-                    docRef.set(newRegistration)
-                            .addOnSuccessListener(aVoid -> callback.onSuccess(newRegistration))
+                    WriteBatch batch = db.batch();
+                    batch.set(docRef, newRegistration);
+                    RegistrationCounter.getInstance().addDeltas(batch, eventId,
+                            RegistrationCounter.transition(null, EntrantRegistrationStatus.WAITING, 1));
+                    batch.commit()
+                            .addOnSuccessListener(aVoid -> {
+                                invalidateStatusHistogram(eventId);
+                                callback.onSuccess(newRegistration);
+                            })
                             .addOnFailureListener(callback::onFailure);
                 }
             }
@@ -636,10 +764,9 @@ public class RegistrationRepository {
                             .addOnSuccessListener(querySnapshot -> {
                                 if (!querySnapshot.isEmpty()) {
                                     DocumentSnapshot doc = querySnapshot.getDocuments().get(0);
-                                    db.collection(COLLECTION_REGISTRATIONS)
-                                            .document(doc.getId())
-                                            .delete()
+                                    deleteRegistrationWithCounters(doc.getId())
                                             .addOnSuccessListener(v -> {
+                                                invalidateStatusHistogram(eventId);
                                                 callback.onSuccess(null);
                                             })
                                             .addOnFailureListener(callback::onFailure);
@@ -662,23 +789,42 @@ public class RegistrationRepository {
         });
 
     }
+    /**
+     * Confirms a selected entrant's spot in the event.
+     * The status change and the counter update run in one transaction.
+     *
+     * @param registrationId the unique identifier of the registration to confirm
+     * @param callback the callback to handle the updated registration
+     */
     public void acceptInvitation(String registrationId, RegistrationCallback callback) {
         if (registrationId == null || registrationId.isEmpty()) {
             callback.onFailure(new IllegalArgumentException("Invalid registrationId"));
             return;
         }
 
-        DocumentReference regRef = db.collection("registrations").document(registrationId);
+        DocumentReference regRef = db.collection(COLLECTION_REGISTRATIONS).document(registrationId);
 
-        regRef.update(
-                "status", "CONFIRMED",
-                "respondedAt", new Date()
-        ).addOnSuccessListener(unused ->
-                regRef.get().addOnSuccessListener(doc -> {
-                    Registration updated = doc.toObject(Registration.class);
+        db.runTransaction(transaction -> {
+                    DocumentSnapshot current = transaction.get(regRef);
+                    Registration updated = documentToRegistration(current);
+                    if (updated == null) {
+                        throw new FirebaseFirestoreException("Registration not found", FirebaseFirestoreException.Code.NOT_FOUND);
+                    }
+                    Date respondedAt = new Date();
+                    transaction.update(regRef,
+                            "status", EntrantRegistrationStatus.CONFIRMED.name(),
+                            "respondedAt", respondedAt);
+                    RegistrationCounter.getInstance().addDeltas(transaction, updated.getEventId(),
+                            RegistrationCounter.transition(updated.getStatus(), EntrantRegistrationStatus.CONFIRMED, 1));
+                    updated.setStatus(EntrantRegistrationStatus.CONFIRMED);
+                    updated.setRespondedAt(respondedAt);
+                    return updated;
+                })
+                .addOnSuccessListener(updated -> {
+                    invalidateStatusHistogram(updated.getEventId());
                     callback.onSuccess(updated);
                 })
-        ).addOnFailureListener(callback::onFailure);
+                .addOnFailureListener(callback::onFailure);
     }
 
 }
\ No newline at end of file
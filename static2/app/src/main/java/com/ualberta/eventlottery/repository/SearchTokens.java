@@ -0,0 +1,132 @@
+package com.ualberta.eventlottery.repository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the prefix tokens that make user names and event titles searchable in Firestore.
+ *
+ * <p>Every word of a name is normalized (lowercase, accents removed) and stored with all its
+ * prefixes in {@link #FIELD}, e.g. "Swim Club" becomes {@code s, sw, swi, swim, c, cl, clu,
+ * club}. A search then runs as a single {@code whereArrayContains} query on the token of the
+ * typed word, which Firestore serves from its automatic single-field index.</p>
+ *
+ * <p>Writers of {@code users.name} and {@code events.title} store the tokens alongside the
+ * name. Documents written before the field existed are filled in by the
+ * {@code backfillSearchTokens} Cloud Function, which must tokenize the same way.</p>
+ *
+ * @author static2
+ * @version 1.0
+ */
+public final class SearchTokens {
+    /**
+     * Array field holding the prefix tokens of a user's name or an event's title.
+     */
+    public static final String FIELD = "searchTokens";
+
+    /**
+     * Longest prefix stored per word. Longer query words are truncated to this length.
+     */
+    public static final int MAX_PREFIX_LENGTH = 15;
+
+    /**
+     * Number of words of a name that are indexed.
+     */
+    public static final int MAX_WORDS = 10;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTokens() {
+    }
+
+    /**
+     * Splits text into normalized words: lowercase, without accents, and split on anything
+     * that is not a letter or digit.
+     *
+     * @param text the text to split, may be null
+     * @return the words, in order; empty if there are none
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String normalized = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        normalized = MARKS.matcher(normalized).replaceAll("");
+        for (String word : SEPARATORS.split(normalized)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Builds the tokens to store for a name.
+     *
+     * @param text the name or title, may be null
+     * @return every prefix of every word, without duplicates
+     */
+    public static List<String> tokensFor(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        List<String> words = words(text);
+        for (int w = 0; w < words.size() && w < MAX_WORDS; w++) {
+            String word = words.get(w);
+            int length = Math.min(word.length(), MAX_PREFIX_LENGTH);
+            for (int i = 1; i <= length; i++) {
+                tokens.add(word.substring(0, i));
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * Picks the token to query for a search. The longest typed word is used because it
+     * matches the fewest documents; the other words are checked against the loaded results.
+     *
+     * @param query the text typed by the user, may be null
+     * @return the token to pass to {@code whereArrayContains}, or null if the query has no words
+     */
+    public static String queryToken(String query) {
+        String longest = null;
+        for (String word : words(query)) {
+            if (longest == null || word.length() > longest.length()) {
+                longest = word;
+            }
+        }
+        if (longest == null) {
+            return null;
+        }
+        return longest.length() > MAX_PREFIX_LENGTH ? longest.substring(0, MAX_PREFIX_LENGTH) : longest;
+    }
+
+    /**
+     * Checks whether every word of a query is a prefix of some word of a name.
+     *
+     * @param name the name or title, may be null
+     * @param query the text typed by the user
+     * @return true if the name matches the query
+     */
+    public static boolean matches(String name, String query) {
+        List<String> nameWords = words(name);
+        for (String queryWord : words(query)) {
+            boolean found = false;
+            for (String nameWord : nameWords) {
+                if (nameWord.startsWith(queryWord)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
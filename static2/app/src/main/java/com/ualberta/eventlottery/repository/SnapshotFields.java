@@ -0,0 +1,54 @@
+package com.ualberta.eventlottery.repository;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.Date;
+
+/**
+ * {@link DocumentFields} backed by a Firestore {@link DocumentSnapshot}.
+ *
+ * @author static2
+ * @version 1.0
+ */
+public class SnapshotFields implements DocumentFields {
+    private final DocumentSnapshot document;
+
+    /**
+     * Wraps a snapshot.
+     *
+     * @param document the snapshot to read fields from
+     */
+    public SnapshotFields(DocumentSnapshot document) {
+        this.document = document;
+    }
+
+    @Override
+    public String getId() {
+        return document.getId();
+    }
+
+    @Override
+    public String getString(String field) {
+        return document.getString(field);
+    }
+
+    @Override
+    public Long getLong(String field) {
+        return document.getLong(field);
+    }
+
+    @Override
+    public Double getDouble(String field) {
+        return document.getDouble(field);
+    }
+
+    @Override
+    public Boolean getBoolean(String field) {
+        return document.getBoolean(field);
+    }
+
+    @Override
+    public Date getDate(String field) {
+        return document.getDate(field);
+    }
+}
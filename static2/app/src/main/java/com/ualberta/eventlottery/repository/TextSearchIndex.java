@@ -0,0 +1,260 @@
+package com.ualberta.eventlottery.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index that filters loaded items by the text typed into a search box.
+ *
+ * <p>Every item is indexed under the normalized words of its texts, split as by
+ * {@link SearchTokens#words}. The vocabulary is kept sorted, so the items with a word that
+ * starts with a query word are found by a range scan over the vocabulary rather than a scan
+ * over every item. An item matches when every query word is a prefix of one of its words, the
+ * same rule as {@link SearchTokens#matches}. The query words are looked up from the most to
+ * the least selective and their items intersected as bitmaps; a word with far more postings
+ * than there are candidates left is checked against the words of each candidate instead, so
+ * a multi-word query costs little more than its most selective words.</p>
+ *
+ * <p>Items are indexed in the order they are added, which is also the order of the results.
+ * Not thread safe; use it from one thread.</p>
+ *
+ * @param <T> the type of the indexed items
+ * @author static2
+ * @version 1.0
+ */
+public class TextSearchIndex<T> {
+    /**
+     * Postings per remaining candidate up to which a query word is intersected through the
+     * index rather than checked against the words of every candidate.
+     */
+    private static final int INTERSECT_RATIO = 8;
+
+    private final List<T> items = new ArrayList<>();
+    private final List<String[]> itemWords = new ArrayList<>();
+    private final Map<T, Integer> positions = new IdentityHashMap<>();
+    private final TreeMap<String, Postings> vocabulary = new TreeMap<>();
+
+    /**
+     * Adds an item after the items already indexed.
+     *
+     * @param item the item to add
+     * @param texts the texts the item can be found by; null texts are skipped
+     */
+    public void add(T item, String... texts) {
+        int position = items.size();
+        items.add(item);
+        positions.put(item, position);
+        String[] words = wordsOf(texts);
+        for (int i = 0; i < words.length; i++) {
+            Postings postings = vocabulary.computeIfAbsent(words[i], Postings::new);
+            postings.add(position);
+            // Share the vocabulary's copy of the word between all items that contain it
+            words[i] = postings.word;
+        }
+        itemWords.add(words);
+    }
+
+    /**
+     * Re-indexes an item whose texts have changed, keeping its position.
+     *
+     * @param item the item, as passed to {@link #add}
+     * @param texts the new texts of the item
+     * @return false if the item is not in the index
+     */
+    public boolean update(T item, String... texts) {
+        Integer position = positions.get(item);
+        if (position == null) {
+            return false;
+        }
+        Set<String> oldWords = new LinkedHashSet<>(Arrays.asList(itemWords.get(position)));
+        String[] words = wordsOf(texts);
+        for (int i = 0; i < words.length; i++) {
+            if (oldWords.remove(words[i])) {
+                words[i] = vocabulary.get(words[i]).word;
+                continue;
+            }
+            Postings postings = vocabulary.computeIfAbsent(words[i], Postings::new);
+            postings.insert(position);
+            words[i] = postings.word;
+        }
+        for (String removed : oldWords) {
+            Postings postings = vocabulary.get(removed);
+            postings.remove(position);
+            if (postings.size == 0) {
+                vocabulary.remove(removed);
+            }
+        }
+        itemWords.set(position, words);
+        return true;
+    }
+
+    /**
+     * Removes every item.
+     */
+    public void clear() {
+        items.clear();
+        itemWords.clear();
+        positions.clear();
+        vocabulary.clear();
+    }
+
+    /**
+     * @return the number of indexed items
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Finds the items that match a query.
+     *
+     * @param query the text typed by the user, may be null
+     * @return the matching items in the order they were added; every item if the query has no words
+     */
+    public List<T> search(String query) {
+        List<String> queryWords = new ArrayList<>(new LinkedHashSet<>(SearchTokens.words(query)));
+        if (queryWords.isEmpty()) {
+            return new ArrayList<>(items);
+        }
+
+        Map<String, Long> postingCounts = new HashMap<>();
+        for (String queryWord : queryWords) {
+            long count = 0;
+            for (Postings postings : wordsStartingWith(queryWord).values()) {
+                count += postings.size;
+            }
+            if (count == 0) {
+                return new ArrayList<>();
+            }
+            postingCounts.put(queryWord, count);
+        }
+        Collections.sort(queryWords, (a, b) -> Long.compare(postingCounts.get(a), postingCounts.get(b)));
+
+        // Look up the most selective words in the index and intersect their items. Words with
+        // many more postings than there are candidates left are cheaper to check per candidate.
+        long[] candidates = itemsWithPrefix(queryWords.get(0));
+        long candidateCount = cardinality(candidates);
+        List<String> uncheckedWords = new ArrayList<>();
+        for (int i = 1; i < queryWords.size(); i++) {
+            String queryWord = queryWords.get(i);
+            if (postingCounts.get(queryWord) <= candidateCount * INTERSECT_RATIO) {
+                long[] matches = itemsWithPrefix(queryWord);
+                for (int block = 0; block < candidates.length; block++) {
+                    candidates[block] &= matches[block];
+                }
+                candidateCount = cardinality(candidates);
+            } else {
+                uncheckedWords.add(queryWord);
+            }
+        }
+
+        List<T> results = new ArrayList<>((int) candidateCount);
+        for (int block = 0; block < candidates.length; block++) {
+            long bits = candidates[block];
+            while (bits != 0) {
+                addIfMatches(results, (block << 6) + Long.numberOfTrailingZeros(bits), uncheckedWords);
+                bits &= bits - 1;
+            }
+        }
+        return results;
+    }
+
+    private NavigableMap<String, Postings> wordsStartingWith(String prefix) {
+        return vocabulary.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    /**
+     * Builds a bitmap of the positions of the items with a word starting with a prefix.
+     */
+    private long[] itemsWithPrefix(String prefix) {
+        long[] bitmap = new long[(items.size() + 63) >>> 6];
+        for (Postings postings : wordsStartingWith(prefix).values()) {
+            for (int i = 0; i < postings.size; i++) {
+                int position = postings.positions[i];
+                bitmap[position >>> 6] |= 1L << position;
+            }
+        }
+        return bitmap;
+    }
+
+    private static long cardinality(long[] bitmap) {
+        long count = 0;
+        for (long bits : bitmap) {
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+
+    private void addIfMatches(List<T> results, int position, List<String> queryWords) {
+        String[] words = itemWords.get(position);
+        for (String queryWord : queryWords) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(queryWord)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return;
+            }
+        }
+        results.add(items.get(position));
+    }
+
+    private static String[] wordsOf(String... texts) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String text : texts) {
+            words.addAll(SearchTokens.words(text));
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * The positions of the items containing a word, in ascending order.
+     */
+    private static final class Postings {
+        final String word;
+        int[] positions = new int[2];
+        int size;
+
+        Postings(String word) {
+            this.word = word;
+        }
+
+        void add(int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        void insert(int position) {
+            int index = Arrays.binarySearch(positions, 0, size, position);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            add(position);
+            System.arraycopy(positions, index, positions, index + 1, size - 1 - index);
+            positions[index] = position;
+        }
+
+        void remove(int position) {
+            int index = Arrays.binarySearch(positions, 0, size, position);
+            if (index >= 0) {
+                System.arraycopy(positions, index + 1, positions, index, size - 1 - index);
+                size--;
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.ualberta.eventlottery.repository;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up the notification contact details of users: their FCM token and whether
+ * they accept notifications. Lookups are batched into {@code whereIn} queries of
+ * {@value #MAX_WHERE_IN_SIZE} users, so notifying a cohort of entrants costs one read
+ * per 30 users instead of one per user, and results are kept in a bounded LRU so
+ * repeated notifications to the same cohort are served from memory.
+ *
+ * <p>Writers of {@code fcmToken} or {@code notificationsEnabled} stamp
+ * {@link #FIELD_CONTACT_UPDATED_AT} with a server timestamp. A single snapshot listener
+ * on that field refreshes cached entries as soon as a user's contact details change.
+ * Entries also expire after {@value #CACHE_TTL_MS} ms in case that listener fails.</p>
+ *
+ * @author static2
+ * @version 1.0
+ */
+public class UserDirectory {
+    private static final String TAG = "UserDirectory";
+    private static UserDirectory instance;
+    private final FirebaseFirestore db;
+    private static final String COLLECTION_USERS = "users";
+
+    /**
+     * Field stamped with a server timestamp whenever a user's contact details change.
+     */
+    public static final String FIELD_CONTACT_UPDATED_AT = "contactUpdatedAt";
+
+    private static final int MAX_WHERE_IN_SIZE = 30;
+    private static final int CACHE_SIZE = 5000;
+    private static final long CACHE_TTL_MS = 10 * 60 * 1000;
+    private static final long CLOCK_SKEW_MS = 60 * 1000;
+
+    private final LinkedHashMap<String, Contact> contacts = new LinkedHashMap<String, Contact>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Contact> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private ListenerRegistration changeListener;
+
+    /**
+     * The notification contact details of a single user.
+     */
+    public static class Contact {
+        private final String userId;
+        private final String fcmToken;
+        private final boolean notificationsEnabled;
+        private final long loadedAt;
+
+        Contact(String userId, String fcmToken, boolean notificationsEnabled, long loadedAt) {
+            this.userId = userId;
+            this.fcmToken = fcmToken;
+            this.notificationsEnabled = notificationsEnabled;
+            this.loadedAt = loadedAt;
+        }
+
+        /**
+         * @return the ID of the user
+         */
+        public String getUserId() {
+            return userId;
+        }
+
+        /**
+         * @return the user's FCM registration token, or null if none is stored
+         */
+        public String getFcmToken() {
+            return fcmToken;
+        }
+
+        /**
+         * @return true if the user accepts notifications
+         */
+        public boolean isNotificationsEnabled() {
+            return notificationsEnabled;
+        }
+
+        /**
+         * Checks whether a push notification can be delivered to this user.
+         *
+         * @return true if notifications are enabled and a token is stored
+         */
+        public boolean isReachable() {
+            return notificationsEnabled && fcmToken != null && !fcmToken.isEmpty();
+        }
+    }
+
+    /**
+     * Private constructor for Singleton pattern.
+     * Initializes Firebase Firestore instance.
+     */
+    private UserDirectory() {
+        db = FirebaseFirestore.getInstance();
+    }
+
+    /**
+     * Gets the singleton instance of UserDirectory.
+     *
+     * @return the singleton UserDirectory instance
+     */
+    public static synchronized UserDirectory getInstance() {
+        if (instance == null) {
+            instance = new UserDirectory();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the contact details of several users. Duplicate IDs are looked up once and
+     * users that do not exist are left out of the result.
+     *
+     * @param userIds the IDs of the users
+     * @return a task resolving to the contact details keyed by user ID, in the order of {@code userIds}
+     */
+    public Task<Map<String, Contact>> getContacts(Collection<String> userIds) {
+        attachChangeListener();
+
+        LinkedHashSet<String> uniqueIds = new LinkedHashSet<>(userIds);
+        Map<String, Contact> found = new HashMap<>();
+        List<String> missingIds = new ArrayList<>();
+        synchronized (contacts) {
+            long now = SystemClock.elapsedRealtime();
+            for (String userId : uniqueIds) {
+                Contact contact = contacts.get(userId);
+                if (contact != null && now - contact.loadedAt <= CACHE_TTL_MS) {
+                    found.put(userId, contact);
+                } else {
+                    missingIds.add(userId);
+                }
+            }
+        }
+
+        List<Task<QuerySnapshot>> tasks = new ArrayList<>();
+        for (int start = 0; start < missingIds.size(); start += MAX_WHERE_IN_SIZE) {
+            List<String> chunk = missingIds.subList(start, Math.min(start + MAX_WHERE_IN_SIZE, missingIds.size()));
+            tasks.add(db.collection(COLLECTION_USERS)
+                    .whereIn(FieldPath.documentId(), new ArrayList<>(chunk))
+                    .get());
+        }
+
+        return Tasks.whenAllSuccess(tasks).continueWith(task -> {
+            for (Object result : task.getResult()) {
+                for (DocumentSnapshot document : ((QuerySnapshot) result).getDocuments()) {
+                    found.put(document.getId(), cache(document));
+                }
+            }
+
+            Map<String, Contact> ordered = new LinkedHashMap<>();
+            for (String userId : uniqueIds) {
+                Contact contact = found.get(userId);
+                if (contact != null) {
+                    ordered.put(userId, contact);
+                }
+            }
+            return ordered;
+        });
+    }
+
+    /**
+     * Removes a user from the cache, for example after the user was deleted.
+     *
+     * @param userId the unique identifier of the user
+     */
+    public void invalidate(String userId) {
+        synchronized (contacts) {
+            contacts.remove(userId);
+        }
+    }
+
+    /**
+     * Stores the contact details read from a user document.
+     *
+     * @param document the user document
+     * @return the cached contact details
+     */
+    private Contact cache(DocumentSnapshot document) {
+        Contact contact = new Contact(
+                document.getId(),
+                document.getString("fcmToken"),
+                Boolean.TRUE.equals(document.getBoolean("notificationsEnabled")),
+                SystemClock.elapsedRealtime());
+        synchronized (contacts) {
+            contacts.put(contact.userId, contact);
+        }
+        return contact;
+    }
+
+    /**
+     * Starts listening for contact detail changes if not already listening.
+     * Changes to users that are cached are applied in place; other users are ignored.
+     */
+    private synchronized void attachChangeListener() {
+        if (changeListener != null) {
+            return;
+        }
+        Timestamp since = new Timestamp(new Date(System.currentTimeMillis() - CLOCK_SKEW_MS));
+        changeListener = db.collection(COLLECTION_USERS)
+                .whereGreaterThan(FIELD_CONTACT_UPDATED_AT, since)
+                .addSnapshotListener((querySnapshot, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Contact change listener failed, clearing cache", error);
+                        synchronized (contacts) {
+                            contacts.clear();
+                        }
+                        synchronized (this) {
+                            changeListener = null;
+                        }
+                        return;
+                    }
+                    if (querySnapshot == null) {
+                        return;
+                    }
+                    for (DocumentChange change : querySnapshot.getDocumentChanges()) {
+                        DocumentSnapshot document = change.getDocument();
+                        boolean cached;
+                        synchronized (contacts) {
+                            cached = contacts.containsKey(document.getId());
+                        }
+                        if (cached && change.getType() != DocumentChange.Type.REMOVED) {
+                            cache(document);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Gets the number of users currently cached.
+     *
+     * @return the cache size
+     */
+    public int getCachedCount() {
+        synchronized (contacts) {
+            return contacts.size();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.ualberta.eventlottery.repository;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.ualberta.eventlottery.model.Registration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Live in-memory index of the current user's registrations, keyed by event ID.
+ * A single {@code whereEqualTo("entrantId", userId)} snapshot listener keeps the index
+ * up to date, so screens that show a Register/Withdraw state for many events can read
+ * it from memory instead of issuing one query per event.
+ *
+ * <p>The listener is attached while at least one {@link OnIndexChangedListener} is
+ * registered and removed when the last one is removed. All methods must be called on
+ * the main thread.</p>
+ *
+ * @author static2
+ * @version 1.0
+ */
+public class UserRegistrationIndex {
+    private static final String TAG = "UserRegistrationIndex";
+    private static UserRegistrationIndex instance;
+    private final FirebaseFirestore db;
+    private static final String COLLECTION_REGISTRATIONS = "registrations";
+
+    private final Map<String, Registration> registrationsByEvent = new HashMap<>();
+    private final List<OnIndexChangedListener> listeners = new ArrayList<>();
+    private ListenerRegistration registration;
+    private String userId;
+    private boolean loaded;
+
+    /**
+     * Listener notified whenever registrations in the index change.
+     */
+    public interface OnIndexChangedListener {
+        /**
+         * Called after the index has been updated from a snapshot.
+         *
+         * @param changedEventIds the IDs of events whose registration was added, modified or removed
+         */
+        void onIndexChanged(Set<String> changedEventIds);
+    }
+
+    /**
+     * Private constructor for Singleton pattern.
+     * Initializes Firebase Firestore instance.
+     */
+    private UserRegistrationIndex() {
+        db = FirebaseFirestore.getInstance();
+    }
+
+    /**
+     * Gets the singleton instance of UserRegistrationIndex.
+     *
+     * @return the singleton UserRegistrationIndex instance
+     */
+    public static synchronized UserRegistrationIndex getInstance() {
+        if (instance == null) {
+            instance = new UserRegistrationIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Registers a listener and starts watching the given user's registrations.
+     * If a different user was being watched, the index is cleared and rebuilt. If no user is
+     * signed in, the index is cleared and stays empty until a user is given.
+     *
+     * @param userId the unique identifier of the user, or null if no user is signed in
+     * @param listener the listener to notify on changes
+     */
+    public void addListener(String userId, OnIndexChangedListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        if (userId == null) {
+            detach();
+            return;
+        }
+        if (registration != null && userId.equals(this.userId)) {
+            return;
+        }
+
+        detach();
+        this.userId = userId;
+        registration = db.collection(COLLECTION_REGISTRATIONS)
+                .whereEqualTo("entrantId", userId)
+                .addSnapshotListener((querySnapshot, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "Failed to watch registrations of user " + userId, error);
+                        return;
+                    }
+                    if (querySnapshot == null) {
+                        return;
+                    }
+
+                    RegistrationRepository repository = RegistrationRepository.getInstance();
+                    Set<String> changedEventIds = new HashSet<>();
+                    for (DocumentChange change : querySnapshot.getDocumentChanges()) {
+                        String eventId = change.getDocument().getString("eventId");
+                        if (eventId == null) {
+                            continue;
+                        }
+                        if (change.getType() == DocumentChange.Type.REMOVED) {
+                            registrationsByEvent.remove(eventId);
+                        } else {
+                            registrationsByEvent.put(eventId, repository.documentToRegistration(change.getDocument()));
+                        }
+                        changedEventIds.add(eventId);
+                    }
+                    loaded = true;
+
+                    for (OnIndexChangedListener l : new ArrayList<>(listeners)) {
+                        l.onIndexChanged(changedEventIds);
+                    }
+                });
+    }
+
+    /**
+     * Unregisters a listener. The snapshot listener is removed once no listeners remain.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(OnIndexChangedListener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty()) {
+            detach();
+        }
+    }
+
+    /**
+     * Removes the snapshot listener and clears the index.
+     */
+    private void detach() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        registrationsByEvent.clear();
+        userId = null;
+        loaded = false;
+    }
+
+    /**
+     * Checks whether the first snapshot has been received.
+     *
+     * @return true if lookups reflect the user's registrations
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Gets the user's registration for an event.
+     *
+     * @param eventId the unique identifier of the event
+     * @return the registration, or null if the user is not registered
+     */
+    public Registration getRegistration(String eventId) {
+        return registrationsByEvent.get(eventId);
+    }
+}
@@ -24,12 +24,15 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.ualberta.eventlottery.MainActivity;
 import com.ualberta.eventlottery.admin.AdminMainActivity;
 import com.ualberta.eventlottery.model.Event;
 import com.ualberta.eventlottery.model.User;
+import com.ualberta.eventlottery.repository.CascadeDeleteService;
+import com.ualberta.eventlottery.repository.PagedQuerySource;
+import com.ualberta.eventlottery.repository.SearchTokens;
 import com.ualberta.eventlottery.ui.adminUsers.UserAdapter;
 import com.ualberta.eventlottery.ui.home.entrant.EventAdapter;
 import com.ualberta.eventlottery.ui.home.entrant.HomeFragment;
@@ -62,11 +65,14 @@ public class AdminEventFragment extends Fragment implements EventAdapter.OnEvent
 
     private CollectionReference eventsRef;
 
+    private PagedQuerySource<Event> eventSource;
+
+    private PagedQuerySource<Event> searchSource;
+
     private View.OnClickListener onClickListener;
 
     private EventAdapter.OnEventListener onItemClickListener;
 
-    private String name;
     private boolean deletion;
 
 
@@ -94,27 +100,35 @@ public class AdminEventFragment extends Fragment implements EventAdapter.OnEvent
         recyclerView.setAdapter(eventArrayAdapter);
 
 
-        eventsRef.addSnapshotListener((value, error) -> {
-            if (error != null) {
-                Log.e("Firestore", error.toString());
+        // Load events a page at a time, ordered by ID so every event is included
+        // Fetch the next page when the list is scrolled near its end
+        eventSource = new PagedQuerySource<>(eventsRef.orderBy(FieldPath.documentId()), this::toEvent);
+        eventSource.setListener(new PagedQuerySource.PageListener<Event>() {
+            @Override
+            public void onPageLoaded(List<Event> items, List<Event> page, boolean endReached) {
+                eventArrayList.addAll(page);
+                eventArrayAdapter.notifyItemRangeInserted(eventArrayList.size() - page.size(), page.size());
             }
-            if (value != null && !value.isEmpty()) {
-                eventArrayList.clear();
-                for (QueryDocumentSnapshot snapshot : value) {
-                    String id = snapshot.getId();
-                    String organizerId = snapshot.getString("organizerId");
-                    String title = snapshot.getString("title");
-                    String description = snapshot.getString("description");
-
-                    eventArrayList.add(new Event(id, organizerId, title, description));
-                }
 
-                // dummy data
-                // dummy data
-
-                eventArrayAdapter.notifyDataSetChanged();;
+            @Override
+            public void onFailure(Exception e) {
+                Log.e("Firestore", e.toString());
             }
         });
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) view.getLayoutManager();
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (view.getAdapter() == eventArrayAdapter) {
+                    eventSource.onPositionVisible(lastVisible, eventArrayList.size());
+                } else if (searchSource != null) {
+                    searchSource.onPositionVisible(lastVisible, filtered.size());
+                }
+            }
+        });
+        eventSource.loadNextPage();
+
         binding.viewButtonEvents.setOnClickListener(v -> {
             deletion = false;
             binding.viewButtonEvents.setTextColor(getResources().getColorStateList(R.color.black, null));
@@ -150,23 +164,76 @@ public class AdminEventFragment extends Fragment implements EventAdapter.OnEvent
              */
             @Override
             public void afterTextChanged(Editable editable) {
-                String searchText = editable.toString().toLowerCase();
-                filtered = new ArrayList<>();
-                filteredEventAdapter = new EventAdapter(filtered, AdminEventFragment.this::onEventClick);
+                searchEvents(editable.toString());
+            }
+        });
+
 
-                for (Event event : eventArrayList) {
-                    if (event.getTitle().toLowerCase().contains(searchText.toLowerCase())){
+        return root;
+    }
+
+    /**
+     * Converts an event document into the summary shown in the list.
+     *
+     * @param snapshot The event document.
+     * @return The event.
+     */
+    private Event toEvent(DocumentSnapshot snapshot) {
+        String id = snapshot.getId();
+        String organizerId = snapshot.getString("organizerId");
+        String title = snapshot.getString("title");
+        String description = snapshot.getString("description");
+
+        return new Event(id, organizerId, title, description);
+    }
+
+    /**
+     * Shows the events whose title matches the search text. The events are queried from the
+     * search tokens of their titles, a page at a time, instead of being filtered from the
+     * events loaded so far.
+     *
+     * @param searchText The text typed by the admin.
+     */
+    private void searchEvents(String searchText) {
+        if (searchSource != null) {
+            searchSource.setListener(null);
+            searchSource = null;
+        }
+        String token = SearchTokens.queryToken(searchText);
+        if (token == null) {
+            recyclerView.setAdapter(eventArrayAdapter);
+            return;
+        }
+
+        filtered = new ArrayList<>();
+        filteredEventAdapter = new EventAdapter(filtered, AdminEventFragment.this::onEventClick);
+        recyclerView.setAdapter(filteredEventAdapter);
+
+        // Only events with a title word starting with the longest typed word are read
+        searchSource = new PagedQuerySource<>(eventsRef.whereArrayContains(SearchTokens.FIELD, token)
+                .orderBy(FieldPath.documentId()), this::toEvent);
+        searchSource.setListener(new PagedQuerySource.PageListener<Event>() {
+            @Override
+            public void onPageLoaded(List<Event> items, List<Event> page, boolean endReached) {
+                int start = filtered.size();
+                for (Event event : page) {
+                    if (SearchTokens.matches(event.getTitle(), searchText)) {
                         filtered.add(event);
                     }
                 }
-                recyclerView.setAdapter(filteredEventAdapter);
-                eventArrayAdapter.notifyDataSetChanged();
+                filteredEventAdapter.notifyItemRangeInserted(start, filtered.size() - start);
+                if (filtered.size() == start) {
+                    // Nothing on this page matched the other words, keep looking
+                    searchSource.loadNextPage();
+                }
+            }
 
+            @Override
+            public void onFailure(Exception e) {
+                Log.e("Firestore", e.toString());
             }
         });
-
-
-        return root;
+        searchSource.loadNextPage();
     }
 
     /**
@@ -182,24 +249,19 @@ public class AdminEventFragment extends Fragment implements EventAdapter.OnEvent
     public void onEventClick(Event event) {
         Toast.makeText(getContext(), "Event clicked: "+event.getTitle(), Toast.LENGTH_SHORT).show();
         if (deletion == true) {
-            new AlertDialog.Builder(requireContext())
-                    .setTitle("Delete Event")
-                    .setMessage("Are you sure you want to delete this event? This action cannot be undone." +
-                            "\nEvent ID: " + event.getId() + "" +
-                            "\nOrganizer ID: " + event.getOrganizerId() + "" +
-                            "\nOrganizer Name: " + getName(event.getOrganizerId()))
-
-                    .setPositiveButton("Delete", (dialog, which) -> {
-                        // User confirmed deletion
-                        deleteEvent(event.getId());
-
-                    })
-                    .setNegativeButton("Cancel", (dialog, which) -> {
-                        // User cancelled, dialog will dismiss automatically
-                        dialog.dismiss();
-                    })
-                    .setIcon(android.R.drawable.ic_dialog_alert) // Optional: adds an icon
-                    .show();
+            if (event.getOrganizerId() == null) {
+                showDeleteDialog(event, null);
+                return;
+            }
+            // Look up the organizer by ID before asking for confirmation
+            db.collection("users").document(event.getOrganizerId()).get()
+                    .addOnCompleteListener(task -> {
+                        if (!isAdded()) {
+                            return;
+                        }
+                        String organizerName = task.isSuccessful() ? task.getResult().getString("name") : null;
+                        showDeleteDialog(event, organizerName);
+                    });
         }
         else {
             OrganizerEventInfoFragment fragment = OrganizerEventInfoFragment.newInstance(event.getId());
@@ -211,41 +273,77 @@ public class AdminEventFragment extends Fragment implements EventAdapter.OnEvent
         }
     }
 
-    public void deleteEvent(String eventID) {
-        CollectionReference eventDocRef = db.collection("events");
+    /**
+     * Asks the admin to confirm deleting an event.
+     *
+     * @param event The event to delete.
+     * @param organizerName The name of the event's organizer, or null if it is unknown.
+     */
+    private void showDeleteDialog(Event event, String organizerName) {
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Delete Event")
+                .setMessage("Are you sure you want to delete this event? This action cannot be undone." +
+                        "\nEvent ID: " + event.getId() + "" +
+                        "\nOrganizer ID: " + event.getOrganizerId() + "" +
+                        "\nOrganizer Name: " + organizerName)
+
+                .setPositiveButton("Delete", (dialog, which) -> {
+                    // User confirmed deletion
+                    deleteEvent(event);
+
+                })
+                .setNegativeButton("Cancel", (dialog, which) -> {
+                    // User cancelled, dialog will dismiss automatically
+                    dialog.dismiss();
+                })
+                .setIcon(android.R.drawable.ic_dialog_alert) // Optional: adds an icon
+                .show();
+    }
 
-        eventDocRef.get().addOnSuccessListener(querySnapshot -> {
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                if (doc != null && doc.getId().trim().equals(eventID)) {
-                    String eventId = doc.getId();
-                    deleteOtherUserRegistrations(eventId);
-                    eventDocRef.document(doc.getId()).delete();
-                }
-            }
-        });
+    /**
+     * Removes a deleted event from the loaded pages and the list on screen.
+     *
+     * @param event The deleted event.
+     */
+    private void removeLoadedEvent(Event event) {
+        eventSource.remove(event);
+        int position = eventArrayList.indexOf(event);
+        if (position >= 0) {
+            eventArrayList.remove(position);
+            eventArrayAdapter.notifyItemRemoved(position);
+        }
+        if (searchSource != null) {
+            searchSource.remove(event);
+        }
+        if (filtered != null && filtered.remove(event)) {
+            filteredEventAdapter.notifyDataSetChanged();
+        }
     }
 
-    public String getName(String userId) {
-        CollectionReference eventDocRef = db.collection("users");
-        eventDocRef.get().addOnSuccessListener(querySnapshot -> {
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                if (doc != null && doc.getId().trim().equals(userId)) {
-                    name = doc.getString("name");
+    /**
+     * Deletes an event together with its registrations and counters, then removes it from
+     * the list.
+     *
+     * @param event The event to delete.
+     */
+    public void deleteEvent(Event event) {
+        CascadeDeleteService.getInstance().deleteEvent(event.getId(), new CascadeDeleteService.ProgressCallback() {
+            @Override
+            public void onProgress(int deletedCount) {
+                Log.d("AdminEventFragment", "Deleted " + deletedCount + " documents of event " + event.getId());
+            }
 
+            @Override
+            public void onSuccess(int deletedCount) {
+                if (isAdded()) {
+                    removeLoadedEvent(event);
                 }
             }
-        });
-        return name;
 
-    }
-
-    public void deleteOtherUserRegistrations(String eventId) {
-        CollectionReference registrationDocRef = db.collection("registrations");
-
-        registrationDocRef.get().addOnSuccessListener(querySnapshot -> {
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                if (doc != null && doc.getString("eventId") != null && doc.getString("eventId").trim().equals(eventId)) {
-                    registrationDocRef.document(doc.getId()).delete();
+            @Override
+            public void onFailure(Exception e) {
+                if (isAdded()) {
+                    Toast.makeText(getContext(), "Failed to delete event: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                 }
             }
         });
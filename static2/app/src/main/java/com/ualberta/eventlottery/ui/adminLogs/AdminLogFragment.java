@@ -2,6 +2,8 @@ package com.ualberta.eventlottery.ui.adminLogs;
 
 import android.app.AlertDialog;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.LayoutInflater;
@@ -13,6 +15,7 @@ import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.ualberta.eventlottery.model.NotificationLog;
 import com.ualberta.static2.databinding.FragmentAdminLogsBinding;
@@ -25,6 +28,13 @@ import java.util.Locale;
  * US 03.08.01: As an administrator, I want to review logs of all notifications sent to entrants by organizers.
  */
 public class AdminLogFragment extends Fragment implements NotificationLogsAdapter.OnLogClickListener {
+    /**
+     * Time the search box must stay unchanged before the logs are filtered.
+     */
+    private static final long SEARCH_DEBOUNCE_MS = 250;
+
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private Runnable pendingSearch;
     private FragmentAdminLogsBinding binding;
     private AdminLogViewModel viewModel;
     private NotificationLogsAdapter adapter;
@@ -58,6 +68,13 @@ public class AdminLogFragment extends Fragment implements NotificationLogsAdapte
         adapter = new NotificationLogsAdapter(this);
         binding.rvNotificationLogs.setLayoutManager(new LinearLayoutManager(requireContext()));
         binding.rvNotificationLogs.setAdapter(adapter);
+        binding.rvNotificationLogs.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                viewModel.onLogPositionVisible(layoutManager.findLastVisibleItemPosition(), adapter.getItemCount());
+            }
+        });
     }
 
     private void setupSearch() {
@@ -72,7 +89,13 @@ public class AdminLogFragment extends Fragment implements NotificationLogsAdapte
 
             @Override
             public void afterTextChanged(Editable s) {
-                viewModel.filterLogs(s.toString());
+                // Filter once typing pauses instead of on every keystroke
+                String query = s.toString();
+                if (pendingSearch != null) {
+                    searchHandler.removeCallbacks(pendingSearch);
+                }
+                pendingSearch = () -> viewModel.filterLogs(query);
+                searchHandler.postDelayed(pendingSearch, SEARCH_DEBOUNCE_MS);
             }
         });
     }
@@ -135,6 +158,8 @@ public class AdminLogFragment extends Fragment implements NotificationLogsAdapte
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        searchHandler.removeCallbacksAndMessages(null);
+        pendingSearch = null;
         binding = null;
     }
 }
@@ -6,13 +6,23 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.ualberta.eventlottery.model.Entrant;
 import com.ualberta.eventlottery.model.NotificationLog;
 import com.ualberta.eventlottery.notification.NotificationModel;
+import com.ualberta.eventlottery.repository.EntrantRepository;
+import com.ualberta.eventlottery.repository.EventRepository;
+import com.ualberta.eventlottery.repository.PagedQuerySource;
+import com.ualberta.eventlottery.repository.TextSearchIndex;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * ViewModel for admin notification logs screen.
@@ -24,10 +34,28 @@ public class AdminLogViewModel extends ViewModel {
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
     private final FirebaseFirestore db;
-    private List<NotificationLog> allLogs = new ArrayList<>();
+    private final PagedQuerySource<NotificationLog> logSource;
+    private final Map<String, String> organizerNames = new HashMap<>();
+    private final TextSearchIndex<NotificationLog> searchIndex = new TextSearchIndex<>();
+    private String currentQuery;
 
     public AdminLogViewModel() {
         db = FirebaseFirestore.getInstance();
+        logSource = new PagedQuerySource<>(db.collection("notifications")
+                .orderBy("createdAt", Query.Direction.DESCENDING), this::parseLog);
+        logSource.setListener(new PagedQuerySource.PageListener<NotificationLog>() {
+            @Override
+            public void onPageLoaded(List<NotificationLog> items, List<NotificationLog> page, boolean endReached) {
+                AdminLogViewModel.this.onPageLoaded(items, page);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Error loading notification logs", e);
+                errorMessage.setValue("Failed to load logs: " + e.getMessage());
+                isLoading.setValue(false);
+            }
+        });
         loadNotificationLogs();
     }
 
@@ -44,133 +72,139 @@ public class AdminLogViewModel extends ViewModel {
     }
 
     /**
-     * Loads all notification logs from Firestore.
+     * Loads the first page of notification logs from Firestore, newest first.
+     * Later pages are loaded as the list is scrolled, see {@link #onLogPositionVisible}.
      */
     public void loadNotificationLogs() {
         isLoading.setValue(true);
-
-        db.collection("notifications")
-                .orderBy("createdAt", com.google.firebase.firestore.Query.Direction.DESCENDING)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    List<NotificationLog> logList = new ArrayList<>();
-
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        try {
-                            NotificationModel notification = document.toObject(NotificationModel.class);
-                            NotificationLog log = new NotificationLog(notification);
-
-                            // Fetch additional details (event title and organizer name)
-                            enrichLogWithDetails(log, logList, queryDocumentSnapshots.size());
-
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error parsing notification: " + document.getId(), e);
-                        }
-                    }
-
-                    allLogs = logList;
-                    logs.setValue(logList);
-                    isLoading.setValue(false);
-                    Log.d(TAG, "Loaded " + logList.size() + " notification logs");
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error loading notification logs", e);
-                    errorMessage.setValue("Failed to load logs: " + e.getMessage());
-                    isLoading.setValue(false);
-                });
+        logSource.refresh();
     }
 
     /**
-     * Enriches a notification log with event and organizer details.
+     * Loads the next page of logs when the list is scrolled near its end.
+     *
+     * @param lastVisiblePosition the position of the last visible log
+     * @param itemCount the number of logs in the list
      */
-    private void enrichLogWithDetails(NotificationLog log, List<NotificationLog> logList, int totalCount) {
-        // Add log to list first
-        logList.add(log);
-
-        // Fetch event details if eventId exists
-        if (log.getEventId() != null && !log.getEventId().isEmpty()) {
-            db.collection("events")
-                    .document(log.getEventId())
-                    .get()
-                    .addOnSuccessListener(eventDoc -> {
-                        if (eventDoc.exists()) {
-                            log.setEventTitle(eventDoc.getString("title"));
-
-                            // Fetch organizer name
-                            String organizerId = eventDoc.getString("organizerId");
-                            if (organizerId != null) {
-                                fetchOrganizerName(log, organizerId);
-                            }
-                        }
+    public void onLogPositionVisible(int lastVisiblePosition, int itemCount) {
+        logSource.onPositionVisible(lastVisiblePosition, itemCount);
+    }
 
-                        // Update UI after enriching
-                        if (logList.size() == totalCount) {
-                            logs.setValue(new ArrayList<>(logList));
-                        }
-                    })
-                    .addOnFailureListener(e ->
-                        Log.e(TAG, "Error fetching event details", e));
+    private NotificationLog parseLog(DocumentSnapshot document) {
+        try {
+            NotificationModel notification = document.toObject(NotificationModel.class);
+            return new NotificationLog(notification);
+        } catch (Exception e) {
+            Log.e(TAG, "Error parsing notification: " + document.getId(), e);
+            return null;
+        }
+    }
+
+    private void onPageLoaded(List<NotificationLog> items, List<NotificationLog> page) {
+        if (searchIndex.size() + page.size() != items.size()) {
+            // The source was refreshed; index its items from scratch
+            searchIndex.clear();
+            for (NotificationLog log : items) {
+                indexLog(log);
+            }
+        } else {
+            for (NotificationLog log : page) {
+                indexLog(log);
+            }
+        }
+        filterLogs(currentQuery);
+        isLoading.setValue(false);
+        Log.d(TAG, "Loaded " + page.size() + " notification logs, " + items.size() + " in total");
+
+        List<NotificationLog> legacyLogs = new ArrayList<>();
+        for (NotificationLog log : page) {
+            if (log.getEventTitle() == null || log.getOrganizerName() == null) {
+                legacyLogs.add(log);
+            }
+        }
+        if (!legacyLogs.isEmpty()) {
+            joinLegacyDetails(legacyLogs);
         }
     }
 
     /**
-     * Fetches organizer name from users collection.
+     * Fills in the event title and organizer name of notifications saved before they were
+     * stored on the notification itself. The events and organizers of the whole page are read
+     * in batched {@code whereIn} queries, with events served from the event cache and organizer
+     * names remembered for later pages, and the list is refreshed once when all are joined.
+     *
+     * @param legacyLogs the logs of a page that lack the event title or organizer name
      */
-    private void fetchOrganizerName(NotificationLog log, String organizerId) {
-        db.collection("users")
-                .document(organizerId)
-                .get()
-                .addOnSuccessListener(userDoc -> {
-                    if (userDoc.exists()) {
-                        String name = userDoc.getString("name");
-                        log.setOrganizerName(name != null ? name : "Unknown");
-                        logs.setValue(new ArrayList<>(allLogs));
+    private void joinLegacyDetails(List<NotificationLog> legacyLogs) {
+        Set<String> eventIds = new HashSet<>();
+        for (NotificationLog log : legacyLogs) {
+            if (log.getEventId() != null && !log.getEventId().isEmpty()) {
+                eventIds.add(log.getEventId());
+            }
+        }
+
+        EventRepository.getInstance().getEventDocuments(eventIds)
+                .onSuccessTask(events -> {
+                    Set<String> organizerIds = new HashSet<>();
+                    for (NotificationLog log : legacyLogs) {
+                        DocumentSnapshot eventDoc = events.get(log.getEventId());
+                        if (eventDoc != null) {
+                            if (log.getEventTitle() == null) {
+                                log.setEventTitle(eventDoc.getString("title"));
+                            }
+                            if (log.getSenderId() == null) {
+                                log.setSenderId(eventDoc.getString("organizerId"));
+                            }
+                        }
+                        String organizerId = log.getSenderId();
+                        if (log.getOrganizerName() == null && organizerId != null
+                                && !organizerNames.containsKey(organizerId)) {
+                            organizerIds.add(organizerId);
+                        }
+                    }
+                    return EntrantRepository.getInstance().findEntrantsByIds(organizerIds);
+                })
+                .addOnSuccessListener(organizers -> {
+                    for (Map.Entry<String, Entrant> organizer : organizers.entrySet()) {
+                        organizerNames.put(organizer.getKey(), organizer.getValue().getName());
+                    }
+                    for (NotificationLog log : legacyLogs) {
+                        String organizerId = log.getSenderId();
+                        if (log.getOrganizerName() == null && organizerId != null) {
+                            // Organizers without a user document are remembered too, so later pages skip them
+                            String name = organizerNames.get(organizerId);
+                            if (name == null) {
+                                name = NotificationModel.UNKNOWN_ORGANIZER;
+                                organizerNames.put(organizerId, name);
+                            }
+                            log.setOrganizerName(name);
+                        }
+                        searchIndex.update(log, searchableTexts(log));
                     }
+                    filterLogs(currentQuery);
                 })
                 .addOnFailureListener(e ->
-                    Log.e(TAG, "Error fetching organizer name", e));
+                    Log.e(TAG, "Error fetching event and organizer details", e));
+    }
+
+    private void indexLog(NotificationLog log) {
+        searchIndex.add(log, searchableTexts(log));
+    }
+
+    private static String[] searchableTexts(NotificationLog log) {
+        return new String[]{log.getTitle(), log.getBody(), log.getEventTitle(), log.getOrganizerName()};
     }
 
     /**
-     * Filters logs based on search query.
+     * Filters the loaded logs by a search query. A log matches when every word of the query
+     * starts a word of its title, body, event title or organizer name. The logs are looked up
+     * in an inverted index that is extended as pages load, so a keystroke does not rescan
+     * every log.
+     *
+     * @param query the text typed by the user, may be null
      */
     public void filterLogs(String query) {
-        if (query == null || query.trim().isEmpty()) {
-            logs.setValue(allLogs);
-            return;
-        }
-
-        String lowerQuery = query.toLowerCase().trim();
-        List<NotificationLog> filtered = new ArrayList<>();
-
-        for (NotificationLog log : allLogs) {
-            boolean matches = false;
-
-            // Search in title
-            if (log.getTitle() != null && log.getTitle().toLowerCase().contains(lowerQuery)) {
-                matches = true;
-            }
-
-            // Search in body
-            if (log.getBody() != null && log.getBody().toLowerCase().contains(lowerQuery)) {
-                matches = true;
-            }
-
-            // Search in event title
-            if (log.getEventTitle() != null && log.getEventTitle().toLowerCase().contains(lowerQuery)) {
-                matches = true;
-            }
-
-            // Search in organizer name
-            if (log.getOrganizerName() != null && log.getOrganizerName().toLowerCase().contains(lowerQuery)) {
-                matches = true;
-            }
-
-            if (matches) {
-                filtered.add(log);
-            }
-        }
-
-        logs.setValue(filtered);
+        currentQuery = query;
+        logs.setValue(searchIndex.search(query));
     }
 }
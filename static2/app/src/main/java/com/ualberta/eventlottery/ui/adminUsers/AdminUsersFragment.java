@@ -8,6 +8,7 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
@@ -21,12 +22,15 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.Query;
 import com.ualberta.eventlottery.MainActivity;
 import com.ualberta.eventlottery.admin.AdminMainActivity;
 import com.ualberta.eventlottery.model.Event;
 import com.ualberta.eventlottery.model.User;
+import com.ualberta.eventlottery.repository.PagedQuerySource;
+import com.ualberta.eventlottery.repository.SearchTokens;
 import com.ualberta.eventlottery.ui.organizer.adapter.OrganizerEventAdapter;
 import com.ualberta.eventlottery.ui.organizer.organizerEventInfo.OrganizerEventInfoFragment;
 import com.ualberta.eventlottery.ui.profile.ProfileFragment;
@@ -51,6 +55,7 @@ public class AdminUsersFragment extends Fragment {
     private FirebaseFirestore db;
 
     private CollectionReference usersRef;
+    private PagedQuerySource<User> userSource;
     private com.ualberta.static2.databinding.FragmentAdminUsersBinding binding;
 
     /**
@@ -82,32 +87,21 @@ public class AdminUsersFragment extends Fragment {
         adapter = new UserAdapter(requireContext(), displayList);
         binding.userListView.setAdapter(adapter);
 
-        // Listen for changes to the users collection
-        // If a change is detected, update the list of users
+        // Load users a page at a time, ordered by ID so every user is included
+        // Fetch the next page when the list is scrolled near its end
         db = FirebaseFirestore.getInstance();
         usersRef = db.collection("users");
-        usersRef.addSnapshotListener((value, error) -> {
-                    if (error != null) {
-                        Log.e("Firestore", error.toString());
-                    }
-                    if (value != null && !value.isEmpty()) {
-                        masterList.clear();
-                        for (QueryDocumentSnapshot snapshot : value) {
-                            String userId = snapshot.getId();
-                            String name = snapshot.getString("name");
-                            String email = snapshot.getString("email");
-                            String phone = snapshot.getString("phone");
-                            String favRecCenter = snapshot.getString("favRecCenter");
-                            String userType = snapshot.getString("userType");
-                            Boolean notificationsEnabled = snapshot.getBoolean("notificationsEnabled");
-
-                            masterList.add(new User(userId, name, email, phone, "fcmToken", userType, favRecCenter, notificationsEnabled));
-                        }
-                        selectedTypeFilter = null;
-                        searchText = "";
-                        applyFilter();
-                    }
-                });
+        loadUsers(usersRef.orderBy(FieldPath.documentId()));
+        binding.userListView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {
+            }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                userSource.onPositionVisible(firstVisibleItem + visibleItemCount - 1, totalItemCount);
+            }
+        });
 
         // Sort by type of user
         // Updates the list of users when a sort button is clicked
@@ -186,8 +180,18 @@ public class AdminUsersFragment extends Fragment {
              */
             @Override
             public void afterTextChanged(Editable editable) {
-                searchText = editable.toString().toLowerCase();
-                applyFilter();
+                String token = SearchTokens.queryToken(editable.toString());
+                String previousToken = SearchTokens.queryToken(searchText);
+                searchText = editable.toString();
+                if (token == null ? previousToken == null : token.equals(previousToken)) {
+                    applyFilter(); // Same query on the server, only the other words changed
+                } else if (token == null) {
+                    loadUsers(usersRef.orderBy(FieldPath.documentId()));
+                } else {
+                    // Only users with a name word starting with the longest typed word are read
+                    loadUsers(usersRef.whereArrayContains(SearchTokens.FIELD, token)
+                            .orderBy(FieldPath.documentId()));
+                }
             }
         });
         return root;
@@ -217,6 +221,44 @@ public class AdminUsersFragment extends Fragment {
         binding = null;
     }
 
+    /**
+     * Replaces the loaded users with the first page of a query.
+     * Later pages are loaded as the list is scrolled.
+     *
+     * @param query the users to list, ordered by document ID
+     */
+    private void loadUsers(Query query) {
+        if (userSource != null) {
+            userSource.setListener(null);
+        }
+        userSource = new PagedQuerySource<>(query, snapshot -> {
+            String userId = snapshot.getId();
+            String name = snapshot.getString("name");
+            String email = snapshot.getString("email");
+            String phone = snapshot.getString("phone");
+            String favRecCenter = snapshot.getString("favRecCenter");
+            String userType = snapshot.getString("userType");
+            Boolean notificationsEnabled = snapshot.getBoolean("notificationsEnabled");
+
+            return new User(userId, name, email, phone, "fcmToken", userType, favRecCenter, notificationsEnabled);
+        });
+        userSource.setListener(new PagedQuerySource.PageListener<User>() {
+            @Override
+            public void onPageLoaded(List<User> items, List<User> page, boolean endReached) {
+                masterList.addAll(page);
+                applyFilter();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.e("Firestore", e.toString());
+            }
+        });
+        masterList.clear();
+        applyFilter();
+        userSource.loadNextPage();
+    }
+
     /**
      * Applies a filter to the list of users.
      * Filters by user type and search text.
@@ -227,7 +269,7 @@ public class AdminUsersFragment extends Fragment {
             if (selectedTypeFilter != null && ! selectedTypeFilter.equals(u.getUserType())) {
                 continue;
             }
-            if (! searchText.isEmpty() && ! u.getName().toLowerCase().contains(searchText)) {
+            if (! SearchTokens.matches(u.getName(), searchText)) {
                 continue;
             }
             displayList.add(u);
@@ -11,13 +11,18 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
 import androidx.annotation.VisibleForTesting;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.test.espresso.idling.CountingIdlingResource;
 
+import com.google.android.gms.tasks.Tasks;
 import com.ualberta.eventlottery.model.EntrantRegistrationStatus;
 import com.ualberta.eventlottery.model.Event;
 import com.ualberta.eventlottery.model.Registration;
+import com.ualberta.eventlottery.repository.ParseExecutor;
+import com.ualberta.eventlottery.repository.RegistrationCountHub;
 import com.ualberta.eventlottery.repository.RegistrationRepository;
+import com.ualberta.eventlottery.repository.UserRegistrationIndex;
 import com.ualberta.eventlottery.utils.UserManager;
 import com.ualberta.static2.R;
 
@@ -27,6 +32,8 @@ import java.time.format.DateTimeFormatter;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
 
 /*
  * Adapter class for displaying a list of events in a RecyclerView for entrants
@@ -47,6 +54,11 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>{
 
     private List<Event> eventList;
     private OnEventListener onEventListener;
+    private final UserRegistrationIndex registrationIndex = UserRegistrationIndex.getInstance();
+    private final UserRegistrationIndex.OnIndexChangedListener indexListener = this::onRegistrationIndexChanged;
+    private boolean waitingForIndex;
+    // Incremented for every updateEvents call, so only the latest diff is applied.
+    private int diffGeneration;
 
     /**
      * Constructs an EventAdapter with a specified eventList.
@@ -58,12 +70,31 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>{
     }
 
     /**
-     * Updates the adapter with a new event and notifies the observer of any changes.
+     * Updates the adapter with a new event list and notifies the observer of any changes.
+     * Rows are matched by event ID, and a row is only rebound when its {@code Event} instance
+     * changed; live lists keep the same instance for documents that did not change.
+     * The diff is calculated on the {@link ParseExecutor} and applied on the main thread. If a
+     * newer list arrives first, the older diff is dropped, since the newer one was calculated
+     * against the rows still on screen.
      * @param newEvents the list of new events to display
      */
     public void updateEvents(List<Event> newEvents){
-        this.eventList = newEvents;
-        notifyDataSetChanged();
+        List<Event> oldEvents = this.eventList;
+        int generation = ++diffGeneration;
+        idlingResource.increment();
+        Tasks.call(ParseExecutor.getExecutor(), () -> DiffUtil.calculateDiff(new EventDiffCallback(oldEvents, newEvents)))
+                .addOnCompleteListener(task -> {
+                    if (generation == diffGeneration) {
+                        this.eventList = newEvents;
+                        if (task.isSuccessful()) {
+                            task.getResult().dispatchUpdatesTo(this);
+                        } else {
+                            Log.e("EventLottery", "failed to diff event list", task.getException());
+                            notifyDataSetChanged();
+                        }
+                    }
+                    idlingResource.decrement();
+                });
     }
 
     /**
@@ -94,23 +125,26 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>{
     @RequiresApi(api = Build.VERSION_CODES.O)
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        RegistrationRepository registrationRepository = RegistrationRepository.getInstance();
         Event event = eventList.get(position);
+        holder.event = event;
 
         holder.eventTitle.setText(event.getTitle());
-        holder.entrantsNumber.setText(getEntrantsText(0, event.getMaxWaitListSize()));
-        registrationRepository.watchRegistrationCountByStatus(event.getId(), EntrantRegistrationStatus.WAITING, new RegistrationRepository.CountCallback() {
-            @Override
-            public void onSuccess(int count) {
-                holder.entrantsNumber.setText(getEntrantsText(count, event.getMaxWaitListSize()));
-            }
+        if (holder.countSubscription == null || !event.getId().equals(holder.countSubscription.getEventId())) {
+            holder.entrantsNumber.setText(getEntrantsText(0, event.getMaxWaitListSize()));
+            releaseCountSubscription(holder);
+            holder.countSubscription = RegistrationCountHub.getInstance().subscribe(event.getId(), EntrantRegistrationStatus.WAITING, new RegistrationRepository.CountCallback() {
+                @Override
+                public void onSuccess(int count) {
+                    holder.entrantsNumber.setText(getEntrantsText(count, holder.event.getMaxWaitListSize()));
+                }
 
 
-            @Override
-            public void onFailure(Exception e) {
-                Log.e("EventLottery", "failure while watching count of waitlisted entrants", e);
-            }
-        });
+                @Override
+                public void onFailure(Exception e) {
+                    Log.e("EventLottery", "failure while watching count of waitlisted entrants", e);
+                }
+            });
+        }
 
         holder.eventStatus.setText(event.getRegistrationStatus().toString());
         holder.eventFromTo.setText(getFromToText(event));
@@ -119,7 +153,33 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>{
         }
         holder.eventSessionStartTime.setText(getSessionStartTimeText(event));
 
-        holder.btnActionText.setText(WAIT_SYMBOL);
+        // Register/Withdraw state comes from the in-memory registration index
+        if (registrationIndex.isLoaded()) {
+            Registration registration = registrationIndex.getRegistration(event.getId());
+            holder.btnActionText.setText(registration != null ? BTN_ACTION_TEXT_WITHDRAW : BTN_ACTION_TEXT_REGISTER);
+        } else {
+            holder.btnActionText.setText(WAIT_SYMBOL);
+        }
+
+        holder.btnAction.setOnClickListener(v -> onActionClick(holder, event));
+
+        holder.itemView.setOnClickListener(v -> {
+            if (onEventListener != null) {
+                onEventListener.onEventClick(event);
+            }
+        });
+    }
+
+    /**
+     * Registers for or withdraws from an event depending on the row's current button state.
+     *
+     * @param holder The ViewHolder whose button was clicked.
+     * @param event  The event shown in the row.
+     */
+    private void onActionClick(ViewHolder holder, Event event) {
+        String btnActionText = holder.btnActionText.getText().toString();
+        String userId = UserManager.getCurrentUserId();
+        RegistrationRepository registrationRepository = RegistrationRepository.getInstance();
         RegistrationRepository.RegistrationCallback callback = new RegistrationRepository.RegistrationCallback() {
             @Override
             public void onSuccess(Registration registration) {
@@ -133,33 +193,99 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>{
 
             @Override
             public void onFailure(Exception e) {
-                Log.e("EventLottery", "failed to find registration", e);
+                Log.e("EventLottery", "failed to update registration", e);
                 holder.btnActionText.setText(NOT_ALLOWED_SYMBOL);
                 idlingResource.decrement();
             }
         };
 
-        holder.btnAction.setOnClickListener(v -> {
+        if (btnActionText.compareTo(BTN_ACTION_TEXT_REGISTER) == 0) {
+            idlingResource.increment();
+            holder.btnActionText.setText(WAIT_SYMBOL);
+            registrationRepository.registerUser(event.getId(), userId, callback);
+        } else if (btnActionText.compareTo(BTN_ACTION_TEXT_WITHDRAW) == 0){
+            idlingResource.increment();
+            holder.btnActionText.setText(WAIT_SYMBOL);
+            registrationRepository.unregisterUser(event.getId(), userId, callback);
+        }
+    }
+
+    /**
+     * Starts listening to the current user's registration index while attached.
+     *
+     * @param recyclerView The RecyclerView the adapter is attached to.
+     */
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        registrationIndex.addListener(UserManager.getCurrentUserId(), indexListener);
+        if (!registrationIndex.isLoaded() && !waitingForIndex) {
+            waitingForIndex = true;
             idlingResource.increment();
-            String btnActionText = holder.btnActionText.getText().toString();
-            String userId = UserManager.getCurrentUserId();
-            if (btnActionText.compareTo(BTN_ACTION_TEXT_REGISTER) == 0) {
-                holder.btnActionText.setText(WAIT_SYMBOL);
-                registrationRepository.registerUser(event.getId(), userId, callback);
-            } else if (btnActionText.compareTo(BTN_ACTION_TEXT_WITHDRAW) == 0){
-                holder.btnActionText.setText(WAIT_SYMBOL);
-                registrationRepository.unregisterUser(event.getId(), userId, callback);
+        }
+    }
+
+    /**
+     * Rebinds the rows whose registration changed in the index.
+     *
+     * @param changedEventIds The IDs of events whose registration changed.
+     */
+    private void onRegistrationIndexChanged(Set<String> changedEventIds) {
+        if (waitingForIndex) {
+            waitingForIndex = false;
+            idlingResource.decrement();
+            notifyDataSetChanged();
+            return;
+        }
+        for (int i = 0; i < eventList.size(); i++) {
+            if (changedEventIds.contains(eventList.get(i).getId())) {
+                notifyItemChanged(i);
             }
-        });
-        idlingResource.increment();
+        }
+    }
 
-        registrationRepository.findRegistrationByEventAndUser(event.getId(), UserManager.getCurrentUserId(), callback);
+    /**
+     * Stops the waitlist count updates of a recycled row so its listener can be detached.
+     *
+     * @param holder The ViewHolder that is being recycled.
+     */
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        super.onViewRecycled(holder);
+        releaseCountSubscription(holder);
+    }
 
-        holder.itemView.setOnClickListener(v -> {
-            if (onEventListener != null) {
-                onEventListener.onEventClick(event);
+    /**
+     * Stops the waitlist count and registration index updates when the adapter is detached.
+     *
+     * @param recyclerView The RecyclerView the adapter was attached to.
+     */
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        registrationIndex.removeListener(indexListener);
+        if (waitingForIndex) {
+            waitingForIndex = false;
+            idlingResource.decrement();
+        }
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+            if (holder instanceof ViewHolder) {
+                releaseCountSubscription((ViewHolder) holder);
             }
-        });
+        }
+    }
+
+    /**
+     * Releases the waitlist count subscription held by a row, if any.
+     *
+     * @param holder The ViewHolder whose subscription should be released.
+     */
+    private void releaseCountSubscription(ViewHolder holder) {
+        if (holder.countSubscription != null) {
+            holder.countSubscription.unsubscribe();
+            holder.countSubscription = null;
+        }
     }
 
     /**
@@ -238,6 +364,8 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>{
     public static class ViewHolder extends RecyclerView.ViewHolder{
         TextView eventTitle, entrantsNumber, eventFromTo, eventStatus, eventSessionStartTime, btnActionText;
         LinearLayout btnAction;
+        Event event;
+        RegistrationCountHub.Subscription countSubscription;
         /**
          * Constructs a new ViewHolder.
          *
@@ -256,6 +384,39 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>{
         }
     }
 
+    /**
+     * Compares two event lists by event ID, and row contents by {@code Event} identity.
+     */
+    private static class EventDiffCallback extends DiffUtil.Callback {
+        private final List<Event> oldEvents;
+        private final List<Event> newEvents;
+
+        EventDiffCallback(List<Event> oldEvents, List<Event> newEvents) {
+            this.oldEvents = oldEvents;
+            this.newEvents = newEvents;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldEvents.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newEvents.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return Objects.equals(oldEvents.get(oldItemPosition).getId(), newEvents.get(newItemPosition).getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return oldEvents.get(oldItemPosition) == newEvents.get(newItemPosition);
+        }
+    }
+
     /**
      * Interface for listening to event clicks.
      */
@@ -0,0 +1,227 @@
+package com.ualberta.eventlottery.ui.home.entrant;
+
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+import com.ualberta.eventlottery.model.Event;
+import com.ualberta.eventlottery.model.EventCategory;
+import com.ualberta.eventlottery.model.TimeRange;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filters event lists by category, day of the week and time of day for the entrant home screen.
+ *
+ * <p>Every event is reduced once to a bitmask holding its category bit, its day of the week bit
+ * and one bit per time range its daily start time falls in. A selection is turned into the same
+ * bit layout, so filtering is a single pass of mask ANDs with no parsing or allocation per event.
+ * Masks are remembered per event instance, so a new list only costs the rows that were re-parsed
+ * since the previous one.</p>
+ *
+ * <p>Each dimension also has an "any" bit that every event carries. A dimension with nothing
+ * selected, or with every value selected, requires only that bit and therefore matches every
+ * event, including events that have no value for it.</p>
+ *
+ * <p>Instances are not thread-safe; {@code HomeViewModel} only uses them on the main thread.</p>
+ *
+ * @author static2
+ * @version 1.0
+ */
+@RequiresApi(api = Build.VERSION_CODES.O)
+public final class EventFilter {
+
+    private static final int CATEGORY_SHIFT = 0;
+    private static final int DAY_SHIFT = 8;
+    private static final int TIME_SHIFT = 16;
+
+    private static final int ANY_CATEGORY = 1 << 7;
+    private static final int ANY_DAY = 1 << 15;
+    private static final int ANY_TIME = 1 << 23;
+
+    private static final EventCategory[] CATEGORIES = EventCategory.values();
+    private static final TimeRange[] TIME_RANGES = TimeRange.values();
+    private static final Map<String, EventCategory> CATEGORIES_BY_NAME = new HashMap<>();
+
+    static {
+        for (EventCategory category : CATEGORIES) {
+            CATEGORIES_BY_NAME.put(category.name(), category);
+        }
+    }
+
+    private final Calendar calendar = Calendar.getInstance();
+    private Map<String, IndexedEvent> index = new HashMap<>();
+
+    private List<Event> events = Collections.emptyList();
+    private int[] masks = new int[0];
+
+    private int categoryMask = ANY_CATEGORY;
+    private int dayMask = ANY_DAY;
+    private int timeMask = ANY_TIME;
+
+    /**
+     * An event together with the mask computed from it.
+     */
+    private static final class IndexedEvent {
+        final Event event;
+        final int mask;
+
+        IndexedEvent(Event event, int mask) {
+            this.event = event;
+            this.mask = mask;
+        }
+    }
+
+    /**
+     * Replaces the list being filtered. Events that are the same instance as in the previous
+     * list keep their mask; only new or re-parsed events are indexed again.
+     *
+     * @param events the events to filter, or null for none
+     */
+    public void setEvents(List<Event> events) {
+        this.events = events != null ? events : Collections.emptyList();
+        int size = this.events.size();
+        if (masks.length != size) {
+            masks = new int[size];
+        }
+
+        Map<String, IndexedEvent> previousIndex = index;
+        index = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Event event = this.events.get(i);
+            String id = event.getId();
+            IndexedEvent indexed = id != null ? previousIndex.get(id) : null;
+            if (indexed == null || indexed.event != event) {
+                indexed = new IndexedEvent(event, maskOf(event, calendar));
+            }
+            masks[i] = indexed.mask;
+            if (id != null) {
+                index.put(id, indexed);
+            }
+        }
+    }
+
+    /**
+     * @param categories the categories to keep; null or empty keeps every event
+     */
+    public void setCategories(List<EventCategory> categories) {
+        if (categories == null || categories.isEmpty()) {
+            categoryMask = ANY_CATEGORY;
+            return;
+        }
+        // Unlike the other dimensions, selecting every category still drops uncategorized events.
+        categoryMask = 0;
+        for (EventCategory category : categories) {
+            categoryMask |= 1 << (CATEGORY_SHIFT + category.ordinal());
+        }
+    }
+
+    /**
+     * @param daysOfWeek the days an event may start on; null, empty or all days keeps every event
+     */
+    public void setDaysOfWeek(List<DayOfWeek> daysOfWeek) {
+        dayMask = 0;
+        if (daysOfWeek != null) {
+            for (DayOfWeek day : daysOfWeek) {
+                dayMask |= 1 << (DAY_SHIFT + day.ordinal());
+            }
+        }
+        if (dayMask == 0 || dayMask == allBits(DAY_SHIFT, DayOfWeek.values().length)) {
+            dayMask = ANY_DAY;
+        }
+    }
+
+    /**
+     * @param timeRanges the ranges an event's daily start time may fall in; null, empty or all
+     *                   ranges keeps every event
+     */
+    public void setTimeRanges(List<TimeRange> timeRanges) {
+        timeMask = 0;
+        if (timeRanges != null) {
+            for (TimeRange timeRange : timeRanges) {
+                timeMask |= 1 << (TIME_SHIFT + timeRange.ordinal());
+            }
+        }
+        if (timeMask == 0 || timeMask == allBits(TIME_SHIFT, TIME_RANGES.length)) {
+            timeMask = ANY_TIME;
+        }
+    }
+
+    /**
+     * Filters the current events by the current selection.
+     *
+     * @return a new list with the matching events, in their original order
+     */
+    public List<Event> apply() {
+        List<Event> resultList = new ArrayList<>();
+        for (int i = 0; i < masks.length; i++) {
+            int mask = masks[i];
+            if ((mask & categoryMask) != 0 && (mask & dayMask) != 0 && (mask & timeMask) != 0) {
+                resultList.add(events.get(i));
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * Filters a list once, without keeping an index for later updates.
+     *
+     * @param currentData the events to filter, or null for none
+     * @param selectedCategories the categories to keep
+     * @param selectedDaysOfWeek the days an event may start on
+     * @param selectedTimeRanges the ranges an event's daily start time may fall in
+     * @return a new list with the matching events, in their original order
+     */
+    public static List<Event> applyAllFilters(List<Event> currentData, List<EventCategory> selectedCategories, List<DayOfWeek> selectedDaysOfWeek, List<TimeRange> selectedTimeRanges) {
+        EventFilter filter = new EventFilter();
+        filter.setCategories(selectedCategories);
+        filter.setDaysOfWeek(selectedDaysOfWeek);
+        filter.setTimeRanges(selectedTimeRanges);
+        filter.setEvents(currentData);
+        return filter.apply();
+    }
+
+    private static int maskOf(Event event, Calendar calendar) {
+        int mask = ANY_CATEGORY | ANY_DAY | ANY_TIME;
+
+        String category = event.getCategory();
+        if (category != null) {
+            EventCategory eventCategory = CATEGORIES_BY_NAME.get(category.toUpperCase());
+            if (eventCategory != null) {
+                mask |= 1 << (CATEGORY_SHIFT + eventCategory.ordinal());
+            }
+        }
+
+        if (event.getStartTime() != null) {
+            calendar.setTime(event.getStartTime());
+            mask |= 1 << (DAY_SHIFT + toDayOfWeek(calendar.get(Calendar.DAY_OF_WEEK)).ordinal());
+        }
+
+        if (event.getDailyStartTime() != null) {
+            for (TimeRange timeRange : TIME_RANGES) {
+                if (timeRange.isInRange(event.getDailyStartTime())) {
+                    mask |= 1 << (TIME_SHIFT + timeRange.ordinal());
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Converts a {@link Calendar#DAY_OF_WEEK} value, which starts the week on Sunday, into a
+     * {@link DayOfWeek}, which starts it on Monday.
+     */
+    private static DayOfWeek toDayOfWeek(int calendarDay) {
+        return DayOfWeek.of((calendarDay + 5) % 7 + 1);
+    }
+
+    private static int allBits(int shift, int count) {
+        return ((1 << count) - 1) << shift;
+    }
+}
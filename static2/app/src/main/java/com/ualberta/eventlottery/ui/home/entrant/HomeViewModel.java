@@ -19,7 +19,6 @@ import com.ualberta.eventlottery.utils.UserManager;
 
 import java.time.DayOfWeek;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -43,6 +42,10 @@ public class HomeViewModel extends ViewModel {
     private final MutableLiveData<List<Event>> myEvents = new MutableLiveData<>();
     private final MediatorLiveData<List<Event>> filteredMyEventList = new MediatorLiveData<>();
 
+    // Indexed filters for the two lists; both follow the same selection.
+    private final EventFilter availableEventFilter;
+    private final EventFilter myEventFilter;
+
 
     /**
      * Constructs a HomeViewModel and initializes events from EventRepository
@@ -51,6 +54,8 @@ public class HomeViewModel extends ViewModel {
     public HomeViewModel() {
         eventRepository = EventRepository.getInstance();
         registrationRepository = RegistrationRepository.getInstance();
+        availableEventFilter = new EventFilter();
+        myEventFilter = new EventFilter();
 
         // This correctly gets the live data for "Available" events from the repository
         availableEventListLiveData = eventRepository.getAvailableEvents();
@@ -61,95 +66,49 @@ public class HomeViewModel extends ViewModel {
         selectedTimeFilters.setValue(Stream.of(TimeRange.values())
                 .collect(Collectors.toList()));
 
-        //Observes the availableEventListLiveData and applies filter on new data
+        availableEventFilter.setCategories(selectedCategoryFilters.getValue());
+        availableEventFilter.setDaysOfWeek(selectedDaysOfWeekFilters.getValue());
+        availableEventFilter.setTimeRanges(selectedTimeFilters.getValue());
+        myEventFilter.setCategories(selectedCategoryFilters.getValue());
+        myEventFilter.setDaysOfWeek(selectedDaysOfWeekFilters.getValue());
+        myEventFilter.setTimeRanges(selectedTimeFilters.getValue());
+
+        //Observes the availableEventListLiveData and re-indexes only the events that changed
         filteredAvailableEventList.addSource(availableEventListLiveData, newData -> {
-            filteredAvailableEventList.setValue(
-                    applyAllFilters(
-                            newData,
-                            selectedCategoryFilters.getValue(),
-                            selectedDaysOfWeekFilters.getValue(),
-                            selectedTimeFilters.getValue()
-                    )
-            );
+            availableEventFilter.setEvents(newData);
+            filteredAvailableEventList.setValue(availableEventFilter.apply());
+        });
 
+        //Observes myEvents and re-indexes only the events that changed
+        filteredMyEventList.addSource(myEvents, newData -> {
+            myEventFilter.setEvents(newData);
+            filteredMyEventList.setValue(myEventFilter.apply());
         });
 
-        //Category source for available events
+        //A filter change only re-runs the mask pass over both lists
         filteredAvailableEventList.addSource(selectedCategoryFilters, newFilters -> {
-            filteredAvailableEventList.setValue(
-                    applyAllFilters(
-                            availableEventListLiveData.getValue(),
-                            newFilters,
-                            selectedDaysOfWeekFilters.getValue(),
-                            selectedTimeFilters.getValue()
-                    )
-            );
+            availableEventFilter.setCategories(newFilters);
+            filteredAvailableEventList.setValue(availableEventFilter.apply());
         });
-
-        //Days of the week source for available events
         filteredAvailableEventList.addSource(selectedDaysOfWeekFilters, newDaysOfWeek -> {
-            filteredAvailableEventList.setValue(
-                    applyAllFilters(
-                            availableEventListLiveData.getValue(),
-                            selectedCategoryFilters.getValue(),
-                            newDaysOfWeek,
-                            selectedTimeFilters.getValue()
-                    )
-            );
+            availableEventFilter.setDaysOfWeek(newDaysOfWeek);
+            filteredAvailableEventList.setValue(availableEventFilter.apply());
         });
-
-        //Time Ranges source for available events
         filteredAvailableEventList.addSource(selectedTimeFilters, newTimeRanges -> {
-            filteredAvailableEventList.setValue(
-                    applyAllFilters(
-                            availableEventListLiveData.getValue(),
-                            selectedCategoryFilters.getValue(),
-                            selectedDaysOfWeekFilters.getValue(),
-                            newTimeRanges
-                    )
-            );
-        });
-
-        //Observes myEvents and applies filter on new data
-        filteredMyEventList.addSource(myEvents, newData -> {
-            filteredMyEventList.setValue(
-                    applyAllFilters(
-                            newData,
-                            selectedCategoryFilters.getValue(),
-                            selectedDaysOfWeekFilters.getValue(),
-                            selectedTimeFilters.getValue()
-                    )
-            );
+            availableEventFilter.setTimeRanges(newTimeRanges);
+            filteredAvailableEventList.setValue(availableEventFilter.apply());
         });
         filteredMyEventList.addSource(selectedCategoryFilters, newFilters -> {
-            filteredMyEventList.setValue(
-                    applyAllFilters(
-                            myEvents.getValue(),
-                            newFilters,
-                            selectedDaysOfWeekFilters.getValue(),
-                            selectedTimeFilters.getValue()
-                    )
-            );
+            myEventFilter.setCategories(newFilters);
+            filteredMyEventList.setValue(myEventFilter.apply());
         });
-        filteredMyEventList.addSource(selectedDaysOfWeekFilters, newFilters -> {
-            filteredMyEventList.setValue(
-                    applyAllFilters(
-                            myEvents.getValue(),
-                            selectedCategoryFilters.getValue(),
-                            newFilters,
-                            selectedTimeFilters.getValue()
-                    )
-            );
+        filteredMyEventList.addSource(selectedDaysOfWeekFilters, newDaysOfWeek -> {
+            myEventFilter.setDaysOfWeek(newDaysOfWeek);
+            filteredMyEventList.setValue(myEventFilter.apply());
         });
-        filteredMyEventList.addSource(selectedTimeFilters, newFilters -> {
-            filteredMyEventList.setValue(
-                    applyAllFilters(
-                            myEvents.getValue(),
-                            selectedCategoryFilters.getValue(),
-                            selectedDaysOfWeekFilters.getValue(),
-                            newFilters
-                    )
-            );
+        filteredMyEventList.addSource(selectedTimeFilters, newTimeRanges -> {
+            myEventFilter.setTimeRanges(newTimeRanges);
+            filteredMyEventList.setValue(myEventFilter.apply());
         });
     }
 
@@ -212,89 +171,6 @@ public class HomeViewModel extends ViewModel {
         }
     }
 
-    private List<Event> applyCategoryFilters(List<Event> currentData, List<EventCategory> categories) {
-        if (currentData == null) {
-            return new ArrayList<>();
-        }
-
-        List<Event> resultList = new ArrayList<>();
-        if (categories == null || categories.isEmpty()) {
-            resultList.addAll(currentData);
-        } else {
-            for (Event event : currentData) {
-                if (event.getCategory() == null) {
-                    continue;
-                }
-                String category = event.getCategory();
-
-                if ((category == null && categories.size() == 0) || (category != null && categories.contains(EventCategory.valueOf(category.toUpperCase())))) {
-                    resultList.add(event);
-                }
-            }
-        }
-        return resultList;
-    }
-
-    @RequiresApi(api = Build.VERSION_CODES.O)
-    private List<Event> applyDaysOfWeekFilter(List<Event> currentData, List<DayOfWeek> daysOfWeek) {
-        if (currentData == null) {
-            return new ArrayList<>();
-        }
-
-        Calendar cal = Calendar.getInstance();
-
-        List<Event> resultList = new ArrayList<>();
-
-        if (daysOfWeek == null || daysOfWeek.isEmpty() || daysOfWeek.size() == DayOfWeek.values().length) {
-            resultList.addAll(currentData);
-        } else {
-            for (Event event : currentData) {
-                if (event.getStartTime() == null) {
-                    continue;
-                }
-
-                cal.setTime(event.getStartTime());
-                if (daysOfWeek.contains(DayOfWeek.of(cal.get(Calendar.DAY_OF_WEEK)))) {
-                    resultList.add(event);
-                }
-            }
-        }
-        return resultList;
-    }
-
-    @RequiresApi(api = Build.VERSION_CODES.O)
-    private List<Event> applyTimeRangesFilter(List<Event> currentData, List<TimeRange> timeRanges) {
-        if (currentData == null) {
-            return new ArrayList<>();
-        }
-
-        List<Event> resultList = new ArrayList<>();
-
-        if (timeRanges == null || timeRanges.isEmpty() || timeRanges.size() == TimeRange.values().length) {
-            resultList.addAll(currentData);
-        } else {
-            for (Event event : currentData) {
-                if (event.getDailyStartTime() == null) {
-                    continue;
-                }
-               for (TimeRange tr : timeRanges) {
-                   if (tr.isInRange(event.getDailyStartTime())) {
-                       resultList.add(event);
-                   }
-               }
-            }
-        }
-        return resultList;
-    }
-
-    @RequiresApi(api = Build.VERSION_CODES.O)
-    private List<Event> applyAllFilters(List<Event> currentData, List<EventCategory> selectedCategories, List<DayOfWeek> selectedDaysOfWeek, List<TimeRange> selectedTimeRanges) {
-        List<Event> filteredEvents = applyCategoryFilters(currentData, selectedCategories);
-        filteredEvents = applyDaysOfWeekFilter(filteredEvents, selectedDaysOfWeek);
-        filteredEvents = applyTimeRangesFilter(filteredEvents, selectedTimeRanges);
-        return filteredEvents;
-    }
-
     /**
      * Method to trigger loading the user's registered events
      */
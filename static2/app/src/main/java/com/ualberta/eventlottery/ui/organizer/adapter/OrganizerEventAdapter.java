@@ -15,10 +15,12 @@ import com.ualberta.eventlottery.model.EntrantRegistrationStatus;
 import com.ualberta.eventlottery.model.Event;
 import com.ualberta.eventlottery.model.EventStatus;
 import com.ualberta.eventlottery.model.EventRegistrationStatus;
+import com.ualberta.eventlottery.repository.RegistrationCounter;
 import com.ualberta.eventlottery.repository.RegistrationRepository;
 import com.ualberta.static2.R;
 
 import java.text.SimpleDateFormat;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Locale;
 
@@ -29,8 +31,7 @@ public class OrganizerEventAdapter extends BaseAdapter {
     private SimpleDateFormat dateFormat;
     private OnDrawButtonClickListener onDrawButtonClickListener;
     private OnExportButtonClickListener onExportButtonClickListener;
-    private RegistrationRepository registrationRepository;
-    private int confirmedCount;
+    private RegistrationCounter registrationCounter;
     public interface OnDrawButtonClickListener {
         void onDrawButtonClick(Event event);
     }
@@ -53,7 +54,7 @@ public class OrganizerEventAdapter extends BaseAdapter {
         this.eventList = eventList;
         this.inflater = LayoutInflater.from(context);
         this.dateFormat = new SimpleDateFormat("h:mma, MMM dd, yyyy", Locale.getDefault());
-        this.registrationRepository = RegistrationRepository.getInstance();
+        this.registrationCounter = RegistrationCounter.getInstance();
     }
 
     @Override
@@ -164,11 +165,16 @@ public class OrganizerEventAdapter extends BaseAdapter {
             holder.tv_event_registry_status.setTextColor(ContextCompat.getColor(context, R.color.text_secondary));
         }
 
-        confirmedCount = event.getConfirmedAttendees();
-        registrationRepository.getRegistrationCountByStatus(event.getId(), EntrantRegistrationStatus.CONFIRMED, new RegistrationRepository.CountCallback() {
+        // entrant number, refreshed from the event's registration counters
+        holder.boundEventId = event.getId();
+        setEntrantsNumber(holder, event);
+        registrationCounter.getCounts(event.getId(), new RegistrationRepository.HistogramCallback() {
             @Override
-            public void onSuccess(int count) {
-                confirmedCount = count;
+            public void onSuccess(EnumMap<EntrantRegistrationStatus, Integer> counts) {
+                RegistrationCounter.applyToEvent(event, counts);
+                if (event.getId().equals(holder.boundEventId)) {
+                    setEntrantsNumber(holder, event);
+                }
             }
 
             @Override
@@ -176,9 +182,6 @@ public class OrganizerEventAdapter extends BaseAdapter {
 
             }
         });
-        // entrant number
-        String entrantsNumber = String.format("Entrants: %d/%d", confirmedCount, event.getMaxAttendees());
-        holder.tv_event_entrants_number.setText(entrantsNumber);
 
         // start time
         if (event.getStartTime() != null) {
@@ -219,6 +222,11 @@ public class OrganizerEventAdapter extends BaseAdapter {
         return convertView;
     }
 
+    private void setEntrantsNumber(ViewHolder holder, Event event) {
+        String entrantsNumber = String.format("Entrants: %d/%d", event.getConfirmedAttendees(), event.getMaxAttendees());
+        holder.tv_event_entrants_number.setText(entrantsNumber);
+    }
+
     static class ViewHolder {
         TextView tv_event_title;
         TextView tv_event_entrants_number;
@@ -228,7 +236,7 @@ public class OrganizerEventAdapter extends BaseAdapter {
         TextView tv_event_registry_status;
         LinearLayout btn_draw;
         LinearLayout btn_export;
-
+        String boundEventId;
 
     }
 }
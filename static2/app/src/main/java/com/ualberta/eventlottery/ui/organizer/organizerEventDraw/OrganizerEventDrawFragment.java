@@ -12,20 +12,20 @@ import android.widget.Toast;
 
 import androidx.fragment.app.Fragment;
 
+import com.google.firebase.functions.FirebaseFunctions;
 import com.ualberta.eventlottery.model.EntrantRegistrationStatus;
 import com.ualberta.eventlottery.model.Event;
-import com.ualberta.eventlottery.model.Registration;
-import com.ualberta.eventlottery.notification.NotificationController;
 import com.ualberta.eventlottery.ui.notifications.NotificationTemplate;
 import com.ualberta.eventlottery.repository.EventRepository;
 import com.ualberta.eventlottery.repository.RegistrationRepository;
 import com.ualberta.static2.databinding.FragmentOrganizerDrawBinding;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Fragment for conducting lottery draws for event registrations.
@@ -36,16 +36,22 @@ import java.util.Locale;
  */
 public class OrganizerEventDrawFragment extends Fragment {
 
+    private static final String TAG = "OrganizerEventDraw";
     private static final String ARG_EVENT_ID = "event_id";
+    private static final long DRAW_TIMEOUT_SECONDS = 540;
     private FragmentOrganizerDrawBinding binding;
     private String eventId;
     private Event currentEvent;
 
     private EventRepository eventRepository;
     private RegistrationRepository registrationRepository;
-    private NotificationController notificationController;
     private SimpleDateFormat dateFormat;
 
+    // Registration counts from the latest status histogram
+    private int confirmedCount;
+    private int drawableCount;
+    private boolean countsLoaded;
+
     /**
      * Creates a new instance with the specified event ID.
      *
@@ -101,7 +107,6 @@ public class OrganizerEventDrawFragment extends Fragment {
     private void initData() {
         eventRepository = EventRepository.getInstance();
         registrationRepository = RegistrationRepository.getInstance();
-        notificationController = new NotificationController(requireContext());
         dateFormat = new SimpleDateFormat("h:mma, MMM dd, yyyy", Locale.getDefault());
     }
 
@@ -154,53 +159,43 @@ public class OrganizerEventDrawFragment extends Fragment {
      * Loads and displays registration counts for different statuses.
      */
     private void loadRegistrationCounts() {
-        registrationRepository.getRegistrationCountByStatus(eventId, EntrantRegistrationStatus.CONFIRMED, new RegistrationRepository.CountCallback() {
+        registrationRepository.getStatusHistogram(eventId, new RegistrationRepository.HistogramCallback() {
             @Override
-            public void onSuccess(int confirmedCount) {
-                registrationRepository.getRegistrationCountByStatus(eventId, EntrantRegistrationStatus.WAITING, new RegistrationRepository.CountCallback() {
-                    @Override
-                    public void onSuccess(int waitingCount) {
-                        registrationRepository.getRegistrationCountByStatus(eventId, EntrantRegistrationStatus.CANCELLED, new RegistrationRepository.CountCallback() {
-                            @Override
-                            public void onSuccess(int cancelledCount) {
-                                int drawableCount = waitingCount + cancelledCount;
-                                binding.tvEventWaitingNumber.setText(String.valueOf(drawableCount));
-
-                                String ratio = confirmedCount + "/" + currentEvent.getMaxAttendees();
-                                binding.tvEventAcceptedRatio.setText(ratio);
-
-                                int availableCount = currentEvent.getMaxAttendees() - confirmedCount;
-                                binding.tvEventSpotsLeft.setText(String.valueOf(availableCount));
-
-                                binding.tvMaxEntrantsMsg.setText("Maximum " + Math.min(availableCount, drawableCount) + " entrants to draw");
-
-                                // Clear input and disable draw button initially
-                                binding.etNumberToDraw.setText("");
-                                binding.btnDraw.setEnabled(false);
-                                binding.btnDraw.setAlpha(0.5f);
-                            }
-
-                            @Override
-                            public void onFailure(Exception e) {
-                                Toast.makeText(requireContext(), "Failed to load cancelled count", Toast.LENGTH_SHORT).show();
-                            }
-                        });
-                    }
+            public void onSuccess(EnumMap<EntrantRegistrationStatus, Integer> counts) {
+                updateCounts(counts);
 
-                    @Override
-                    public void onFailure(Exception e) {
-                        Toast.makeText(requireContext(), "Failed to load waiting count", Toast.LENGTH_SHORT).show();
-                    }
-                });
+                binding.tvEventWaitingNumber.setText(String.valueOf(drawableCount));
+
+                String ratio = confirmedCount + "/" + currentEvent.getMaxAttendees();
+                binding.tvEventAcceptedRatio.setText(ratio);
+
+                int availableCount = currentEvent.getMaxAttendees() - confirmedCount;
+                binding.tvEventSpotsLeft.setText(String.valueOf(availableCount));
+
+                binding.tvMaxEntrantsMsg.setText("Maximum " + Math.min(availableCount, drawableCount) + " entrants to draw");
+
+                // Clear input and disable draw button initially
+                binding.etNumberToDraw.setText("");
+                binding.btnDraw.setEnabled(false);
+                binding.btnDraw.setAlpha(0.5f);
             }
 
             @Override
             public void onFailure(Exception e) {
-                Toast.makeText(requireContext(), "Failed to load confirmed count", Toast.LENGTH_SHORT).show();
+                Toast.makeText(requireContext(), "Failed to load registration counts", Toast.LENGTH_SHORT).show();
             }
         });
     }
 
+    /**
+     * Stores the confirmed and drawable counts from a status histogram.
+     */
+    private void updateCounts(EnumMap<EntrantRegistrationStatus, Integer> counts) {
+        confirmedCount = counts.get(EntrantRegistrationStatus.CONFIRMED);
+        drawableCount = counts.get(EntrantRegistrationStatus.WAITING) + counts.get(EntrantRegistrationStatus.CANCELLED);
+        countsLoaded = true;
+    }
+
     /**
      * Sets up click listeners and input validation.
      */
@@ -232,81 +227,43 @@ public class OrganizerEventDrawFragment extends Fragment {
 
     /**
      * Validates the input number for lottery draw.
-     * Checks against available spots and waiting list size.
+     * Checks against available spots and waiting list size using the loaded counts.
      */
     private void validateInputNumber() {
         String input = binding.etNumberToDraw.getText().toString().trim();
 
-        if (input.isEmpty()) {
+        if (input.isEmpty() || !countsLoaded) {
             return;
         }
 
         try {
             int numberToDraw = Integer.parseInt(input);
+            int availableSpots = currentEvent.getMaxAttendees() - confirmedCount;
 
-            registrationRepository.getRegistrationCountByStatus(eventId, EntrantRegistrationStatus.CONFIRMED, new RegistrationRepository.CountCallback() {
-                @Override
-                public void onSuccess(int confirmedCount) {
-                    registrationRepository.getRegistrationCountByStatus(eventId, EntrantRegistrationStatus.WAITING, new RegistrationRepository.CountCallback() {
-                        @Override
-                        public void onSuccess(int waitingCount) {
-                            registrationRepository.getRegistrationCountByStatus(eventId, EntrantRegistrationStatus.CANCELLED, new RegistrationRepository.CountCallback() {
-                                @Override
-                                public void onSuccess(int cancelledCount) {
-                                    int drawableCount = waitingCount + cancelledCount;
-                                    int availableSpots = currentEvent.getMaxAttendees() - confirmedCount;
-
-                                    // Validate against available spots
-                                    if (numberToDraw > availableSpots) {
-                                        binding.etNumberToDraw.setError("Cannot draw more than " + availableSpots + " entrants");
-                                        binding.btnDraw.setEnabled(false);
-                                        binding.btnDraw.setAlpha(0.5f);
-                                    }
-                                    // Validate against waiting and cancelled list size
-                                    else if (numberToDraw > drawableCount) {
-                                        binding.etNumberToDraw.setError("Only " + drawableCount + " entrants in waiting/cancelled list");
-                                        binding.btnDraw.setEnabled(false);
-                                        binding.btnDraw.setAlpha(0.5f);
-                                    }
-                                    // Validate minimum draw count
-                                    else if (numberToDraw <= 0) {
-                                        binding.etNumberToDraw.setError("Must draw at least 1 entrant");
-                                        binding.btnDraw.setEnabled(false);
-                                        binding.btnDraw.setAlpha(0.5f);
-                                    }
-                                    // Valid input
-                                    else {
-                                        binding.etNumberToDraw.setError(null);
-                                        binding.btnDraw.setEnabled(true);
-                                        binding.btnDraw.setAlpha(1.0f);
-                                    }
-                                }
-
-                                @Override
-                                public void onFailure(Exception e) {
-                                    binding.etNumberToDraw.setError("Error loading cancelled count");
-                                    binding.btnDraw.setEnabled(false);
-                                    binding.btnDraw.setAlpha(0.5f);
-                                }
-                            });
-                        }
-
-                        @Override
-                        public void onFailure(Exception e) {
-                            binding.etNumberToDraw.setError("Error loading waiting list");
-                            binding.btnDraw.setEnabled(false);
-                            binding.btnDraw.setAlpha(0.5f);
-                        }
-                    });
-                }
-
-                @Override
-                public void onFailure(Exception e) {
-                    binding.etNumberToDraw.setError("Error loading event data");
-                    binding.btnDraw.setEnabled(false);
-                    binding.btnDraw.setAlpha(0.5f);
-                }
-            });
+            // Validate against available spots
+            if (numberToDraw > availableSpots) {
+                binding.etNumberToDraw.setError("Cannot draw more than " + availableSpots + " entrants");
+                binding.btnDraw.setEnabled(false);
+                binding.btnDraw.setAlpha(0.5f);
+            }
+            // Validate against waiting and cancelled list size
+            else if (numberToDraw > drawableCount) {
+                binding.etNumberToDraw.setError("Only " + drawableCount + " entrants in waiting/cancelled list");
+                binding.btnDraw.setEnabled(false);
+                binding.btnDraw.setAlpha(0.5f);
+            }
+            // Validate minimum draw count
+            else if (numberToDraw <= 0) {
+                binding.etNumberToDraw.setError("Must draw at least 1 entrant");
+                binding.btnDraw.setEnabled(false);
+                binding.btnDraw.setAlpha(0.5f);
+            }
+            // Valid input
+            else {
+                binding.etNumberToDraw.setError(null);
+                binding.btnDraw.setEnabled(true);
+                binding.btnDraw.setAlpha(1.0f);
+            }
 
         } catch (NumberFormatException e) {
             binding.etNumberToDraw.setError("Please enter a valid number");
@@ -317,6 +274,7 @@ public class OrganizerEventDrawFragment extends Fragment {
 
     /**
      * Performs the lottery draw with validated input.
+     * Counts are re-fetched from the server first so the draw never relies on stale data.
      */
     private void performLotteryDraw() {
         String input = binding.etNumberToDraw.getText().toString().trim();
@@ -330,57 +288,38 @@ public class OrganizerEventDrawFragment extends Fragment {
             int numberToDraw = Integer.parseInt(input);
 
             // Validate with current counts
-            registrationRepository.getRegistrationCountByStatus(eventId, EntrantRegistrationStatus.CONFIRMED, new RegistrationRepository.CountCallback() {
+            registrationRepository.invalidateStatusHistogram(eventId);
+            registrationRepository.getStatusHistogram(eventId, new RegistrationRepository.HistogramCallback() {
                 @Override
-                public void onSuccess(int confirmedCount) {
-                    registrationRepository.getRegistrationCountByStatus(eventId, EntrantRegistrationStatus.WAITING, new RegistrationRepository.CountCallback() {
-                        @Override
-                        public void onSuccess(int waitingCount) {
-                            registrationRepository.getRegistrationCountByStatus(eventId, EntrantRegistrationStatus.CANCELLED, new RegistrationRepository.CountCallback() {
-                                @Override
-                                public void onSuccess(int cancelledCount) {
-                                    int drawableCount = waitingCount + cancelledCount;
-                                    int availableSpots = currentEvent.getMaxAttendees() - confirmedCount;
-
-                                    // Check available spots
-                                    if (numberToDraw > availableSpots) {
-                                        Toast.makeText(requireContext(), "Cannot draw more than available spots: " + availableSpots, Toast.LENGTH_LONG).show();
-                                        return;
-                                    }
-
-                                    // Check waiting and cancelled list size
-                                    if (numberToDraw > drawableCount) {
-                                        Toast.makeText(requireContext(), "Not enough entrants in waiting/cancelled list", Toast.LENGTH_LONG).show();
-                                        return;
-                                    }
-
-                                    // Check minimum draw count
-                                    if (numberToDraw <= 0) {
-                                        Toast.makeText(requireContext(), "Must draw at least 1 entrant", Toast.LENGTH_SHORT).show();
-                                        return;
-                                    }
-
-                                    // Execute the draw
-                                    executeRandomDraw(numberToDraw);
-                                }
-
-                                @Override
-                                public void onFailure(Exception e) {
-                                    Toast.makeText(requireContext(), "Failed to load cancelled count", Toast.LENGTH_SHORT).show();
-                                }
-                            });
-                        }
-
-                        @Override
-                        public void onFailure(Exception e) {
-                            Toast.makeText(requireContext(), "Failed to load waiting list", Toast.LENGTH_SHORT).show();
-                        }
-                    });
+                public void onSuccess(EnumMap<EntrantRegistrationStatus, Integer> counts) {
+                    updateCounts(counts);
+                    int availableSpots = currentEvent.getMaxAttendees() - confirmedCount;
+
+                    // Check available spots
+                    if (numberToDraw > availableSpots) {
+                        Toast.makeText(requireContext(), "Cannot draw more than available spots: " + availableSpots, Toast.LENGTH_LONG).show();
+                        return;
+                    }
+
+                    // Check waiting and cancelled list size
+                    if (numberToDraw > drawableCount) {
+                        Toast.makeText(requireContext(), "Not enough entrants in waiting/cancelled list", Toast.LENGTH_LONG).show();
+                        return;
+                    }
+
+                    // Check minimum draw count
+                    if (numberToDraw <= 0) {
+                        Toast.makeText(requireContext(), "Must draw at least 1 entrant", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+
+                    // Execute the draw
+                    executeRandomDraw(numberToDraw);
                 }
 
                 @Override
                 public void onFailure(Exception e) {
-                    Toast.makeText(requireContext(), "Failed to load event data", Toast.LENGTH_SHORT).show();
+                    Toast.makeText(requireContext(), "Failed to load registration counts", Toast.LENGTH_SHORT).show();
                 }
             });
 
@@ -390,123 +329,66 @@ public class OrganizerEventDrawFragment extends Fragment {
     }
 
     /**
-     * Executes random selection from waiting list.
+     * Runs the draw on the server with the {@code runLotteryDraw} function, which selects the
+     * winners, commits their status and notifies winners and losers next to the data. The
+     * function picks the seed and returns it with the summary, so the draw can be reproduced.
      */
     private void executeRandomDraw(int numberToDraw) {
-        registrationRepository.getRegistrationsByStatus(eventId, EntrantRegistrationStatus.WAITING, new RegistrationRepository.RegistrationListCallback() {
-            @Override
-            public void onSuccess(List<Registration> waitingRegistrations) {
-                registrationRepository.getRegistrationsByStatus(eventId, EntrantRegistrationStatus.CANCELLED, new RegistrationRepository.RegistrationListCallback() {
-                    @Override
-                    public void onSuccess(List<Registration> cancelledRegistrations) {
-                        List<Registration> drawableRegistrations = new ArrayList<>();
-                        drawableRegistrations.addAll(waitingRegistrations);
-                        drawableRegistrations.addAll(cancelledRegistrations);
-
-                        if (drawableRegistrations.isEmpty()) {
-                            Toast.makeText(requireContext(), "No entrants in waiting/cancelled list", Toast.LENGTH_SHORT).show();
-                            return;
-                        }
-
-                        // Shuffle and select random entrants
-                        Collections.shuffle(drawableRegistrations);
-                        int actualDrawCount = Math.min(numberToDraw, drawableRegistrations.size());
-                        List<Registration> selectedRegistrations = drawableRegistrations.subList(0, actualDrawCount);
-                        List<Registration> nonSelectedRegistrations = new ArrayList<>(drawableRegistrations.subList(actualDrawCount, drawableRegistrations.size()));
-
-                        // Update selected registrations status
-                        updateSelectedRegistrations(selectedRegistrations,nonSelectedRegistrations, actualDrawCount);
+        String eventTitle = currentEvent.getTitle();
+
+        Map<String, Object> notifications = new HashMap<>();
+        notifications.put("selectedTitle", NotificationTemplate.getAcceptedTitle(eventTitle));
+        notifications.put("selectedBody", NotificationTemplate.getAcceptedBody(eventTitle));
+        notifications.put("notSelectedTitle", NotificationTemplate.getNotAcceptedTitle(eventTitle));
+        notifications.put("notSelectedBody", NotificationTemplate.getNotAcceptedBody(eventTitle));
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("eventId", eventId);
+        data.put("count", numberToDraw);
+        data.put("notifications", notifications);
+
+        binding.btnDraw.setEnabled(false);
+        binding.btnDraw.setAlpha(0.5f);
+
+        FirebaseFunctions.getInstance()
+                .getHttpsCallable("runLotteryDraw")
+                .withTimeout(DRAW_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .call(data)
+                .addOnSuccessListener(result -> {
+                    registrationRepository.invalidateStatusHistogram(eventId);
+                    if (!isAdded()) {
+                        return;
                     }
 
-                    @Override
-                    public void onFailure(Exception e) {
-                        Toast.makeText(requireContext(), "Failed to load cancelled list: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    Map<?, ?> summary = (Map<?, ?>) result.getData();
+                    int committedWinners = ((Number) summary.get("committedWinners")).intValue();
+                    int failedWinners = ((Number) summary.get("failedWinners")).intValue()
+                            + ((Number) summary.get("skippedWinners")).intValue();
+                    Log.d(TAG, "Lottery draw for event " + eventId + " used seed " + summary.get("seed"));
+                    if (failedWinners > 0) {
+                        Log.e(TAG, failedWinners + " of " + numberToDraw + " winners could not be updated");
                     }
-                });
-            }
 
-            @Override
-            public void onFailure(Exception e) {
-                Toast.makeText(requireContext(), "Failed to load waiting list: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-            }
-        });
-    }
-
-    /**
-     * Updates selected registrations to SELECTED status and sends notifications.
-     */
-    private void updateSelectedRegistrations(List<Registration> selectedRegistrations,List<Registration> nonSelectedRegistrations,int actualDrawCount) {
-        // Prepare user IDs for notifications
-        List<String> selectedUserIds = new ArrayList<>();
-        List<String> nonSelectedUserIds = new ArrayList<>();
-
-        for (Registration registration : selectedRegistrations) {
-            selectedUserIds.add(registration.getEntrantId());
-        }
-        for (Registration registration: nonSelectedRegistrations){
-            nonSelectedUserIds.add(registration.getEntrantId()); // Corrected from getEventId() to getEntrantId()
-        }
-
-        // Update each registration status
-        for (Registration registration : selectedRegistrations) {
-            registration.setStatus(EntrantRegistrationStatus.SELECTED);
-            registrationRepository.updateRegistration(registration, new RegistrationRepository.BooleanCallback() {
-                @Override
-                public void onSuccess(boolean result) {
-                    showDrawResult(actualDrawCount, selectedRegistrations);
+                    showDrawResult(committedWinners, failedWinners);
                     loadEventData(); // Refresh the view
-
-                    // Send notifications to all selected entrants
-                    sendNotificationsToSelectedUsers(selectedUserIds,nonSelectedUserIds);
-                }
-
-                @Override
-                public void onFailure(Exception e) {
-                    // Individual update failures are handled silently
-                }
-            });
-        }
-    }
-
-    /**
-     * Sends notifications to users who were selected in the lottery draw.
-     */
-    private void sendNotificationsToSelectedUsers(List<String> selectedUserIds, List<String> nonSelectedUserIds) {
-        //notification for selected users
-        if (!selectedUserIds.isEmpty()) {
-            String acceptedTitle = NotificationTemplate.getAcceptedTitle(currentEvent.getTitle());
-            String acceptedBody = NotificationTemplate.getAcceptedBody(currentEvent.getTitle());
-
-            notificationController.sendNotification(
-                    acceptedTitle,
-                    acceptedBody,
-                    currentEvent.getId(),
-                    selectedUserIds,
-                    "action"
-            );
-        }
-
-        // notification for non-selected users
-        if (!nonSelectedUserIds.isEmpty()) {
-            String notAcceptedTitle = NotificationTemplate.getNotAcceptedTitle(currentEvent.getTitle());
-            String notAcceptedBody = NotificationTemplate.getNotAcceptedBody(currentEvent.getTitle());
-
-            notificationController.sendNotification(
-                    notAcceptedTitle,
-                    notAcceptedBody,
-                    currentEvent.getId(),
-                    nonSelectedUserIds,
-                    "action"
-            );
+                })
+                .addOnFailureListener(e -> {
+                    if (isAdded()) {
+                        Toast.makeText(requireContext(), "Failed to run draw: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                        validateInputNumber();
+                    }
+                });
     }
-        }
 
     /**
      * Shows result dialog after successful draw.
      */
-    private void showDrawResult(int actualDrawCount, List<Registration> selectedRegistrations) {
+    private void showDrawResult(int actualDrawCount, int failedCount) {
         String message = "Successfully selected " + actualDrawCount + " entrants!\n";
         message += "They have been notified to confirm their attendance.";
+        if (failedCount > 0) {
+            message += "\n" + failedCount + " entrants could not be updated and remain in the pool.";
+        }
 
         new AlertDialog.Builder(requireContext())
                 .setTitle("Lottery Draw Complete")
@@ -1,5 +1,6 @@
 package com.ualberta.eventlottery.ui.organizer.organizerHome;
 
+import android.app.AlertDialog;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -16,6 +17,7 @@ import com.ualberta.eventlottery.ui.organizer.organizerEventCreate.OrganizerEven
 import com.ualberta.eventlottery.ui.organizer.organizerEventDraw.OrganizerEventDrawFragment;
 import com.ualberta.eventlottery.ui.organizer.organizerEventInfo.OrganizerEventInfoFragment;
 import com.ualberta.eventlottery.utils.CSVExportUtil;
+import com.ualberta.eventlottery.utils.ExportFormat;
 import com.ualberta.eventlottery.utils.UserManager;
 import com.ualberta.static2.R;
 import com.ualberta.static2.databinding.FragmentOrganizerHomeBinding;
@@ -138,22 +140,7 @@ public class OrganizerHomeFragment extends Fragment {
         });
 
         // Set up export button click listener
-        adapter.setOnExportButtonClickListener(event -> {
-            // Export confirmed entrants to CSV
-            CSVExportUtil.exportConfirmedEntrants(requireContext(), event, new CSVExportUtil.ExportCallback() {
-                @Override
-                public void onSuccess(android.net.Uri fileUri) {
-                    // Success message is already shown by CSVExportUtil
-                    Log.d("OrganizerHomeFragment", "CSV export successful for event: " + event.getTitle());
-                }
-
-                @Override
-                public void onFailure(Exception e) {
-                    // Error message is already shown by CSVExportUtil
-                    Log.e("OrganizerHomeFragment", "CSV export failed for event: " + event.getTitle(), e);
-                }
-            });
-        });
+        adapter.setOnExportButtonClickListener(this::showExportOptions);
 
         // Set up event item click listener
         binding.lvOrganzierEventList.setOnItemClickListener((parent, view, position, id) -> {
@@ -166,6 +153,48 @@ public class OrganizerHomeFragment extends Fragment {
         });
     }
 
+    /**
+     * Asks the organizer what to export for an event and starts the export.
+     * Confirmed entrants are always written as CSV; all registrations are written in the format
+     * picked for their number unless the compact format is chosen.
+     *
+     * @param event the event to export
+     */
+    private void showExportOptions(Event event) {
+        String[] options = {
+                "Confirmed entrants (CSV)",
+                "All registrations",
+                "All registrations, compact (.rcol)"
+        };
+        CSVExportUtil.ExportCallback callback = new CSVExportUtil.ExportCallback() {
+            @Override
+            public void onSuccess(android.net.Uri fileUri) {
+                // Success message is already shown by CSVExportUtil
+                Log.d("OrganizerHomeFragment", "Export successful for event: " + event.getTitle());
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                // Error message is already shown by CSVExportUtil
+                Log.e("OrganizerHomeFragment", "Export failed for event: " + event.getTitle(), e);
+            }
+        };
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle("Export")
+                .setItems(options, (dialog, which) -> {
+                    if (which == 0) {
+                        CSVExportUtil.exportConfirmedEntrants(requireContext(), event, callback);
+                    } else if (which == 1) {
+                        CSVExportUtil.exportAllRegistrations(requireContext(), event, null, callback);
+                    } else {
+                        CSVExportUtil.exportAllRegistrations(requireContext(), event, ExportFormat.COLUMNAR, callback);
+                    }
+                })
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
     /**
      * Sets up button click listeners for creating new events.
      */
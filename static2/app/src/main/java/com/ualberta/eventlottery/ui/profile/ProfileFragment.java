@@ -2,9 +2,11 @@ package com.ualberta.eventlottery.ui.profile;
 
 import android.Manifest;
 import android.app.AlertDialog;
+import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -17,21 +19,18 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 
-import com.google.firebase.firestore.CollectionReference;
-import com.google.firebase.firestore.DocumentReference;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
 import com.ualberta.eventlottery.MainActivity;
+import com.ualberta.eventlottery.repository.CascadeDeleteService;
 import com.ualberta.eventlottery.utils.UserManager;
 import com.ualberta.static2.databinding.FragmentProfileBinding;
 
 public class ProfileFragment extends Fragment {
+    private static final String TAG = "ProfileFragment";
 
     private FragmentProfileBinding binding;
     private ProfileViewModel profileViewModel;
     private String userId;
     private String isAdmin;
-    private FirebaseFirestore db;
 
     private Boolean previousNotificationsEnabled = null;
 
@@ -142,10 +141,7 @@ public class ProfileFragment extends Fragment {
                     .setTitle("Delete User")
                     .setMessage("Are you sure you want to delete this user? This action cannot be undone.")
                     .setPositiveButton("Delete", (dialog, which) -> {
-                        Toast.makeText(getContext(), "Profile deleted", Toast.LENGTH_SHORT).show();
                         deleteUser(userId);
-                        deleteOrganizedEvents(userId);
-                        deleteUserRegistrations(userId);
                         if (userId == UserManager.getCurrentUserId()) {
                             Intent intent = new Intent(requireActivity(), MainActivity.class);
                             intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
@@ -171,50 +167,28 @@ public class ProfileFragment extends Fragment {
     }
 
     // User deletion
+    /**
+     * Deletes a user together with their registrations and the events they organize.
+     * The cascade keeps running after this screen is closed; the result is shown as a toast.
+     *
+     * @param userId The ID of the user to delete.
+     */
     public void deleteUser(String userId) {
-        db = FirebaseFirestore.getInstance();
-        DocumentReference userDocRef = db.collection("users").document(userId);
-        userDocRef.delete();
-        Toast.makeText(getContext(), "Profile deleted", Toast.LENGTH_SHORT).show();
-    }
-
-    public void deleteOrganizedEvents(String userId) {
-        db = FirebaseFirestore.getInstance();
-        CollectionReference eventDocRef = db.collection("events");
-
-        eventDocRef.get().addOnSuccessListener(querySnapshot -> {
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                if (doc != null && userId.equals(doc.getString("organizerId"))) {
-                    String eventId = doc.getId();
-                    deleteOtherUserRegistrations(eventId);
-                    eventDocRef.document(eventId).delete();
-                }
+        Context appContext = requireContext().getApplicationContext();
+        CascadeDeleteService.getInstance().deleteUser(userId, new CascadeDeleteService.ProgressCallback() {
+            @Override
+            public void onProgress(int deletedCount) {
+                Log.d(TAG, "Deleted " + deletedCount + " documents of user " + userId);
             }
-        });
-    }
 
-    public void deleteUserRegistrations(String userId) {
-        db = FirebaseFirestore.getInstance();
-        CollectionReference registrationDocRef = db.collection("registrations");
-
-        registrationDocRef.get().addOnSuccessListener(querySnapshot -> {
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                if (doc != null && userId.equals(doc.getString("entrantId"))) {
-                    registrationDocRef.document(doc.getId()).delete();
-                }
+            @Override
+            public void onSuccess(int deletedCount) {
+                Toast.makeText(appContext, "Profile deleted", Toast.LENGTH_SHORT).show();
             }
-        });
-    }
-
-    public void deleteOtherUserRegistrations(String eventId) {
-        db = FirebaseFirestore.getInstance();
-        CollectionReference registrationDocRef = db.collection("registrations");
 
-        registrationDocRef.get().addOnSuccessListener(querySnapshot -> {
-            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                if (doc != null && eventId.equals(doc.getString("eventId"))) {
-                    registrationDocRef.document(doc.getId()).delete();
-                }
+            @Override
+            public void onFailure(Exception e) {
+                Toast.makeText(appContext, "Failed to delete profile: " + e.getMessage(), Toast.LENGTH_SHORT).show();
             }
         });
     }
@@ -18,12 +18,17 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
 import com.google.firebase.messaging.FirebaseMessaging;
 import com.ualberta.eventlottery.admin.AdminMainActivity;
 import com.ualberta.eventlottery.entrant.EntrantMainActivity;
 import com.ualberta.eventlottery.model.User;
 import com.ualberta.eventlottery.organzier.OrganizerMainActivity;
+import com.ualberta.eventlottery.repository.SearchTokens;
+import com.ualberta.eventlottery.repository.UserDirectory;
 import com.ualberta.eventlottery.utils.UserManager;
 import com.ualberta.static2.R;
 
@@ -118,10 +123,14 @@ public class ProfileSetupActivity extends AppCompatActivity {
         Log.d("FCM", "Get method:"+userProfile.getFcmToken());
 
 
-        // Save to Firestore
-        db.collection("users")
-                .document(userId)
-                .set(userProfile)
+        // Save to Firestore, together with the tokens the admin user search queries and the
+        // contact timestamp that lets cached user directories pick up the new contact details
+        DocumentReference userRef = db.collection("users").document(userId);
+        WriteBatch batch = db.batch();
+        batch.set(userRef, userProfile);
+        batch.update(userRef, SearchTokens.FIELD, SearchTokens.tokensFor(name),
+                UserDirectory.FIELD_CONTACT_UPDATED_AT, FieldValue.serverTimestamp());
+        batch.commit()
                 .addOnSuccessListener(aVoid -> {
                     Toast.makeText(ProfileSetupActivity.this,
                             "Profile saved successfully", Toast.LENGTH_SHORT).show();
@@ -15,9 +15,12 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.ualberta.eventlottery.entrant.EntrantMainActivity;
 import com.ualberta.eventlottery.model.User;
+import com.ualberta.eventlottery.repository.SearchTokens;
+import com.ualberta.eventlottery.repository.UserDirectory;
 import com.ualberta.eventlottery.utils.UserManager;
 import com.ualberta.static2.R;
 
@@ -166,10 +169,12 @@ public class ProfileViewModel extends ViewModel {
         isLoading.setValue(true);
         Map<String, Object> updates = new HashMap<>();
         updates.put("name", name.getValue());
+        updates.put(SearchTokens.FIELD, SearchTokens.tokensFor(name.getValue()));
         updates.put("email", email.getValue());
         updates.put("phone", phone.getValue());
         updates.put("favRecCenter", favoriteRecCenter.getValue());
         updates.put("notificationsEnabled", notificationsEnabled.getValue());
+        updates.put(UserDirectory.FIELD_CONTACT_UPDATED_AT, FieldValue.serverTimestamp());
 
         db.collection("users")
                 .document(userId)
@@ -6,181 +6,105 @@ import android.os.Environment;
 import android.util.Log;
 import android.widget.Toast;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.Query;
 import com.ualberta.eventlottery.model.Entrant;
+import com.ualberta.eventlottery.model.EntrantRegistrationStatus;
 import com.ualberta.eventlottery.model.Event;
 import com.ualberta.eventlottery.model.Registration;
 import com.ualberta.eventlottery.repository.EntrantRepository;
+import com.ualberta.eventlottery.repository.ParseExecutor;
 import com.ualberta.eventlottery.repository.RegistrationRepository;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CSVExportUtil {
     private static final String TAG = "CSVExportUtil";
     private static final String CONFIRMED_HEADER = "Name,Email,Phone,User ID";
     private static final String WAITING_LIST_HEADER = "Name,Email,Phone,User ID";
+    // Entrant IDs per lookup, one whereIn query each.
+    private static final int LOOKUP_BATCH_SIZE = 30;
+    // Number of entrant lookups in flight at the same time.
+    private static final int MAX_LOOKUPS_IN_FLIGHT = 4;
 
     public static void exportConfirmedEntrants(Context context, Event event, ExportCallback callback) {
-        if (context == null || event == null) {
-            if (callback != null) callback.onFailure(new IllegalArgumentException("Context and Event cannot be null"));
-            return;
-        }
-
-        RegistrationRepository.getInstance().getConfirmedRegistrationsByEvent(event.getId(), new RegistrationRepository.RegistrationListCallback() {
-            @Override
-            public void onSuccess(List<Registration> confirmedRegistrations) {
-                if (confirmedRegistrations == null || confirmedRegistrations.isEmpty()) {
-                    String message = "No confirmed entrants to export for event: " + event.getTitle();
-                    Log.w(TAG, message);
-                    Toast.makeText(context, message, Toast.LENGTH_SHORT).show();
-                    if (callback != null) callback.onSuccess(null);
-                    return;
-                }
-
-                List<String> confirmedUserIds = new ArrayList<>();
-                for (Registration registration : confirmedRegistrations) {
-                    confirmedUserIds.add(registration.getEntrantId());
-                }
-
-                EntrantRepository.getInstance().getAllEntrants(new EntrantRepository.EntrantListCallback() {
-                    @Override
-                    public void onSuccess(List<Entrant> allEntrants) {
-                        try {
-                            StringBuilder csvContent = new StringBuilder();
-                            csvContent.append(CONFIRMED_HEADER).append("\n");
-
-                            int exportedCount = 0;
-                            for (Entrant entrant : allEntrants) {
-                                if (confirmedUserIds.contains(entrant.getUserId())) {
-                                    csvContent.append(formatEntrantForCSV(entrant)).append("\n");
-                                    exportedCount++;
-                                }
-                            }
-
-                            if (exportedCount == 0) {
-                                String message = "No entrant details found for confirmed users in event: " + event.getTitle();
-                                Log.w(TAG, message);
-                                Toast.makeText(context, message, Toast.LENGTH_SHORT).show();
-                                if (callback != null) callback.onSuccess(null);
-                                return;
-                            }
-
-                            String fileName = generateFileName(event, "confirmed");
-                            saveCSVFile(context, csvContent.toString(), fileName, callback);
-
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error creating CSV for event: " + event.getTitle(), e);
-                            Toast.makeText(context, "Failed to create CSV: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                            if (callback != null) callback.onFailure(e);
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Exception e) {
-                        Log.e(TAG, "Failed to fetch entrant data for CSV export", e);
-                        Toast.makeText(context, "Failed to fetch entrant data: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                        if (callback != null) callback.onFailure(e);
-                    }
-                });
-            }
-
-            @Override
-            public void onFailure(Exception e) {
-                String message = "Failed to fetch confirmed entrants: " + e.getMessage();
-                Log.e(TAG, message, e);
-                Toast.makeText(context, message, Toast.LENGTH_LONG).show();
-                if (callback != null) callback.onFailure(e);
-            }
-        });
+        exportEntrantsByStatus(context, event, EntrantRegistrationStatus.CONFIRMED, CONFIRMED_HEADER,
+                "confirmed", "confirmed", callback);
     }
 
     public static void exportWaitingListEntrants(Context context, Event event, ExportCallback callback) {
+        exportEntrantsByStatus(context, event, EntrantRegistrationStatus.WAITING, WAITING_LIST_HEADER,
+                "waiting list", "waiting_list", callback);
+    }
+
+    /**
+     * Streams the entrants with one registration status to a CSV file in the downloads folder.
+     * Only the registrants of the event are read, a page at a time, and every row is written as
+     * soon as its page is joined, so the export never holds the whole list in memory.
+     *
+     * @param context the context to show messages in
+     * @param event the event to export
+     * @param status the registration status of the entrants to export
+     * @param header the header row
+     * @param label describes the exported entrants in messages
+     * @param suffix the file name suffix
+     * @param callback notified of progress and the result, or null
+     */
+    private static void exportEntrantsByStatus(Context context, Event event, EntrantRegistrationStatus status,
+                                               String header, String label, String suffix, ExportCallback callback) {
         if (context == null || event == null) {
             if (callback != null) callback.onFailure(new IllegalArgumentException("Context and Event cannot be null"));
             return;
         }
 
-        RegistrationRepository.getInstance().getWaitingRegistrationsByEvent(event.getId(), new RegistrationRepository.RegistrationListCallback() {
-            @Override
-            public void onSuccess(List<Registration> waitingRegistrations) {
-                if (waitingRegistrations == null || waitingRegistrations.isEmpty()) {
-                    String message = "No waiting list entrants to export for event: " + event.getTitle();
-                    Log.w(TAG, message);
-                    Toast.makeText(context, message, Toast.LENGTH_SHORT).show();
-                    if (callback != null) callback.onSuccess(null);
-                    return;
-                }
-
-                List<String> waitListUserIds = new ArrayList<>();
-                for (Registration registration : waitingRegistrations) {
-                    waitListUserIds.add(registration.getEntrantId());
-                }
-
-                EntrantRepository.getInstance().getAllEntrants(new EntrantRepository.EntrantListCallback() {
-                    @Override
-                    public void onSuccess(List<Entrant> allEntrants) {
-                        try {
-                            StringBuilder csvContent = new StringBuilder();
-                            csvContent.append(WAITING_LIST_HEADER).append("\n");
-
-                            int exportedCount = 0;
-                            for (Entrant entrant : allEntrants) {
-                                if (waitListUserIds.contains(entrant.getUserId())) {
-                                    csvContent.append(formatEntrantForCSV(entrant)).append("\n");
-                                    exportedCount++;
-                                }
-                            }
-
-                            if (exportedCount == 0) {
-                                String message = "No entrant details found for waiting list users in event: " + event.getTitle();
-                                Log.w(TAG, message);
-                                Toast.makeText(context, message, Toast.LENGTH_SHORT).show();
-                                if (callback != null) callback.onSuccess(null);
-                                return;
-                            }
-
-                            String fileName = generateFileName(event, "confirmed");
-                            saveCSVFile(context, csvContent.toString(), fileName, callback);
-
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error creating CSV for event: " + event.getTitle(), e);
-                            Toast.makeText(context, "Failed to create CSV: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                            if (callback != null) callback.onFailure(e);
-                        }
+        File downloadsDir = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
+        File csvFile = new File(downloadsDir, generateFileName(event, suffix));
+        Query registrations = RegistrationRepository.getInstance().getRegistrationsByStatusQuery(event.getId(), status);
+
+        StreamingCsvExporter.export(registrations, csvFile, header,
+                        // Entrants whose user document is gone are left out, as before
+                        (registration, entrant) -> entrant != null ? formatEntrantForCSV(entrant) : null,
+                        exportedRows -> {
+                            if (callback != null) callback.onProgress(exportedRows);
+                        })
+                .addOnSuccessListener(result -> {
+                    if (result.getRowCount() == 0) {
+                        csvFile.delete();
+                        String message = result.getRegistrationCount() == 0
+                                ? "No " + label + " entrants to export for event: " + event.getTitle()
+                                : "No entrant details found for " + label + " users in event: " + event.getTitle();
+                        Log.w(TAG, message);
+                        Toast.makeText(context, message, Toast.LENGTH_SHORT).show();
+                        if (callback != null) callback.onSuccess(null);
+                        return;
                     }
 
-                    @Override
-                    public void onFailure(Exception e) {
-                        Log.e(TAG, "Failed to fetch entrant data for CSV export", e);
-                        Toast.makeText(context, "Failed to fetch entrant data: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                        if (callback != null) callback.onFailure(e);
-                    }
+                    String successMessage = String.format("CSV file saved to: %s", csvFile.getAbsolutePath());
+                    Log.d(TAG, successMessage + " (" + result.getRowCount() + " rows)");
+                    Toast.makeText(context, successMessage, Toast.LENGTH_LONG).show();
+                    if (callback != null) callback.onSuccess(Uri.fromFile(csvFile));
+                })
+                .addOnFailureListener(e -> {
+                    String message = "Failed to export " + label + " entrants: " + e.getMessage();
+                    Log.e(TAG, message, e);
+                    Toast.makeText(context, message, Toast.LENGTH_LONG).show();
+                    if (callback != null) callback.onFailure(e);
                 });
-            }
-
-            @Override
-            public void onFailure(Exception e) {
-                String message = "Failed to fetch waiting list: " + e.getMessage();
-                Log.e(TAG, message, e);
-                Toast.makeText(context, message, Toast.LENGTH_LONG).show();
-                if (callback != null) callback.onFailure(e);
-            }
-        });
     }
 
     private static String formatEntrantForCSV(Entrant entrant) {
-        String name = escapeCSVField(entrant.getName());
-        String email = escapeCSVField(entrant.getEmail());
-        String phone = escapeCSVField(entrant.getPhone());
-        String userId = escapeCSVField(entrant.getUserId());
-
-        return String.format("%s,%s,%s,%s", name, email, phone, userId);
+        return CsvFormat.formatEntrant(entrant);
     }
 
     private static String generateFileName(Event event, String suffix) {
@@ -194,95 +118,177 @@ public class CSVExportUtil {
         return String.format("%s_%s_%s.csv", cleanTitle, suffix, timestamp);
     }
 
-    public static void exportEventEntrantsToCSV(Context context, String eventId, String eventName,
-                                               List<Registration> registrations, ExportCallback callback) {
-        StringBuilder csvContent = new StringBuilder();
-
-        csvContent.append("Name,Email,Phone,Registration Status,Registration Date,Response Date,Cancellation Date\n");
-
-        for (Registration registration : registrations) {
-            EntrantRepository.getInstance().findEntrantById(registration.getEntrantId(), new EntrantRepository.EntrantCallback() {
-                @Override
-                public void onSuccess(Entrant entrant) {
-                    appendRegistrationData(csvContent, entrant, registration);
+    /**
+     * Exports every registration of an event, whatever its status, to a file in the downloads
+     * folder.
+     *
+     * @param context the context to show messages in
+     * @param event the event to export
+     * @param format the file format, or null to pick one by the number of registrations with
+     *               {@link ExportFormat#forRowCount(int)}
+     * @param callback notified of the result
+     */
+    public static void exportAllRegistrations(Context context, Event event, ExportFormat format,
+                                              ExportCallback callback) {
+        if (context == null || event == null) {
+            callback.onFailure(new IllegalArgumentException("Context and Event cannot be null"));
+            return;
+        }
 
-                    if (registrations.indexOf(registration) == registrations.size() - 1) {
-                        saveCSVFile(context, csvContent.toString(), eventName, callback);
+        RegistrationRepository.getInstance().getRegistrationsByEvent(event.getId(),
+                new RegistrationRepository.RegistrationListCallback() {
+                    @Override
+                    public void onSuccess(List<Registration> registrations) {
+                        if (registrations.isEmpty()) {
+                            String message = "No registrations to export for event: " + event.getTitle();
+                            Log.w(TAG, message);
+                            Toast.makeText(context, message, Toast.LENGTH_SHORT).show();
+                            callback.onSuccess(null);
+                            return;
+                        }
+                        ExportFormat chosen = format != null ? format : ExportFormat.forRowCount(registrations.size());
+                        exportEventEntrants(context, event.getId(), generateFileName(event, "registrations"),
+                                registrations, chosen, callback);
                     }
-                }
-
-                @Override
-                public void onFailure(Exception e) {
-                    Log.e(TAG, "Failed to load entrant data: " + registration.getEntrantId(), e);
-                    appendRegistrationData(csvContent, null, registration);
 
-                    if (registrations.indexOf(registration) == registrations.size() - 1) {
-                        saveCSVFile(context, csvContent.toString(), eventName, callback);
+                    @Override
+                    public void onFailure(Exception e) {
+                        String message = "Failed to load registrations: " + e.getMessage();
+                        Log.e(TAG, message, e);
+                        Toast.makeText(context, message, Toast.LENGTH_LONG).show();
+                        callback.onFailure(e);
                     }
-                }
-            });
-        }
-
-        if (registrations.isEmpty()) {
-            saveCSVFile(context, csvContent.toString(), eventName, callback);
-        }
+                });
     }
 
-    private static void appendRegistrationData(StringBuilder csvContent, Entrant entrant, Registration registration) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-
-        String name = entrant != null ? escapeCSVField(entrant.getName()) : "";
-        String email = entrant != null ? escapeCSVField(entrant.getEmail()) : "";
-        String phone = entrant != null ? escapeCSVField(entrant.getPhone()) : "";
-
-        String status = registration.getStatus() != null ? escapeCSVField(registration.getStatus().name()) : "";
-        String registeredAt = registration.getRegisteredAt() != null ?
-                escapeCSVField(dateFormat.format(registration.getRegisteredAt())) : "";
-        String respondedAt = registration.getRespondedAt() != null ?
-                escapeCSVField(dateFormat.format(registration.getRespondedAt())) : "";
-        String cancelledAt = registration.getCancelledAt() != null ?
-                escapeCSVField(dateFormat.format(registration.getCancelledAt())) : "";
+    /**
+     * Exports every registration of an event, with the contact details of its entrant, to a
+     * CSV file in the downloads folder.
+     *
+     * @param context the context to show messages in
+     * @param eventId the unique identifier of the event
+     * @param eventName the name of the file to write
+     * @param registrations the registrations to export
+     * @param callback notified of the result
+     */
+    public static void exportEventEntrantsToCSV(Context context, String eventId, String eventName,
+                                               List<Registration> registrations, ExportCallback callback) {
+        exportEventEntrants(context, eventId, eventName, registrations, ExportFormat.CSV, callback);
+    }
 
-        csvContent.append(String.format("%s,%s,%s,%s,%s,%s,%s\n",
-                name, email, phone, status, registeredAt, respondedAt, cancelledAt));
+    /**
+     * Exports every registration of an event, with the contact details of its entrant, to a
+     * file in the downloads folder. Entrants are looked up in batches of
+     * {@value #LOOKUP_BATCH_SIZE} IDs with at most {@value #MAX_LOOKUPS_IN_FLIGHT} batches in
+     * flight, and the rows keep the order of {@code registrations}. The file is written on a
+     * background thread once every lookup has finished, encoded row by row as it is written.
+     *
+     * @param context the context to show messages in
+     * @param eventId the unique identifier of the event
+     * @param eventName the name of the file to write, without the format's extension
+     * @param registrations the registrations to export
+     * @param format the file format; {@link ExportFormat#CSV_GZIP} and
+     *               {@link ExportFormat#COLUMNAR} are much smaller for large events
+     * @param callback notified of the result
+     */
+    public static void exportEventEntrants(Context context, String eventId, String eventName,
+                                           List<Registration> registrations, ExportFormat format,
+                                           ExportCallback callback) {
+        List<Registration> rows = new ArrayList<>(registrations);
+        File downloadsDir = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
+        File exportFile = new File(downloadsDir, format.fileName(eventName));
+
+        resolveEntrants(rows)
+                .onSuccessTask(ParseExecutor.getExecutor(), entrants -> {
+                    writeRegistrations(exportFile, rows, entrants, format);
+                    return Tasks.forResult(exportFile);
+                })
+                .addOnSuccessListener(file -> {
+                    String successMessage = String.format("Export saved to: %s", file.getAbsolutePath());
+                    Log.d(TAG, successMessage);
+                    Toast.makeText(context, successMessage, Toast.LENGTH_LONG).show();
+                    callback.onSuccess(Uri.fromFile(file));
+                })
+                .addOnFailureListener(e -> {
+                    exportFile.delete();
+                    Log.e(TAG, "Failed to save export file", e);
+                    Toast.makeText(context, "Failed to save export file: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                    callback.onFailure(e);
+                });
     }
 
-    private static String escapeCSVField(String field) {
-        if (field == null) {
-            return "";
+    /**
+     * Looks up the entrant of every registration.
+     *
+     * @param registrations the registrations to look up
+     * @return a task resolving to the entrants at the same positions as their registrations;
+     *         null where the entrant could not be loaded
+     */
+    private static Task<Entrant[]> resolveEntrants(List<Registration> registrations) {
+        Entrant[] entrants = new Entrant[registrations.size()];
+        int batchCount = (registrations.size() + LOOKUP_BATCH_SIZE - 1) / LOOKUP_BATCH_SIZE;
+        AtomicInteger nextBatch = new AtomicInteger();
+
+        List<Task<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(MAX_LOOKUPS_IN_FLIGHT, batchCount); i++) {
+            workers.add(lookupNextBatch(registrations, entrants, nextBatch, batchCount));
         }
+        return Tasks.whenAll(workers).onSuccessTask(v -> Tasks.forResult(entrants));
+    }
 
-        if (field.contains(",") || field.contains("\"") || field.contains("\n")) {
-            return "\"" + field.replace("\"", "\"\"") + "\"";
+    /**
+     * Takes the next unclaimed batch, fills in its slots and continues with the following
+     * batch until none are left. A failed batch leaves its slots empty, so those rows are
+     * exported without contact details.
+     */
+    private static Task<Void> lookupNextBatch(List<Registration> registrations, Entrant[] entrants,
+                                              AtomicInteger nextBatch, int batchCount) {
+        int batch = nextBatch.getAndIncrement();
+        if (batch >= batchCount) {
+            return Tasks.forResult(null);
+        }
+        int start = batch * LOOKUP_BATCH_SIZE;
+        int end = Math.min(start + LOOKUP_BATCH_SIZE, registrations.size());
+        List<String> entrantIds = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            entrantIds.add(registrations.get(i).getEntrantId());
         }
 
-        return field;
+        return EntrantRepository.getInstance().findEntrantsByIds(entrantIds)
+                .continueWithTask(task -> {
+                    if (task.isSuccessful()) {
+                        Map<String, Entrant> found = task.getResult();
+                        for (int i = start; i < end; i++) {
+                            entrants[i] = found.get(registrations.get(i).getEntrantId());
+                        }
+                    } else {
+                        Log.e(TAG, "Failed to load entrant data for rows " + start + "-" + (end - 1), task.getException());
+                    }
+                    return lookupNextBatch(registrations, entrants, nextBatch, batchCount);
+                });
     }
 
-    private static void saveCSVFile(Context context, String csvContent, String fileName, ExportCallback callback) {
-        try {
-            File downloadsDir = Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOWNLOADS);
-            File csvFile = new File(downloadsDir, fileName);
-
-            FileOutputStream fos = new FileOutputStream(csvFile);
-            fos.write(csvContent.getBytes());
-            fos.close();
-
-            String successMessage = String.format("CSV file saved to: %s", csvFile.getAbsolutePath());
-            Log.d(TAG, successMessage);
-
-            Toast.makeText(context, successMessage, Toast.LENGTH_LONG).show();
-
-            callback.onSuccess(Uri.fromFile(csvFile));
-        } catch (IOException e) {
-            Log.e(TAG, "Failed to save CSV file", e);
-            Toast.makeText(context, "Failed to save CSV file: " + e.getMessage(), Toast.LENGTH_LONG).show();
-            callback.onFailure(e);
+    private static void writeRegistrations(File file, List<Registration> registrations, Entrant[] entrants,
+                                           ExportFormat format) throws IOException {
+        // The stream is closed even if the sink cannot be opened on it
+        try (OutputStream out = new FileOutputStream(file);
+             RegistrationSink sink = format.open(out)) {
+            for (int i = 0; i < registrations.size(); i++) {
+                sink.write(registrations.get(i), entrants[i]);
+            }
         }
     }
 
     public interface ExportCallback {
         void onSuccess(Uri fileUri);
         void onFailure(Exception e);
+
+        /**
+         * Called on the main thread while a streaming export is running.
+         *
+         * @param exportedRows the number of rows written so far
+         */
+        default void onProgress(int exportedRows) {
+        }
     }
 }
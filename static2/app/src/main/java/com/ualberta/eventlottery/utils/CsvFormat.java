@@ -0,0 +1,78 @@
+package com.ualberta.eventlottery.utils;
+
+import com.ualberta.eventlottery.model.Entrant;
+import com.ualberta.eventlottery.model.Registration;
+
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+
+/**
+ * Formats entrants and registrations as CSV rows for {@link CSVExportUtil}.
+ *
+ * @author static2
+ * @version 1.0
+ */
+public final class CsvFormat {
+
+    private CsvFormat() {
+    }
+
+    /**
+     * Formats an entrant as a {@code Name,Email,Phone,User ID} row, without a line break.
+     *
+     * @param entrant the entrant to format
+     * @return the CSV row
+     */
+    public static String formatEntrant(Entrant entrant) {
+        String name = escapeField(entrant.getName());
+        String email = escapeField(entrant.getEmail());
+        String phone = escapeField(entrant.getPhone());
+        String userId = escapeField(entrant.getUserId());
+
+        return String.format("%s,%s,%s,%s", name, email, phone, userId);
+    }
+
+    /**
+     * Appends a registration row, with the entrant's contact details when they could be loaded.
+     *
+     * @param csvContent the builder to append to
+     * @param entrant the entrant who registered, or null if they could not be loaded
+     * @param registration the registration to append
+     */
+    public static void appendRegistration(StringBuilder csvContent, Entrant entrant, Registration registration) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
+
+        String name = entrant != null ? escapeField(entrant.getName()) : "";
+        String email = entrant != null ? escapeField(entrant.getEmail()) : "";
+        String phone = entrant != null ? escapeField(entrant.getPhone()) : "";
+
+        String status = registration.getStatus() != null ? escapeField(registration.getStatus().name()) : "";
+        String registeredAt = registration.getRegisteredAt() != null ?
+                escapeField(dateFormat.format(registration.getRegisteredAt())) : "";
+        String respondedAt = registration.getRespondedAt() != null ?
+                escapeField(dateFormat.format(registration.getRespondedAt())) : "";
+        String cancelledAt = registration.getCancelledAt() != null ?
+                escapeField(dateFormat.format(registration.getCancelledAt())) : "";
+
+        csvContent.append(String.format("%s,%s,%s,%s,%s,%s,%s\n",
+                name, email, phone, status, registeredAt, respondedAt, cancelledAt));
+    }
+
+    /**
+     * Quotes a field if it contains a comma, quote or line break.
+     *
+     * @param field the raw field value
+     * @return the escaped field, or an empty string for null
+     */
+    public static String escapeField(String field) {
+        if (field == null) {
+            return "";
+        }
+
+        if (field.contains(",") || field.contains("\"") || field.contains("\n")) {
+            return "\"" + field.replace("\"", "\"\"") + "\"";
+        }
+
+        return field;
+    }
+}
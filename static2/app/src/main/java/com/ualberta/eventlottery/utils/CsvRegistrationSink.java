@@ -0,0 +1,52 @@
+package com.ualberta.eventlottery.utils;
+
+import com.ualberta.eventlottery.model.Entrant;
+import com.ualberta.eventlottery.model.Registration;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes registrations as UTF-8 CSV rows formatted by {@link CsvFormat}.
+ *
+ * @author static2
+ * @version 1.0
+ */
+public class CsvRegistrationSink implements RegistrationSink {
+    /**
+     * Header row of the registration export.
+     */
+    public static final String HEADER =
+            "Name,Email,Phone,Registration Status,Registration Date,Response Date,Cancellation Date";
+
+    private final Writer writer;
+    private final StringBuilder row = new StringBuilder();
+
+    /**
+     * Creates a sink and writes the header row.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the header cannot be written
+     */
+    public CsvRegistrationSink(OutputStream out) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(HEADER);
+        writer.write('\n');
+    }
+
+    @Override
+    public void write(Registration registration, Entrant entrant) throws IOException {
+        row.setLength(0);
+        CsvFormat.appendRegistration(row, entrant, registration);
+        writer.append(row);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,96 @@
+package com.ualberta.eventlottery.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * File formats a registration export can be written in.
+ *
+ * @author static2
+ * @version 1.0
+ */
+public enum ExportFormat {
+    /**
+     * Plain UTF-8 CSV, readable by any spreadsheet.
+     */
+    CSV(".csv"),
+
+    /**
+     * The same CSV, gzip-compressed while it is written.
+     */
+    CSV_GZIP(".csv.gz"),
+
+    /**
+     * The compact column-oriented format of {@link ColumnarRegistrationSink}.
+     */
+    COLUMNAR(".rcol");
+
+    /**
+     * Largest export, in rows, that is still written as plain CSV by {@link #forRowCount(int)}.
+     */
+    public static final int PLAIN_CSV_MAX_ROWS = 5000;
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Picks the format for an export of the given size when the organizer has not chosen one:
+     * plain CSV while it is small enough to open and share directly, gzip CSV above
+     * {@value #PLAIN_CSV_MAX_ROWS} rows.
+     *
+     * @param rowCount the number of rows to export
+     * @return the format to write the export in
+     */
+    public static ExportFormat forRowCount(int rowCount) {
+        return rowCount > PLAIN_CSV_MAX_ROWS ? CSV_GZIP : CSV;
+    }
+
+    /**
+     * @return the file extension, including the leading dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Gives a file name this format's extension, replacing the extension of any export format
+     * it already ends with, so "Swim.csv" exported as {@link #CSV_GZIP} becomes "Swim.csv.gz".
+     *
+     * @param baseName the file name
+     * @return the file name with the extension
+     */
+    public String fileName(String baseName) {
+        String previous = "";
+        for (ExportFormat format : values()) {
+            if (baseName.endsWith(format.extension) && format.extension.length() > previous.length()) {
+                previous = format.extension;
+            }
+        }
+        return baseName.substring(0, baseName.length() - previous.length()) + extension;
+    }
+
+    /**
+     * Starts writing an export to a stream.
+     *
+     * @param out the stream to write to; closed when the sink is closed
+     * @return the sink to write the registrations to
+     * @throws IOException if the header cannot be written
+     */
+    public RegistrationSink open(OutputStream out) throws IOException {
+        switch (this) {
+            case CSV_GZIP:
+                return new CsvRegistrationSink(new GZIPOutputStream(out, GZIP_BUFFER_SIZE));
+            case COLUMNAR:
+                return new ColumnarRegistrationSink(out);
+            case CSV:
+            default:
+                return new CsvRegistrationSink(out);
+        }
+    }
+}
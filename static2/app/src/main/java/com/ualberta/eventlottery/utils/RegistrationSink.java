@@ -0,0 +1,26 @@
+package com.ualberta.eventlottery.utils;
+
+import com.ualberta.eventlottery.model.Entrant;
+import com.ualberta.eventlottery.model.Registration;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination of a registration export in one {@link ExportFormat}. Rows are written one at a
+ * time and encoded as they arrive, so an export never has to be built in memory first.
+ * Closing the sink finishes the file and closes the underlying stream.
+ *
+ * @author static2
+ * @version 1.0
+ */
+public interface RegistrationSink extends Closeable {
+    /**
+     * Writes one registration.
+     *
+     * @param registration the registration to write
+     * @param entrant the entrant who registered, or null if they could not be loaded
+     * @throws IOException if the underlying stream fails
+     */
+    void write(Registration registration, Entrant entrant) throws IOException;
+}
@@ -0,0 +1,221 @@
+package com.ualberta.eventlottery.utils;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.Query;
+import com.ualberta.eventlottery.model.Entrant;
+import com.ualberta.eventlottery.model.Registration;
+import com.ualberta.eventlottery.repository.EntrantRepository;
+import com.ualberta.eventlottery.repository.ParseExecutor;
+import com.ualberta.eventlottery.repository.RegistrationRepository;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes a query of registrations, joined with the entrants who made them, to a CSV file
+ * without holding the export in memory.
+ *
+ * <p>Registrations are read {@value #PAGE_SIZE} at a time in document ID order. For every page
+ * only the entrants of that page are fetched, in {@code whereIn} chunks, and joined through a
+ * map keyed by entrant ID. The rows are written through a buffered UTF-8 writer and the page
+ * is dropped before the next one is read, so memory use is bounded by one page however many
+ * entrants are exported. Parsing and writing run on the {@link ParseExecutor}.</p>
+ *
+ * @author static2
+ * @version 1.0
+ */
+public final class StreamingCsvExporter {
+
+    /**
+     * Number of registrations read and written per page.
+     */
+    public static final int PAGE_SIZE = 300;
+
+    /**
+     * Formats one registration as a CSV row.
+     */
+    public interface RowFormatter {
+        /**
+         * @param registration the registration to format
+         * @param entrant the entrant who registered, or null if they could not be found
+         * @return the row without a line break, or null to leave the registration out
+         */
+        String format(Registration registration, Entrant entrant);
+    }
+
+    /**
+     * Receives the progress of an export.
+     */
+    public interface ProgressListener {
+        /**
+         * Called on the main thread after every written page.
+         *
+         * @param exportedRows the number of rows written so far
+         */
+        void onProgress(int exportedRows);
+    }
+
+    /**
+     * The outcome of a finished export.
+     */
+    public static final class Result {
+        private final File file;
+        private final int registrationCount;
+        private final int rowCount;
+
+        Result(File file, int registrationCount, int rowCount) {
+            this.file = file;
+            this.registrationCount = registrationCount;
+            this.rowCount = rowCount;
+        }
+
+        /**
+         * @return the written file
+         */
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * @return the number of registrations read
+         */
+        public int getRegistrationCount() {
+            return registrationCount;
+        }
+
+        /**
+         * @return the number of rows written, not counting the header
+         */
+        public int getRowCount() {
+            return rowCount;
+        }
+    }
+
+    private final Query registrations;
+    private final RowFormatter formatter;
+    private final ProgressListener progress;
+    private final Executor executor = ParseExecutor.getExecutor();
+
+    private Writer writer;
+    private DocumentSnapshot lastDocument;
+    private int registrationCount;
+    private int rowCount;
+
+    private StreamingCsvExporter(Query registrations, RowFormatter formatter, ProgressListener progress) {
+        this.registrations = registrations;
+        this.formatter = formatter;
+        this.progress = progress;
+    }
+
+    /**
+     * Exports a query of registrations to a file. The file is deleted again if the export fails.
+     *
+     * @param registrations the registrations to export
+     * @param file the file to write; an existing file is overwritten
+     * @param header the header row, without a line break
+     * @param formatter formats every registration as a row
+     * @param progress notified after every page, or null
+     * @return a task resolving to the result of the export; listeners added without an
+     *         executor run on the main thread
+     */
+    public static Task<Result> export(Query registrations, File file, String header,
+                                      RowFormatter formatter, ProgressListener progress) {
+        StreamingCsvExporter exporter = new StreamingCsvExporter(registrations, formatter, progress);
+        return Tasks.call(exporter.executor, () -> {
+                    exporter.open(file, header);
+                    return null;
+                })
+                .onSuccessTask(v -> exporter.exportNextPage())
+                .continueWithTask(exporter.executor, task -> {
+                    Exception failure = task.getException();
+                    try {
+                        exporter.close();
+                    } catch (IOException e) {
+                        if (failure == null) {
+                            failure = e;
+                        }
+                    }
+                    if (failure != null) {
+                        file.delete();
+                        return Tasks.forException(failure);
+                    }
+                    return Tasks.forResult(new Result(file, exporter.registrationCount, exporter.rowCount));
+                });
+    }
+
+    private void open(File file, String header) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+        writer.write(header);
+        writer.write('\n');
+    }
+
+    private void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    /**
+     * Reads the next page of registrations, joins and writes it, and continues with the
+     * following page until the query is exhausted.
+     */
+    private Task<Void> exportNextPage() {
+        Query page = registrations.orderBy(FieldPath.documentId()).limit(PAGE_SIZE);
+        if (lastDocument != null) {
+            page = page.startAfter(lastDocument);
+        }
+        return page.get()
+                .onSuccessTask(executor, snapshot -> {
+                    List<DocumentSnapshot> documents = snapshot.getDocuments();
+                    List<Registration> pageRegistrations = new ArrayList<>(documents.size());
+                    List<String> entrantIds = new ArrayList<>(documents.size());
+                    for (DocumentSnapshot document : documents) {
+                        Registration registration = RegistrationRepository.getInstance().documentToRegistration(document);
+                        if (registration != null) {
+                            pageRegistrations.add(registration);
+                            entrantIds.add(registration.getEntrantId());
+                        }
+                    }
+                    if (!documents.isEmpty()) {
+                        lastDocument = documents.get(documents.size() - 1);
+                    }
+                    boolean endReached = documents.size() < PAGE_SIZE;
+
+                    return EntrantRepository.getInstance().findEntrantsByIds(entrantIds)
+                            .onSuccessTask(executor, entrants -> {
+                                writeRows(pageRegistrations, entrants);
+                                return Tasks.forResult(endReached);
+                            });
+                })
+                .onSuccessTask(endReached -> {
+                    if (progress != null) {
+                        progress.onProgress(rowCount);
+                    }
+                    return endReached ? Tasks.forResult(null) : exportNextPage();
+                });
+    }
+
+    private void writeRows(List<Registration> pageRegistrations, Map<String, Entrant> entrants) throws IOException {
+        for (Registration registration : pageRegistrations) {
+            registrationCount++;
+            String row = formatter.format(registration, entrants.get(registration.getEntrantId()));
+            if (row != null) {
+                writer.write(row);
+                writer.write('\n');
+                rowCount++;
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.ualberta.static2.export;
+
+import static org.junit.Assert.*;
+
+import com.ualberta.eventlottery.model.Entrant;
+import com.ualberta.eventlottery.model.EntrantRegistrationStatus;
+import com.ualberta.eventlottery.model.Registration;
+import com.ualberta.eventlottery.utils.ColumnarRegistrationSink;
+import com.ualberta.eventlottery.utils.ExportFormat;
+import com.ualberta.eventlottery.utils.RegistrationSink;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Unit tests for the registration export formats.
+ * Tests that gzip CSV holds the plain CSV and that the columnar format round-trips.
+ */
+public class RegistrationExportFormatTest {
+
+    private static final int ROWS = ColumnarRegistrationSink.CHUNK_ROWS + 10;
+
+    @Test
+    public void testFileNameGetsExtensionOnce() {
+        assertEquals("Swim.csv.gz", ExportFormat.CSV_GZIP.fileName("Swim"));
+        assertEquals("Swim.csv", ExportFormat.CSV.fileName("Swim.csv"));
+    }
+
+    @Test
+    public void testFileNameReplacesOtherExportExtension() {
+        assertEquals("Swim.csv.gz", ExportFormat.CSV_GZIP.fileName("Swim.csv"));
+        assertEquals("Swim.csv", ExportFormat.CSV.fileName("Swim.csv.gz"));
+        assertEquals("Swim.rcol", ExportFormat.COLUMNAR.fileName("Swim.csv.gz"));
+        assertEquals("Swim.txt.csv", ExportFormat.CSV.fileName("Swim.txt"));
+    }
+
+    @Test
+    public void testFormatForRowCount() {
+        assertEquals(ExportFormat.CSV, ExportFormat.forRowCount(0));
+        assertEquals(ExportFormat.CSV, ExportFormat.forRowCount(ExportFormat.PLAIN_CSV_MAX_ROWS));
+        assertEquals(ExportFormat.CSV_GZIP, ExportFormat.forRowCount(ExportFormat.PLAIN_CSV_MAX_ROWS + 1));
+        assertEquals("Swim_registrations.csv.gz",
+                ExportFormat.forRowCount(50000).fileName("Swim_registrations.csv"));
+    }
+
+    @Test
+    public void testGzipCsvMatchesPlainCsv() throws IOException {
+        byte[] plain = export(ExportFormat.CSV);
+        byte[] gzip = export(ExportFormat.CSV_GZIP);
+
+        assertTrue(gzip.length < plain.length);
+        assertArrayEquals(plain, gunzip(gzip));
+    }
+
+    @Test
+    public void testColumnarRoundTrip() throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(gunzip(export(ExportFormat.COLUMNAR))));
+        byte[] magic = new byte[4];
+        in.readFully(magic);
+        assertArrayEquals(ColumnarRegistrationSink.MAGIC, magic);
+        assertEquals(ColumnarRegistrationSink.VERSION, in.readUnsignedByte());
+        String[] dictionary = new String[(int) readVarLong(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(in);
+        }
+
+        int row = 0;
+        int chunkRows;
+        while ((chunkRows = (int) readVarLong(in)) != 0) {
+            String[] names = readStrings(in, chunkRows);
+            String[] emails = readStrings(in, chunkRows);
+            readStrings(in, chunkRows);
+            int[] statuses = new int[chunkRows];
+            for (int i = 0; i < chunkRows; i++) {
+                statuses[i] = in.readUnsignedByte();
+            }
+            Long[] registeredAt = readTimestamps(in, chunkRows);
+            Long[] respondedAt = readTimestamps(in, chunkRows);
+            readTimestamps(in, chunkRows);
+            double[] latitudes = readDoubles(in, chunkRows);
+            readDoubles(in, chunkRows);
+
+            for (int i = 0; i < chunkRows; i++, row++) {
+                Registration expected = registration(row);
+                Entrant entrant = entrant(row);
+                assertEquals(entrant != null ? entrant.getName() : null, names[i]);
+                assertEquals(entrant != null ? entrant.getEmail() : null, emails[i]);
+                assertEquals(expected.getStatus().name(), dictionary[statuses[i]]);
+                assertEquals(Long.valueOf(expected.getRegisteredAt().getTime()), registeredAt[i]);
+                assertEquals(expected.getRespondedAt() != null ? expected.getRespondedAt().getTime() : null, respondedAt[i]);
+                if (expected.getLatitude() != null) {
+                    assertEquals(expected.getLatitude(), latitudes[i], 0);
+                } else {
+                    assertTrue(Double.isNaN(latitudes[i]));
+                }
+            }
+        }
+        assertEquals(ROWS, row);
+    }
+
+    private static byte[] export(ExportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RegistrationSink sink = format.open(out)) {
+            for (int i = 0; i < ROWS; i++) {
+                sink.write(registration(i), entrant(i));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static Registration registration(int i) {
+        EntrantRegistrationStatus[] statuses = EntrantRegistrationStatus.values();
+        long registered = 1_700_000_000_000L + i * 60_000L;
+        Registration registration = new Registration("r" + i, "e1", "u" + i, statuses[i % statuses.length],
+                new Date(registered), i % 3 == 0 ? new Date(registered - 5_000L) : null, null);
+        if (i % 2 == 0) {
+            registration.setLatitude(53.5 + i / 1e6);
+            registration.setLongitude(-113.5);
+        }
+        return registration;
+    }
+
+    private static Entrant entrant(int i) {
+        // Every hundredth entrant could not be loaded.
+        return i % 100 == 99 ? null : new Entrant("u" + i, "Entrant, " + i, "e" + i + "@example.com", null, null);
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String[] readStrings(DataInputStream in, int rows) throws IOException {
+        String[] column = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            column[i] = readString(in);
+        }
+        return column;
+    }
+
+    private static Long[] readTimestamps(DataInputStream in, int rows) throws IOException {
+        Long[] column = new Long[rows];
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            long encoded = readVarLong(in);
+            if (encoded == 0) {
+                continue;
+            }
+            long zigzag = encoded - 1;
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            column[i] = previous;
+        }
+        return column;
+    }
+
+    private static double[] readDoubles(DataInputStream in, int rows) throws IOException {
+        double[] column = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            column[i] = in.readDouble();
+        }
+        return column;
+    }
+}
@@ -0,0 +1,116 @@
+package com.ualberta.static2.home;
+
+import static org.junit.Assert.*;
+
+import com.ualberta.eventlottery.model.Event;
+import com.ualberta.eventlottery.model.EventCategory;
+import com.ualberta.eventlottery.model.TimeRange;
+import com.ualberta.eventlottery.ui.home.entrant.EventFilter;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for EventFilter.
+ * Tests each filter dimension, the "everything selected" shortcuts and re-indexing.
+ */
+public class EventFilterTest {
+
+    private Event createEvent(String id, String category, int calendarDay, LocalTime dailyStart) {
+        Event event = new Event(id, "organizer", "Event " + id, "");
+        event.setCategory(category);
+        Calendar cal = Calendar.getInstance();
+        cal.set(2025, Calendar.JANUARY, 1, 12, 0, 0);
+        cal.set(Calendar.DAY_OF_WEEK, calendarDay);
+        event.setStartTime(cal.getTime());
+        event.setDailyStartTime(dailyStart);
+        return event;
+    }
+
+    private List<Event> createEvents() {
+        List<Event> events = new ArrayList<>();
+        events.add(createEvent("sunday-morning-sports", "Sports", Calendar.SUNDAY, LocalTime.of(9, 0)));
+        events.add(createEvent("monday-evening-music", "MUSIC", Calendar.MONDAY, LocalTime.of(19, 30)));
+        events.add(createEvent("friday-noon-fitness", "Fitness", Calendar.FRIDAY, LocalTime.of(12, 0)));
+        events.add(createEvent("uncategorized", null, Calendar.MONDAY, LocalTime.of(9, 0)));
+        return events;
+    }
+
+    private List<String> ids(List<Event> events) {
+        List<String> ids = new ArrayList<>();
+        for (Event event : events) {
+            ids.add(event.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void testNothingSelectedKeepsEverything() {
+        List<Event> events = createEvents();
+        assertEquals(events, EventFilter.applyAllFilters(events, null, null, null));
+        assertEquals(events, EventFilter.applyAllFilters(events, Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList()));
+    }
+
+    @Test
+    public void testAllCategoriesDropsUncategorized() {
+        List<Event> result = EventFilter.applyAllFilters(createEvents(), Arrays.asList(EventCategory.values()),
+                Arrays.asList(DayOfWeek.values()), Arrays.asList(TimeRange.values()));
+        assertEquals(Arrays.asList("sunday-morning-sports", "monday-evening-music", "friday-noon-fitness"),
+                ids(result));
+    }
+
+    @Test
+    public void testCategoryIsCaseInsensitive() {
+        List<Event> result = EventFilter.applyAllFilters(createEvents(),
+                Arrays.asList(EventCategory.SPORTS, EventCategory.MUSIC), null, null);
+        assertEquals(Arrays.asList("sunday-morning-sports", "monday-evening-music"), ids(result));
+    }
+
+    @Test
+    public void testDayOfWeekMatchesCalendarDay() {
+        List<Event> result = EventFilter.applyAllFilters(createEvents(), null,
+                Collections.singletonList(DayOfWeek.SUNDAY), null);
+        assertEquals(Collections.singletonList("sunday-morning-sports"), ids(result));
+    }
+
+    @Test
+    public void testTimeRangeAddsEachEventOnce() {
+        List<Event> result = EventFilter.applyAllFilters(createEvents(), null, null,
+                Arrays.asList(TimeRange.MORNING, TimeRange.AFTERNOON));
+        assertEquals(Arrays.asList("sunday-morning-sports", "friday-noon-fitness", "uncategorized"), ids(result));
+    }
+
+    @Test
+    public void testSelectionChangeKeepsIndex() {
+        EventFilter filter = new EventFilter();
+        filter.setEvents(createEvents());
+        filter.setTimeRanges(Collections.singletonList(TimeRange.EVENING));
+        assertEquals(Collections.singletonList("monday-evening-music"), ids(filter.apply()));
+
+        filter.setTimeRanges(null);
+        filter.setDaysOfWeek(Collections.singletonList(DayOfWeek.MONDAY));
+        assertEquals(Arrays.asList("monday-evening-music", "uncategorized"), ids(filter.apply()));
+    }
+
+    @Test
+    public void testReparsedEventIsReindexed() {
+        EventFilter filter = new EventFilter();
+        filter.setCategories(Collections.singletonList(EventCategory.SPORTS));
+        List<Event> events = createEvents();
+        filter.setEvents(events);
+        assertEquals(Collections.singletonList("sunday-morning-sports"), ids(filter.apply()));
+
+        List<Event> updated = new ArrayList<>(events);
+        updated.set(1, createEvent("monday-evening-music", "Sports", Calendar.MONDAY, LocalTime.of(19, 30)));
+        filter.setEvents(updated);
+        assertEquals(Arrays.asList("sunday-morning-sports", "monday-evening-music"), ids(filter.apply()));
+    }
+}
@@ -0,0 +1,114 @@
+package com.ualberta.static2.lottery;
+
+import static org.junit.Assert.*;
+
+import com.ualberta.eventlottery.lottery.LotteryEngine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for LotteryEngine.
+ * Tests winner/loser partitioning, clamping, seeded reproducibility and that draws match
+ * the runLotteryDraw function: the vectors below are also asserted in
+ * functions/test/runLotteryDraw.spec.js.
+ */
+public class LotteryEngineTest {
+
+    private List<String> createPool(int size) {
+        return createPool(size, "entrant");
+    }
+
+    private List<String> createPool(int size, String prefix) {
+        List<String> pool = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            pool.add(prefix + i);
+        }
+        return pool;
+    }
+
+    @Test
+    public void testDrawPartitionsPool() {
+        List<String> pool = createPool(100);
+        LotteryEngine.DrawResult<String> result = new LotteryEngine().draw(pool, 10);
+
+        assertEquals(10, result.getWinners().size());
+        assertEquals(90, result.getLosers().size());
+
+        Set<String> seen = new HashSet<>(result.getWinners());
+        seen.addAll(result.getLosers());
+        assertEquals(100, seen.size());
+        assertTrue(seen.containsAll(pool));
+    }
+
+    @Test
+    public void testDrawDoesNotModifyPool() {
+        List<String> pool = createPool(20);
+        List<String> copy = new ArrayList<>(pool);
+        new LotteryEngine().draw(pool, 5);
+        assertEquals(copy, pool);
+    }
+
+    @Test
+    public void testCountIsClampedToPoolSize() {
+        LotteryEngine.DrawResult<String> result = new LotteryEngine().draw(createPool(5), 50);
+        assertEquals(5, result.getWinners().size());
+        assertTrue(result.getLosers().isEmpty());
+    }
+
+    @Test
+    public void testEmptyPool() {
+        LotteryEngine.DrawResult<String> result = new LotteryEngine().draw(new ArrayList<>(), 3);
+        assertTrue(result.getWinners().isEmpty());
+        assertTrue(result.getLosers().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCountThrows() {
+        new LotteryEngine().draw(createPool(5), -1);
+    }
+
+    @Test
+    public void testSameSeedIsReproducible() {
+        List<String> pool = createPool(1000);
+        LotteryEngine.DrawResult<String> first = new LotteryEngine(42L).draw(pool, 25);
+        LotteryEngine.DrawResult<String> second = new LotteryEngine(42L).draw(pool, 25);
+
+        assertEquals("42", first.getSeed());
+        assertEquals(first.getWinners(), second.getWinners());
+        assertEquals(first.getLosers(), second.getLosers());
+    }
+
+    @Test
+    public void testSelectIndicesIsPermutation() {
+        int[] indices = new LotteryEngine(7L).selectIndices(50, 10);
+        boolean[] seen = new boolean[50];
+        for (int index : indices) {
+            assertFalse(seen[index]);
+            seen[index] = true;
+        }
+        assertEquals(50, indices.length);
+    }
+
+    @Test
+    public void testSelectIndicesMatchesServer() {
+        int[] expected = {168, 289, 186, 621, 961, 200, 217, 264, 298, 938};
+        assertArrayEquals(expected, Arrays.copyOf(new LotteryEngine(42L).selectIndices(1000, 10), 10));
+        assertArrayEquals(expected, Arrays.copyOf(new LotteryEngine("42").selectIndices(1000, 10), 10));
+
+        int[] large = new LotteryEngine("1760000000000").selectIndices(50000, 5);
+        assertArrayEquals(new int[]{38286, 45510, 28782, 23681, 37263}, Arrays.copyOf(large, 5));
+    }
+
+    @Test
+    public void testDrawMatchesServer() {
+        LotteryEngine.DrawResult<String> result = new LotteryEngine("audit-7").draw(createPool(10, "reg"), 3);
+        assertEquals(Arrays.asList("reg3", "reg5", "reg7"), result.getWinners());
+        assertEquals(Arrays.asList("reg0", "reg1", "reg2", "reg4", "reg6", "reg8", "reg9"), result.getLosers());
+    }
+}
@@ -2,6 +2,7 @@ package com.ualberta.static2.notification;
 
 import static org.junit.Assert.*;
 
+import com.ualberta.eventlottery.model.NotificationLog;
 import com.ualberta.eventlottery.notification.NotificationModel;
 
 import org.junit.Before;
@@ -75,6 +76,24 @@ public class NotificationModelTest {
         assertEquals("info", notification.getNotificationType());
     }
 
+    @Test
+    public void testNotificationLogKeepsStoredDetails() {
+        notification.setNotificationId("notif123");
+        notification.setSenderId("organizer1");
+        notification.setEventTitle("Swim Lessons");
+        notification.setOrganizerName("Pat Organizer");
+
+        NotificationLog log = new NotificationLog(notification);
+
+        assertEquals("notif123", log.getNotificationId());
+        assertEquals("event123", log.getEventId());
+        assertEquals("organizer1", log.getSenderId());
+        assertEquals(notification.getCreatedAt(), log.getCreatedAt());
+        assertEquals("Swim Lessons", log.getEventTitle());
+        assertEquals("Pat Organizer", log.getOrganizerName());
+        assertEquals(2, log.getRecipientCount());
+    }
+
     @Test
     public void testCreatedAtIsSet() {
         Date beforeCreation = new Date();
@@ -0,0 +1,78 @@
+package com.ualberta.static2.repository;
+
+import static org.junit.Assert.*;
+
+import com.ualberta.eventlottery.model.Event;
+import com.ualberta.eventlottery.repository.DocumentFields;
+import com.ualberta.eventlottery.repository.EventDocumentParser;
+
+import org.junit.Test;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for EventDocumentParser.
+ * Tests that malformed daily times are skipped and reported instead of failing the event.
+ */
+public class EventDocumentParserTest {
+
+    private static DocumentFields fields(Map<String, Object> values) {
+        return new DocumentFields() {
+            @Override
+            public String getId() { return "event1"; }
+
+            @Override
+            public String getString(String field) { return (String) values.get(field); }
+
+            @Override
+            public Long getLong(String field) { return (Long) values.get(field); }
+
+            @Override
+            public Double getDouble(String field) { return (Double) values.get(field); }
+
+            @Override
+            public Boolean getBoolean(String field) { return (Boolean) values.get(field); }
+
+            @Override
+            public Date getDate(String field) { return (Date) values.get(field); }
+        };
+    }
+
+    private static Map<String, Object> eventDocument(String dailyStartTime) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("title", "Swim Lessons");
+        values.put("maxAttendees", 20L);
+        values.put("dailyStartTime", dailyStartTime);
+        values.put("dailyEndTime", "17:00");
+        return values;
+    }
+
+    @Test
+    public void testValidDailyTimesAreParsed() {
+        List<String> invalid = new ArrayList<>();
+        Event event = EventDocumentParser.parseEvent(fields(eventDocument("09:00")),
+                (eventId, field, value, e) -> invalid.add(field));
+
+        assertEquals(LocalTime.of(9, 0), event.getDailyStartTime());
+        assertEquals(LocalTime.of(17, 0), event.getDailyEndTime());
+        assertTrue(invalid.isEmpty());
+    }
+
+    @Test
+    public void testInvalidDailyStartTimeIsReportedAndSkipped() {
+        List<String> invalid = new ArrayList<>();
+        Event event = EventDocumentParser.parseEvent(fields(eventDocument("25:99")),
+                (eventId, field, value, e) -> invalid.add(eventId + "/" + field + "=" + value));
+
+        assertNull(event.getDailyStartTime());
+        assertEquals(LocalTime.of(17, 0), event.getDailyEndTime());
+        assertEquals("Swim Lessons", event.getTitle());
+        assertEquals(1, invalid.size());
+        assertEquals("event1/dailyStartTime=25:99", invalid.get(0));
+    }
+}
@@ -0,0 +1,52 @@
+package com.ualberta.static2.repository;
+
+import static org.junit.Assert.*;
+
+import com.ualberta.eventlottery.repository.ParseExecutor;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for ParseExecutor.
+ * Tests that the parse pool can be resized and runs work on its own bounded threads.
+ */
+public class ParseExecutorTest {
+
+    @Test
+    public void testSetThreadCountReplacesPool() {
+        ParseExecutor.setThreadCount(3);
+        Executor first = ParseExecutor.getExecutor();
+        assertEquals(3, ((ThreadPoolExecutor) first).getMaximumPoolSize());
+
+        ParseExecutor.setThreadCount(2);
+        Executor second = ParseExecutor.getExecutor();
+        assertNotSame(first, second);
+        assertEquals(2, ((ThreadPoolExecutor) second).getMaximumPoolSize());
+        assertTrue(((ThreadPoolExecutor) first).isShutdown());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetThreadCountRejectsZero() {
+        ParseExecutor.setThreadCount(0);
+    }
+
+    @Test
+    public void testWorkRunsOnParseThread() throws InterruptedException {
+        ParseExecutor.setThreadCount(1);
+        AtomicReference<String> threadName = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        ParseExecutor.getExecutor().execute(() -> {
+            threadName.set(Thread.currentThread().getName());
+            done.countDown();
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(threadName.get().startsWith("parse-"));
+    }
+}
@@ -0,0 +1,47 @@
+package com.ualberta.static2.search;
+
+import static org.junit.Assert.*;
+
+import com.ualberta.eventlottery.repository.SearchTokens;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for SearchTokens.
+ * Tests normalization, prefix tokens and matching of multi-word queries.
+ */
+public class SearchTokensTest {
+
+    @Test
+    public void testTokensAreLowercasePrefixesWithoutAccents() {
+        List<String> tokens = SearchTokens.tokensFor("\u00c9mile Zola-Swim");
+        assertEquals(Arrays.asList("e", "em", "emi", "emil", "emile",
+                "z", "zo", "zol", "zola", "s", "sw", "swi", "swim"), tokens);
+    }
+
+    @Test
+    public void testTokensAreCappedAndDeduplicated() {
+        List<String> tokens = SearchTokens.tokensFor("abcdefghijklmnopqrstuvwxyz ab");
+        assertEquals(SearchTokens.MAX_PREFIX_LENGTH, tokens.size());
+        assertTrue(SearchTokens.tokensFor(null).isEmpty());
+        assertTrue(SearchTokens.tokensFor(" - ").isEmpty());
+    }
+
+    @Test
+    public void testQueryTokenUsesLongestWord() {
+        assertEquals("swimming", SearchTokens.queryToken("  Kids SWIMMING "));
+        assertEquals("abcdefghijklmno", SearchTokens.queryToken("abcdefghijklmnopqrstuvwxyz"));
+        assertNull(SearchTokens.queryToken("   "));
+    }
+
+    @Test
+    public void testMatchesRequiresEveryWordAsPrefix() {
+        assertTrue(SearchTokens.matches("Mary Jones", "jo ma"));
+        assertTrue(SearchTokens.matches("Mary Jones", ""));
+        assertFalse(SearchTokens.matches("Mary Jones", "ones"));
+        assertFalse(SearchTokens.matches(null, "mary"));
+    }
+}
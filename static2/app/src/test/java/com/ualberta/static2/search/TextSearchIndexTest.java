@@ -0,0 +1,101 @@
+package com.ualberta.static2.search;
+
+import static org.junit.Assert.*;
+
+import com.ualberta.eventlottery.repository.TextSearchIndex;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for TextSearchIndex.
+ * Tests prefix and multi-word queries, result order and re-indexing of changed items.
+ */
+public class TextSearchIndexTest {
+
+    private TextSearchIndex<String> sampleIndex() {
+        TextSearchIndex<String> index = new TextSearchIndex<>();
+        index.add("n1", "You Have Been Selected!", "Swim Lessons", "Pat Organizer");
+        index.add("n2", "Waiting List Update", "Swim Club", null);
+        index.add("n3", "Event cancelled", "Piano \u00c9tudes", "Sam Swift");
+        return index;
+    }
+
+    @Test
+    public void testEmptyQueryReturnsEverythingInOrder() {
+        TextSearchIndex<String> index = sampleIndex();
+        assertEquals(Arrays.asList("n1", "n2", "n3"), index.search(null));
+        assertEquals(Arrays.asList("n1", "n2", "n3"), index.search("  "));
+    }
+
+    @Test
+    public void testPrefixQueriesAcrossFields() {
+        TextSearchIndex<String> index = sampleIndex();
+        assertEquals(Arrays.asList("n1", "n2", "n3"), index.search("sw"));
+        assertEquals(Arrays.asList("n1", "n2"), index.search("SWIM"));
+        assertEquals(Collections.singletonList("n3"), index.search("etud"));
+        assertTrue(index.search("wim").isEmpty());
+    }
+
+    @Test
+    public void testEveryQueryWordMustMatch() {
+        TextSearchIndex<String> index = sampleIndex();
+        assertEquals(Collections.singletonList("n2"), index.search("swim wait"));
+        assertEquals(Collections.singletonList("n3"), index.search("sam, sw"));
+        assertTrue(index.search("swim piano").isEmpty());
+    }
+
+    @Test
+    public void testUpdateReindexesItem() {
+        TextSearchIndex<String> index = sampleIndex();
+        assertTrue(index.update("n2", "Waiting List Update", "Swim Club", "Jordan Lee"));
+        assertEquals(Collections.singletonList("n2"), index.search("jordan"));
+
+        assertTrue(index.update("n1", "Selected"));
+        assertEquals(Collections.singletonList("n2"), index.search("swim"));
+        assertTrue(index.search("pat").isEmpty());
+        assertEquals(Arrays.asList("n1", "n2", "n3"), index.search("s"));
+
+        assertFalse(index.update("n4", "Unknown"));
+    }
+
+    @Test
+    public void testMatchesLinearScanOnLargeIndex() {
+        String[] words = {"swim", "swift", "piano", "club", "lessons", "selected", "waiting", "update"};
+        TextSearchIndex<Integer> index = new TextSearchIndex<>();
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String text = words[i % words.length] + " " + words[(i / 7) % words.length] + " item" + i;
+            texts.add(text);
+            index.add(i, text);
+        }
+        for (String query : new String[]{"sw", "swi p", "item12", "club lessons", "s w"}) {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < texts.size(); i++) {
+                if (matches(texts.get(i), query)) {
+                    expected.add(i);
+                }
+            }
+            assertEquals(expected, index.search(query));
+        }
+        index.clear();
+        assertEquals(0, index.size());
+    }
+
+    private static boolean matches(String text, String query) {
+        for (String queryWord : query.split(" ")) {
+            boolean found = false;
+            for (String word : text.split(" ")) {
+                found |= word.startsWith(queryWord);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
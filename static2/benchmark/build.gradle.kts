@@ -0,0 +1,76 @@
+import java.util.Properties
+
+// JMH microbenchmarks for the pure-Java hot paths of the app (event parsing, home screen
+// filtering, log search, CSV formatting, export encoding and the lottery draw). The app
+// sources are compiled straight into this JVM module, so the benchmarks always measure the
+// code that ships.
+//
+//   ./gradlew :benchmark:jmh
+//   ./gradlew :benchmark:jmh -Pjmh.includes=EventFilterBenchmark
+plugins {
+    `java-library`
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+val appSources = "../app/src/main/java"
+
+sourceSets {
+    main {
+        java {
+            srcDir(appSources)
+            // Only classes that make no Android framework calls at runtime can be listed
+            // here: on the JVM every android.jar method throws "Stub!". Keep them that way.
+            include(
+                "com/ualberta/eventlottery/model/**",
+                "com/ualberta/eventlottery/lottery/**",
+                "com/ualberta/eventlottery/repository/DocumentFields.java",
+                "com/ualberta/eventlottery/repository/EventDocumentParser.java",
+                "com/ualberta/eventlottery/repository/SearchTokens.java",
+                "com/ualberta/eventlottery/repository/TextSearchIndex.java",
+                "com/ualberta/eventlottery/ui/home/entrant/EventFilter.java",
+                "com/ualberta/eventlottery/utils/CsvFormat.java",
+                "com/ualberta/eventlottery/utils/ExportFormat.java",
+                "com/ualberta/eventlottery/utils/RegistrationSink.java",
+                "com/ualberta/eventlottery/utils/CsvRegistrationSink.java",
+                "com/ualberta/eventlottery/utils/ColumnarRegistrationSink.java"
+            )
+            // Depends on the notification package, which needs the Firebase SDK.
+            exclude("com/ualberta/eventlottery/model/NotificationLog.java")
+        }
+    }
+}
+
+// The model classes reference android.os.Build; the SDK stub jar satisfies the compiler,
+// and Build.VERSION.SDK_INT simply reads 0 on the JVM. Without an SDK the module is
+// skipped rather than failing the configuration of the whole build.
+val sdkDir: String? = Properties().run {
+    val localProperties = rootProject.file("local.properties")
+    if (localProperties.exists()) {
+        localProperties.inputStream().use { load(it) }
+    }
+    getProperty("sdk.dir") ?: System.getenv("ANDROID_HOME")
+}
+if (sdkDir == null) {
+    logger.warn("Skipping :benchmark; set sdk.dir in local.properties or ANDROID_HOME to build it")
+    tasks.configureEach { enabled = false }
+}
+val androidJar = files(listOfNotNull(sdkDir?.let { "$it/platforms/android-36/android.jar" }))
+
+dependencies {
+    compileOnly(androidJar)
+    compileOnly("androidx.annotation:annotation:1.9.1")
+    jmhRuntimeOnly(androidJar)
+}
+
+jmh {
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
@@ -0,0 +1,57 @@
+package com.ualberta.static2.benchmark;
+
+import com.ualberta.eventlottery.model.Entrant;
+import com.ualberta.eventlottery.model.Registration;
+import com.ualberta.eventlottery.utils.CsvFormat;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the CSV bodies written by {@code CSVExportUtil}: the registration export with
+ * status and dates, and the confirmed/waiting list export with contact details only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CsvExportBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private List<Entrant> entrants;
+    private List<Registration> registrations;
+
+    @Setup
+    public void setUp() {
+        entrants = SyntheticData.entrants(size);
+        registrations = SyntheticData.registrations(size, 42);
+    }
+
+    @Benchmark
+    public String registrationRows() {
+        StringBuilder csvContent = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            CsvFormat.appendRegistration(csvContent, entrants.get(i), registrations.get(i));
+        }
+        return csvContent.toString();
+    }
+
+    @Benchmark
+    public String entrantRows() {
+        StringBuilder csvContent = new StringBuilder();
+        for (Entrant entrant : entrants) {
+            csvContent.append(CsvFormat.formatEntrant(entrant)).append("\n");
+        }
+        return csvContent.toString();
+    }
+}
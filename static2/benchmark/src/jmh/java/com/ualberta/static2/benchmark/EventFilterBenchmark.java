@@ -0,0 +1,72 @@
+package com.ualberta.static2.benchmark;
+
+import com.ualberta.eventlottery.model.Event;
+import com.ualberta.eventlottery.model.EventCategory;
+import com.ualberta.eventlottery.model.TimeRange;
+import com.ualberta.eventlottery.ui.home.entrant.EventFilter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-filters the home screen event list, which {@code HomeViewModel} does on every
+ * snapshot and every filter change. The one-shot cases index the whole list before
+ * filtering, as a first snapshot does; the indexed case only changes the selection on an
+ * already indexed list, as a filter change does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventFilterBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private List<Event> events;
+    private EventFilter indexedFilter;
+    private boolean toggle;
+    private final List<EventCategory> allCategories = Arrays.asList(EventCategory.values());
+    private final List<DayOfWeek> allDays = Arrays.asList(DayOfWeek.values());
+    private final List<TimeRange> allTimeRanges = Arrays.asList(TimeRange.values());
+    private final List<EventCategory> someCategories = Arrays.asList(EventCategory.FITNESS, EventCategory.SPORTS, EventCategory.MUSIC);
+    private final List<DayOfWeek> weekdays = Arrays.asList(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+            DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
+    private final List<TimeRange> someTimeRanges = Arrays.asList(TimeRange.MORNING, TimeRange.EVENING);
+
+    @Setup
+    public void setUp() {
+        events = SyntheticData.events(size, 42);
+        indexedFilter = new EventFilter();
+        indexedFilter.setEvents(events);
+    }
+
+    @Benchmark
+    public List<Event> allFiltersSelected() {
+        return EventFilter.applyAllFilters(events, allCategories, allDays, allTimeRanges);
+    }
+
+    @Benchmark
+    public List<Event> selectiveFilters() {
+        return EventFilter.applyAllFilters(events, someCategories, weekdays, someTimeRanges);
+    }
+
+    @Benchmark
+    public List<Event> selectionChangeOnIndexedList() {
+        toggle = !toggle;
+        indexedFilter.setCategories(toggle ? someCategories : allCategories);
+        indexedFilter.setDaysOfWeek(weekdays);
+        indexedFilter.setTimeRanges(someTimeRanges);
+        return indexedFilter.apply();
+    }
+}
@@ -0,0 +1,55 @@
+package com.ualberta.static2.benchmark;
+
+import com.ualberta.eventlottery.model.Event;
+import com.ualberta.eventlottery.repository.EventDocumentParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts a page of event documents with both event parsers, as
+ * {@code EventRepository.documentToEvent} and {@code EventRepository.fromDocument} do
+ * for every document of a query result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EventParsingBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private List<MapFields> documents;
+
+    @Setup
+    public void setUp() {
+        documents = SyntheticData.eventDocuments(size, 42);
+    }
+
+    @Benchmark
+    public void parseEvent(Blackhole blackhole) {
+        for (MapFields document : documents) {
+            blackhole.consume(EventDocumentParser.parseEvent(document, (eventId, field, value, e) ->
+                    blackhole.consume(e)));
+        }
+    }
+
+    @Benchmark
+    public void fillLiveEvent(Blackhole blackhole) {
+        for (MapFields document : documents) {
+            Event event = new Event();
+            EventDocumentParser.fillLiveEvent(event, document);
+            blackhole.consume(event);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.ualberta.static2.benchmark;
+
+import com.ualberta.eventlottery.model.Entrant;
+import com.ualberta.eventlottery.model.Registration;
+import com.ualberta.eventlottery.utils.ExportFormat;
+import com.ualberta.eventlottery.utils.RegistrationSink;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the registration export of {@code CSVExportUtil} in every {@link ExportFormat} to
+ * memory, reporting the encoded size next to the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExportFormatBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"CSV", "CSV_GZIP", "COLUMNAR"})
+    public ExportFormat format;
+
+    private List<Entrant> entrants;
+    private List<Registration> registrations;
+
+    /**
+     * Size of the last written export, reported as a secondary result.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class OutputSize {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        entrants = SyntheticData.entrants(size);
+        registrations = SyntheticData.registrations(size, 42);
+    }
+
+    @Benchmark
+    public int export(OutputSize outputSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (RegistrationSink sink = format.open(out)) {
+            for (int i = 0; i < size; i++) {
+                sink.write(registrations.get(i), entrants.get(i));
+            }
+        }
+        outputSize.bytes = out.size();
+        return out.size();
+    }
+}
@@ -0,0 +1,60 @@
+package com.ualberta.static2.benchmark;
+
+import com.ualberta.eventlottery.repository.TextSearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches the admin notification log as {@code AdminLogViewModel} does after every
+ * debounced keystroke: a one letter prefix, a selective prefix, and two-word queries
+ * over title, body, event title and organizer name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LogSearchBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"s", "swim", "swim lot", "pat selected"})
+    public String query;
+
+    private TextSearchIndex<Integer> index;
+
+    @Setup
+    public void setUp() {
+        String[] titles = {"You Have Been Selected!", "Waiting List Update", "Event Cancelled",
+                "Lottery Results", "Reminder"};
+        String[] words = {"swim", "lessons", "piano", "club", "lottery", "draw", "spots",
+                "confirm", "invitation", "deadline", "community", "centre", "weekly", "session"};
+        String[] organizers = {"Pat Organizer", "Sam Swift", "Jordan Lee", "Alex Kim"};
+        SplittableRandom random = new SplittableRandom(42);
+        index = new TextSearchIndex<>();
+        for (int i = 0; i < size; i++) {
+            StringBuilder body = new StringBuilder();
+            for (int w = 0; w < 15; w++) {
+                body.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            index.add(i, titles[random.nextInt(titles.length)], body.toString(),
+                    words[random.nextInt(words.length)] + " " + (i % 500),
+                    organizers[random.nextInt(organizers.length)]);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> search() {
+        return index.search(query);
+    }
+}
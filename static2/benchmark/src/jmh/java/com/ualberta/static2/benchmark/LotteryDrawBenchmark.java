@@ -0,0 +1,53 @@
+package com.ualberta.static2.benchmark;
+
+import com.ualberta.eventlottery.lottery.LotteryEngine;
+import com.ualberta.eventlottery.model.Registration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Draws winners from a waiting list with {@link LotteryEngine}, the JVM port of the
+ * selection {@code runLotteryDraw} makes, for a small draw and for a draw of a tenth of
+ * the pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LotteryDrawBenchmark {
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int size;
+
+    private List<Registration> pool;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        pool = SyntheticData.registrations(size, 42);
+    }
+
+    @Benchmark
+    public LotteryEngine.DrawResult<Registration> drawTen() {
+        return new LotteryEngine(seed++).draw(pool, 10);
+    }
+
+    @Benchmark
+    public LotteryEngine.DrawResult<Registration> drawTenPercent() {
+        return new LotteryEngine(seed++).draw(pool, size / 10);
+    }
+
+    @Benchmark
+    public int[] selectIndicesTenPercent() {
+        return new LotteryEngine(seed++).selectIndices(size, size / 10);
+    }
+}
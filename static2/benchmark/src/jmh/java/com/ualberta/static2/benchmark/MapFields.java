@@ -0,0 +1,53 @@
+package com.ualberta.static2.benchmark;
+
+import com.ualberta.eventlottery.repository.DocumentFields;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * {@link DocumentFields} over a plain map, standing in for a Firestore snapshot so the
+ * document parsers can be benchmarked on the JVM. Numbers are converted the same way
+ * the Firestore SDK converts them.
+ */
+class MapFields implements DocumentFields {
+    private final String id;
+    private final Map<String, Object> data;
+
+    MapFields(String id, Map<String, Object> data) {
+        this.id = id;
+        this.data = data;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getString(String field) {
+        return (String) data.get(field);
+    }
+
+    @Override
+    public Long getLong(String field) {
+        Number value = (Number) data.get(field);
+        return value != null ? value.longValue() : null;
+    }
+
+    @Override
+    public Double getDouble(String field) {
+        Number value = (Number) data.get(field);
+        return value != null ? value.doubleValue() : null;
+    }
+
+    @Override
+    public Boolean getBoolean(String field) {
+        return (Boolean) data.get(field);
+    }
+
+    @Override
+    public Date getDate(String field) {
+        return (Date) data.get(field);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ualberta.static2.benchmark;
+
+import com.ualberta.eventlottery.model.Entrant;
+import com.ualberta.eventlottery.model.EntrantRegistrationStatus;
+import com.ualberta.eventlottery.model.Event;
+import com.ualberta.eventlottery.model.EventCategory;
+import com.ualberta.eventlottery.model.EventRegistrationStatus;
+import com.ualberta.eventlottery.model.EventStatus;
+import com.ualberta.eventlottery.model.Registration;
+import com.ualberta.eventlottery.repository.EventDocumentParser;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deterministic synthetic documents and models shared by the benchmarks. Every generator
+ * takes a seed so that runs with the same parameters see the same data.
+ */
+final class SyntheticData {
+    private static final long NOW = 1_760_000_000_000L;
+    private static final EventCategory[] CATEGORIES = EventCategory.values();
+    private static final EntrantRegistrationStatus[] STATUSES = EntrantRegistrationStatus.values();
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Creates event documents with every field the parsers read, using both the organizer
+     * ({@code eventStart}) and entrant ({@code startTime}) spellings of the start date.
+     */
+    static List<MapFields> eventDocuments(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<MapFields> documents = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Date start = new Date(NOW + TimeUnit.HOURS.toMillis(random.nextInt(24 * 60)));
+            Map<String, Object> data = new HashMap<>();
+            data.put("title", "Event " + i);
+            data.put("description", "Synthetic event " + i + ", with a comma and \"quotes\"");
+            data.put("organizerId", "organizer-" + random.nextInt(100));
+            data.put("category", CATEGORIES[random.nextInt(CATEGORIES.length)].toString());
+            data.put("maxAttendees", (long) (10 + random.nextInt(500)));
+            data.put("maxWaitListSize", (long) (100 + random.nextInt(5000)));
+            data.put("confirmedAttendees", (long) random.nextInt(10));
+            data.put("sessionDuration", (long) (30 + random.nextInt(90)));
+            data.put("price", random.nextInt(5000) / 100.0);
+            data.put("location", "Rec centre " + random.nextInt(20));
+            data.put("locationRequired", random.nextBoolean());
+            data.put("posterUrl", "https://example.com/posters/" + i + ".png");
+            data.put("qrCodeUrl", "https://example.com/qr/" + i + ".png");
+            data.put("eventStart", start);
+            data.put("startTime", start);
+            data.put("eventEnd", new Date(start.getTime() + TimeUnit.HOURS.toMillis(2)));
+            data.put("endTime", new Date(start.getTime() + TimeUnit.HOURS.toMillis(2)));
+            data.put("registrationStart", new Date(NOW - TimeUnit.DAYS.toMillis(1)));
+            data.put("registrationEnd", new Date(NOW + TimeUnit.DAYS.toMillis(7)));
+            data.put("dailyStartTime", String.format("%02d:%02d", 6 + random.nextInt(16), 15 * random.nextInt(4)));
+            data.put("dailyEndTime", "22:00");
+            data.put("eventStatus", EventStatus.UPCOMING.toString());
+            data.put("registrationStatus", EventRegistrationStatus.REGISTRATION_OPEN.toString());
+            data.put("createdAt", new Date(NOW));
+            documents.add(new MapFields("event-" + i, data));
+        }
+        return documents;
+    }
+
+    /**
+     * Parses {@link #eventDocuments} with the entrant-side parser, as the home screen sees them.
+     */
+    static List<Event> events(int size, long seed) {
+        List<Event> events = new ArrayList<>(size);
+        for (MapFields document : eventDocuments(size, seed)) {
+            Event event = new Event();
+            EventDocumentParser.fillLiveEvent(event, document);
+            events.add(event);
+        }
+        return events;
+    }
+
+    static List<Entrant> entrants(int size) {
+        List<Entrant> entrants = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // Every tenth name needs quoting, as real exports occasionally do.
+            String name = i % 10 == 0 ? "Doe, Jane \"JD\" " + i : "Entrant " + i;
+            entrants.add(new Entrant("user-" + i, name, "entrant" + i + "@example.com",
+                    "780555" + String.format("%04d", i % 10000), "token-" + i));
+        }
+        return entrants;
+    }
+
+    static List<Registration> registrations(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Registration> registrations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Date registeredAt = new Date(NOW - TimeUnit.MINUTES.toMillis(i));
+            Date respondedAt = random.nextInt(4) == 0 ? new Date(registeredAt.getTime() + 60_000) : null;
+            registrations.add(new Registration("event_user-" + i, "event", "user-" + i,
+                    STATUSES[random.nextInt(STATUSES.length)], registeredAt, respondedAt, null));
+        }
+        return registrations;
+    }
+}
@@ -23,5 +23,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "static2"
 include(":app")
+include(":benchmark")
 
 